@@ -0,0 +1,96 @@
+package games.dominos;
+
+import iialib.games.algs.algorithms.AlphaBeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Équivalents Dominos des benchmarks Escampe : génération et validation des coups, coup joué,
+ * heuristique et AlphaBeta profondeur 4, sur plusieurs tailles de grille, vides ou après quelques coups tirés au sort.
+ *
+ * Exemple: >gradlew jmh -PjmhIncludes=DominosBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DominosBenchmark {
+
+    @Param({"7", "16"})
+    public int size;
+
+    /** Nombre de coups joués au hasard (graine fixe) avant la position mesurée */
+    @Param({"0", "8", "16"})
+    public int plies;
+
+    private DominosBoard board;
+    private DominosMove[] candidates; // Toutes les cases d'ancrage, valides ou non
+    private DominosMove[] legalMoves;
+    private AlphaBeta<DominosMove, DominosRole, DominosBoard> search;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        board = new DominosBoard(size);
+        DominosRole role = DominosRole.VERTICAL;
+        for (int i = 0; i < plies && !board.isGameOver(); i++) {
+            List<DominosMove> moves = board.possibleMoves(role);
+            board = board.play(moves.get(random.nextInt(moves.size())), role);
+            role = (role == DominosRole.VERTICAL) ? DominosRole.HORIZONTAL : DominosRole.VERTICAL;
+        }
+
+        legalMoves = board.possibleMoves(DominosRole.VERTICAL).toArray(new DominosMove[0]);
+        candidates = new DominosMove[(size - 1) * size];
+        int n = 0;
+        for (int i = 0; i < size - 1; i++) {
+            for (int j = 0; j < size; j++) candidates[n++] = new DominosMove(i, j);
+        }
+        search = new AlphaBeta<>(DominosRole.VERTICAL, DominosRole.HORIZONTAL, DominosHeuristics.hVertical, 4, false);
+    }
+
+    @Benchmark
+    public List<DominosMove> possibleMoves() {
+        return board.possibleMoves(DominosRole.VERTICAL);
+    }
+
+    @Benchmark
+    public void isValidMove(Blackhole bh) {
+        for (DominosMove move : candidates) bh.consume(board.isValidMove(move, DominosRole.VERTICAL));
+    }
+
+    @Benchmark
+    public DominosBoard play() {
+        DominosMove move = legalMoves[next];
+        next = (next + 1 == legalMoves.length) ? 0 : next + 1;
+        return board.play(move, DominosRole.VERTICAL);
+    }
+
+    @Benchmark
+    public int hVertical() {
+        return DominosHeuristics.hVertical.eval(board, DominosRole.VERTICAL);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public DominosMove alphaBeta() {
+        return search.bestMove(board, DominosRole.VERTICAL);
+    }
+}
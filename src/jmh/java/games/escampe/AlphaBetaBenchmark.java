@@ -0,0 +1,58 @@
+package games.escampe;
+
+import iialib.games.algs.algorithms.AlphaBeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AlphaBeta.bestMove à profondeur fixe sur les positions de référence, en version classique et negamax.
+ *
+ * Exemple: >gradlew jmh -PjmhIncludes=AlphaBetaBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlphaBetaBenchmark {
+
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.LISERE_1, BenchmarkPositions.LISERE_2,
+            BenchmarkPositions.LISERE_3, BenchmarkPositions.FREE, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    @Param({"false", "true"})
+    public boolean negamax;
+
+    private EscampeBoard board;
+    private EscampeRole toMove;
+    private AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> search;
+
+    @Setup
+    public void setup() {
+        board = BenchmarkPositions.get(position);
+        toMove = board.getCurrentTurn();
+        EscampeRole opponent = (toMove == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        search = new AlphaBeta<>(toMove, opponent,
+                (toMove == EscampeRole.WHITE) ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack, depth, negamax);
+    }
+
+    @Benchmark
+    public EscampeMove bestMove() {
+        return search.bestMove(board, toMove);
+    }
+}
@@ -0,0 +1,24 @@
+package games.escampe;
+
+/**
+ * Noms des positions de référence de EscampeBench utilisées par les benchmarks JMH
+ * (constantes pour pouvoir servir dans les @Param). Elles couvrent le premier coup,
+ * chaque contrainte de liseré et une finale où la licorne est prise au coup suivant.
+ */
+final class BenchmarkPositions {
+
+    static final String OPENING = "opening";
+    static final String LISERE_1 = "lisere1";
+    static final String LISERE_2 = "lisere2";
+    static final String LISERE_3 = "lisere3";
+    static final String FREE = "free";
+    static final String ENDGAME = "endgame";
+
+    private BenchmarkPositions() {
+    }
+
+    /** @return la position de référence de ce nom, prête à jouer */
+    static EscampeBoard get(String name) {
+        return EscampeBench.position(name);
+    }
+}
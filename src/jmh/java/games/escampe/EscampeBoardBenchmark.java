@@ -0,0 +1,105 @@
+package games.escampe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemins critiques du plateau Escampe : génération et validation des coups, coups joués en place
+ * ou par copie, et heuristiques. Chaque benchmark tourne sur toutes les positions de référence.
+ *
+ * Exemple: >gradlew jmh -PjmhIncludes=EscampeBoardBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscampeBoardBenchmark {
+
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.LISERE_1, BenchmarkPositions.LISERE_2,
+            BenchmarkPositions.LISERE_3, BenchmarkPositions.FREE, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    private EscampeBoard board;
+    private EscampeRole toMove;
+    private EscampeMove[] candidates; // Tous les déplacements géométriques du joueur, valides ou non
+    private EscampeMove[] legalMoves;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        board = BenchmarkPositions.get(position);
+        toMove = board.getCurrentTurn();
+        legalMoves = board.possibleMoves(toMove).toArray(new EscampeMove[0]);
+        if (legalMoves.length == 0) throw new IllegalStateException("Position sans coup : " + position);
+
+        long mine = (toMove == EscampeRole.WHITE)
+                ? board.getWhitePaladins() | board.getWhiteUnicorn()
+                : board.getBlackPaladins() | board.getBlackUnicorn();
+        List<EscampeMove> all = new ArrayList<>();
+        for (int from = 0; from < 36; from++) {
+            if ((mine & (1L << from)) == 0) continue;
+            for (int to = 0; to < 36; to++) {
+                if (to != from) all.add(new EscampeMove(EscampeBoard.indexToString(from) + "-" + EscampeBoard.indexToString(to)));
+            }
+        }
+        candidates = all.toArray(new EscampeMove[0]);
+    }
+
+    /** Coup légal suivant, pour ne pas mesurer toujours le même */
+    private EscampeMove nextMove() {
+        EscampeMove move = legalMoves[next];
+        next = (next + 1 == legalMoves.length) ? 0 : next + 1;
+        return move;
+    }
+
+    @Benchmark
+    public List<EscampeMove> possibleMoves() {
+        return board.possibleMoves(toMove);
+    }
+
+    /** Valide les 6 x 35 déplacements candidats du joueur, dont une petite partie seulement est légale */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void isValidMove(Blackhole bh) {
+        for (EscampeMove move : candidates) bh.consume(board.isValidMove(move, toMove));
+    }
+
+    /** Copie du plateau puis coup en place, comme dans la recherche */
+    @Benchmark
+    public EscampeBoard playVoid() {
+        EscampeBoard copy = new EscampeBoard(board);
+        copy.playVoid(nextMove(), toMove);
+        return copy;
+    }
+
+    @Benchmark
+    public EscampeBoard play() {
+        return board.play(nextMove(), toMove);
+    }
+
+    @Benchmark
+    public int hWhite() {
+        return EscampeHeuristics.hWhite.eval(board, EscampeRole.WHITE);
+    }
+
+    @Benchmark
+    public int hBlack() {
+        return EscampeHeuristics.hBlack.eval(board, EscampeRole.BLACK);
+    }
+}
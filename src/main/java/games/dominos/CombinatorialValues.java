@@ -0,0 +1,240 @@
+package games.dominos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Valeurs de jeux combinatoires (théorie de Conway) sous forme canonique, utilisées par DominosSolver
+ * pour additionner des régions indépendantes du plateau. Left = VERTICAL, Right = HORIZONTAL.
+ *
+ * Chaque forme canonique est enregistrée une seule fois et désignée par un numéro : deux jeux égaux ont
+ * donc le même numéro. Les comparaisons, sommes et opposés sont mémorisés.
+ * Non thread-safe : une table par solveur.
+ */
+final class CombinatorialValues {
+
+    static final int ZERO = 0; // { | }
+
+    private static final int TEMP = -1; // Jeu en cours de simplification dans make, pas encore enregistré
+    private static final int[] NONE = new int[0];
+
+    private final ArrayList<int[]> lefts = new ArrayList<>();
+    private final ArrayList<int[]> rights = new ArrayList<>();
+    private final HashMap<Options, Integer> interned = new HashMap<>();
+    private final HashMap<Long, Boolean> leMemo = new HashMap<>();
+    private final HashMap<Long, Integer> sumMemo = new HashMap<>();
+    private final ArrayList<Integer> negMemo = new ArrayList<>();
+
+    private int[] tempLeft = NONE;
+    private int[] tempRight = NONE;
+
+    CombinatorialValues() {
+        intern(NONE, NONE);
+    }
+
+    /** @return le nombre de formes canoniques connues */
+    int size() {
+        return lefts.size();
+    }
+
+    // --------------------- Résultats ---------------------
+
+    /** Left (VERTICAL) gagne en jouant le premier ssi G n'est pas ≤ 0 */
+    boolean leftWinsMovingFirst(int g) {
+        return !le(g, ZERO);
+    }
+
+    /** Right (HORIZONTAL) gagne en jouant le premier ssi G n'est pas ≥ 0 */
+    boolean rightWinsMovingFirst(int g) {
+        return !le(ZERO, g);
+    }
+
+    // --------------------- Construction ---------------------
+
+    /** Forme canonique du jeu { left | right } (options déjà canoniques) */
+    int make(int[] left, int[] right) {
+        int[] l = distinct(left);
+        int[] r = distinct(right);
+        boolean changed = true;
+        while (changed) {
+            l = removeDominated(l, true);
+            r = removeDominated(r, false);
+            tempLeft = l;
+            tempRight = r;
+            changed = false;
+
+            // Option Left réversible : GLR ≤ G, on la remplace par les options Left de GLR
+            for (int i = 0; i < l.length && !changed; i++) {
+                for (int glr : rights.get(l[i])) {
+                    if (le(glr, TEMP)) {
+                        l = replace(l, i, lefts.get(glr));
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+            // Option Right réversible : GRL ≥ G, on la remplace par les options Right de GRL
+            for (int i = 0; i < r.length && !changed; i++) {
+                for (int grl : lefts.get(r[i])) {
+                    if (le(TEMP, grl)) {
+                        r = replace(r, i, rights.get(grl));
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        tempLeft = tempRight = NONE;
+        return intern(l, r);
+    }
+
+    /** Somme G + H */
+    int add(int g, int h) {
+        if (g == ZERO) return h;
+        if (h == ZERO) return g;
+        long key = (g < h) ? ((long) g << 32) | h : ((long) h << 32) | g;
+        Integer cached = sumMemo.get(key);
+        if (cached != null) return cached;
+
+        int[] gl = lefts.get(g), gr = rights.get(g), hl = lefts.get(h), hr = rights.get(h);
+        int[] left = new int[gl.length + hl.length];
+        int[] right = new int[gr.length + hr.length];
+        for (int i = 0; i < gl.length; i++) left[i] = add(gl[i], h);
+        for (int i = 0; i < hl.length; i++) left[gl.length + i] = add(g, hl[i]);
+        for (int i = 0; i < gr.length; i++) right[i] = add(gr[i], h);
+        for (int i = 0; i < hr.length; i++) right[gr.length + i] = add(g, hr[i]);
+        int sum = make(left, right);
+        sumMemo.put(key, sum);
+        return sum;
+    }
+
+    /** Opposé -G = { -GR | -GL } (l'opposé d'une forme canonique est canonique) */
+    int neg(int g) {
+        while (negMemo.size() <= g) negMemo.add(null);
+        Integer cached = negMemo.get(g);
+        if (cached != null) return cached;
+        int[] gl = lefts.get(g), gr = rights.get(g);
+        int[] left = new int[gr.length], right = new int[gl.length];
+        for (int i = 0; i < gr.length; i++) left[i] = neg(gr[i]);
+        for (int i = 0; i < gl.length; i++) right[i] = neg(gl[i]);
+        int result = intern(distinct(left), distinct(right));
+        while (negMemo.size() <= Math.max(g, result)) negMemo.add(null);
+        negMemo.set(g, result);
+        negMemo.set(result, g);
+        return result;
+    }
+
+    // --------------------- Comparaison ---------------------
+
+    /** G ≤ H ssi aucune option Left de G n'est ≥ H et aucune option Right de H n'est ≤ G */
+    boolean le(int g, int h) {
+        if (g == h) return true;
+        boolean memo = (g != TEMP && h != TEMP);
+        long key = ((long) g << 32) | (h & 0xFFFFFFFFL);
+        if (memo) {
+            Boolean cached = leMemo.get(key);
+            if (cached != null) return cached;
+        }
+        boolean result = true;
+        for (int gl : leftOptions(g)) {
+            if (le(h, gl)) {
+                result = false;
+                break;
+            }
+        }
+        if (result) {
+            for (int hr : rightOptions(h)) {
+                if (le(hr, g)) {
+                    result = false;
+                    break;
+                }
+            }
+        }
+        if (memo) leMemo.put(key, result);
+        return result;
+    }
+
+    private int[] leftOptions(int g) {
+        return (g == TEMP) ? tempLeft : lefts.get(g);
+    }
+
+    private int[] rightOptions(int g) {
+        return (g == TEMP) ? tempRight : rights.get(g);
+    }
+
+    // --------------------- Outils internes ---------------------
+
+    /** Retire les options dominées : pour Left celles ≤ une autre, pour Right celles ≥ une autre */
+    private int[] removeDominated(int[] options, boolean left) {
+        boolean[] dominated = new boolean[options.length];
+        int kept = options.length;
+        for (int i = 0; i < options.length; i++) {
+            for (int j = 0; j < options.length; j++) {
+                if (i == j || dominated[j]) continue;
+                if (left ? le(options[i], options[j]) : le(options[j], options[i])) {
+                    dominated[i] = true;
+                    kept--;
+                    break;
+                }
+            }
+        }
+        int[] result = new int[kept];
+        int n = 0;
+        for (int i = 0; i < options.length; i++) if (!dominated[i]) result[n++] = options[i];
+        return result;
+    }
+
+    private static int[] replace(int[] options, int index, int[] replacement) {
+        int[] result = new int[options.length - 1 + replacement.length];
+        System.arraycopy(options, 0, result, 0, index);
+        System.arraycopy(options, index + 1, result, index, options.length - index - 1);
+        System.arraycopy(replacement, 0, result, options.length - 1, replacement.length);
+        return distinct(result);
+    }
+
+    /** Options triées sans doublon (les formes canoniques égales ont le même numéro) */
+    private static int[] distinct(int[] options) {
+        if (options.length == 0) return NONE;
+        int[] sorted = options.clone();
+        Arrays.sort(sorted);
+        int n = 1;
+        for (int i = 1; i < sorted.length; i++) if (sorted[i] != sorted[n - 1]) sorted[n++] = sorted[i];
+        return (n == sorted.length) ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    private int intern(int[] left, int[] right) {
+        Options key = new Options(left, right);
+        Integer id = interned.get(key);
+        if (id != null) return id;
+        lefts.add(left);
+        rights.add(right);
+        interned.put(key, lefts.size() - 1);
+        return lefts.size() - 1;
+    }
+
+    /** Clé d'enregistrement : les deux ensembles d'options triés */
+    private static final class Options {
+        private final int[] left;
+        private final int[] right;
+        private final int hash;
+
+        Options(int[] left, int[] right) {
+            this.left = left;
+            this.right = right;
+            this.hash = 31 * Arrays.hashCode(left) + Arrays.hashCode(right);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Options)) return false;
+            Options other = (Options) o;
+            return Arrays.equals(left, other.left) && Arrays.equals(right, other.right);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,60 +1,64 @@
 package games.dominos;
 
-import iialib.games.model.IBoard;
+import iialib.games.model.IIndexedBoard;
 import iialib.games.model.Player;
 import iialib.games.model.Score;
 
 import java.util.ArrayList;
 
-public class  DominosBoard implements IBoard<DominosMove, DominosRole, DominosBoard> {
+public class  DominosBoard implements IIndexedBoard<DominosMove, DominosRole, DominosBoard> {
 
-	private static int DEFAULT_GRID_SIZE = 7;
+	public static final int DEFAULT_GRID_SIZE = 7;
 
-	// --------- Class Attribute ---------
+	/** Largest supported grid (one long per row, so the limit is the width of a long) */
+	public static final int MAX_GRID_SIZE = 64;
 
-	public static int GRID_SIZE = DEFAULT_GRID_SIZE;
+	// ---------------------- Attributes ---------------------
 
-    // Enumeration for the squares of the board
-	private enum SQUARE {
-		EMPTY, VERTICAL, HORIZONTAL
-	};
+	// Grid size of this board (the grid is square)
+	private final int size;
 
-	// ---------------------- Attributes ---------------------
+	// Mask of the <size> low bits, i.e. a full row
+	private final long rowMask;
 
-	private final SQUARE[][] boardGrid;
+	// One bitboard per row : bit j of vertical[i] is set when square (i, j) holds a vertical domino
+	private final long[] vertical;
+	private final long[] horizontal;
 
 	// ---------------------- Constructors ---------------------
 
     // Default Constructor
 	public DominosBoard() {
-		boardGrid = new SQUARE[GRID_SIZE][GRID_SIZE];
-		for (int i = 0; i < GRID_SIZE; i++)
-			for (int j = 0; j < GRID_SIZE; j++)
-				boardGrid[i][j] = SQUARE.EMPTY;
+		this(DEFAULT_GRID_SIZE);
 	}
 
-	// Constructors
+	// Empty board of the given size
+	public DominosBoard(int size) {
+		if (size < 2 || size > MAX_GRID_SIZE)
+			throw new IllegalArgumentException("Grid size must be between 2 and " + MAX_GRID_SIZE + " : " + size);
+		this.size = size;
+		this.rowMask = (size == 64) ? -1L : (1L << size) - 1;
+		this.vertical = new long[size];
+		this.horizontal = new long[size];
+	}
 
     // Copy Constructor
 	public DominosBoard(DominosBoard other) {
-		boardGrid = other.copyGrid();
-	}
-
-	// Private Constructor used internally
-	private DominosBoard(SQUARE[][] other) {
-		boardGrid = new SQUARE[GRID_SIZE][GRID_SIZE];
-		for (int i = 0; i < GRID_SIZE; i++)
-			System.arraycopy(other[i], 0, boardGrid[i], 0, GRID_SIZE);
+		this.size = other.size;
+		this.rowMask = other.rowMask;
+		this.vertical = other.vertical.clone();
+		this.horizontal = other.horizontal.clone();
 	}
 
 	// ------------------- Getters / Setters -------------------
 
-    // Getter and Setter for GRID_SIZE
-	protected int retGridSize(int n) {
-		return GRID_SIZE;
+	public int getSize() {
+		return size;
 	}
-	protected void setGridSize(int n) {
-		GRID_SIZE = n;
+
+	// Bitboard of the empty squares of row <i>
+	long freeRow(int i) {
+		return ~(vertical[i] | horizontal[i]) & rowMask;
 	}
 
 	// --------------------- IBoard Methods ---------------------
@@ -62,27 +66,29 @@ public class  DominosBoard implements IBoard<DominosMove, DominosRole, DominosBo
     // Play a move on the board and return the new board state
 	@Override
 	public DominosBoard play(DominosMove move, DominosRole playerRole) {
-		SQUARE[][] newGrid = copyGrid();
-		int x = move.x;
-		int y = move.y;
+		DominosBoard next = new DominosBoard(this);
+		long bit = 1L << move.y;
 		if (playerRole == DominosRole.VERTICAL) {
-			newGrid[x][y] = SQUARE.VERTICAL;
-			newGrid[x + 1][y] = SQUARE.VERTICAL;
+			next.vertical[move.x] |= bit;
+			next.vertical[move.x + 1] |= bit;
 		} else {
-			newGrid[x][y] = SQUARE.HORIZONTAL;
-			newGrid[x][y + 1] = SQUARE.HORIZONTAL;
+			next.horizontal[move.x] |= bit | (bit << 1);
 		}
-		return new DominosBoard(newGrid);
+		return next;
 	}
 
     // Get all possible moves for the current player role
 	@Override
 	public ArrayList<DominosMove> possibleMoves(DominosRole playerRole) {
+		ArrayList<DominosMove> allPossibleMoves = new ArrayList<>();
 		if (playerRole == DominosRole.VERTICAL) {
-			return freeVerticalMoves();
+			for (int i = 0; i < size - 1; i++) 		// lines, then columns in increasing order
+				addMoves(allPossibleMoves, i, verticalMask(i));
 		} else {
-			return freeHorizontalMoves();
+			for (int i = 0; i < size; i++)
+				addMoves(allPossibleMoves, i, horizontalMask(i));
 		}
+		return allPossibleMoves;
 	}
 
     // Check if a move is valid for the current player role
@@ -90,63 +96,120 @@ public class  DominosBoard implements IBoard<DominosMove, DominosRole, DominosBo
 	public boolean isValidMove(DominosMove move, DominosRole playerRole) {
 		int x = move.x;
 		int y = move.y;
-		return (boardGrid[x][y] == SQUARE.EMPTY)
-				&& ((playerRole == DominosRole.VERTICAL) ? (boardGrid[x + 1][y] == SQUARE.EMPTY)
-						: (boardGrid[x][y + 1] == SQUARE.EMPTY));
-
+		if (x < 0 || y < 0 || x >= size || y >= size) return false;
+		if (playerRole == DominosRole.VERTICAL)
+			return x < size - 1 && (verticalMask(x) & (1L << y)) != 0;
+		return y < size - 1 && (horizontalMask(x) & (1L << y)) != 0;
 	}
 
     // Check if the game is over
 	@Override
 	public boolean isGameOver() {
-		return (this.nbHorizontalMoves() == 0) || (this.nbVerticalMoves() == 0);
+		return !hasHorizontalMove() || !hasVerticalMove();
 	}
 
-	// --------------------- Other Methods ---------------------
+	// --------------------- IIndexedBoard Methods ---------------------
+	// A move is encoded (row << 8) | column, in the same order as possibleMoves
 
-    // Get all free vertical moves
-	private ArrayList<DominosMove> freeVerticalMoves() {
-		ArrayList<DominosMove> allPossibleMoves = new ArrayList<>();
-		for (int i = 0; i < GRID_SIZE- 1; i++) { 			// lines
-			for (int j = 0; j < GRID_SIZE ; j++) { 	// columns
-				if ((boardGrid[i][j] == SQUARE.EMPTY) && (boardGrid[i + 1][j] == SQUARE.EMPTY)) // possible move
-					allPossibleMoves.add(new DominosMove(i, j));
+	@Override
+	public int maxMoves() {
+		return size * (size - 1);
+	}
+
+	@Override
+	public int generateMoves(DominosRole playerRole, int[] buffer) {
+		int count = 0;
+		boolean isVertical = (playerRole == DominosRole.VERTICAL);
+		for (int i = 0; i < (isVertical ? size - 1 : size); i++) {
+			long mask = isVertical ? verticalMask(i) : horizontalMask(i);
+			while (mask != 0) {
+				buffer[count++] = (i << 8) | Long.numberOfTrailingZeros(mask);
+				mask &= mask - 1;
 			}
 		}
-		return allPossibleMoves;
+		return count;
 	}
 
-    // Get all free horizontal moves
-	private ArrayList<DominosMove> freeHorizontalMoves() {
-		ArrayList<DominosMove> allPossibleMoves = new ArrayList<>();
-		for (int i = 0; i < GRID_SIZE; i++) { 		// lines
-			for (int j = 0; j < GRID_SIZE - 1; j++) { 		// columns
-				if ((boardGrid[i][j] == SQUARE.EMPTY) && (boardGrid[i ][j+ 1] == SQUARE.EMPTY)) // possible move
-					allPossibleMoves.add(new DominosMove(i, j));
-			}
+	@Override
+	public long makeMove(int move, DominosRole playerRole) {
+		int x = move >>> 8;
+		long bit = 1L << (move & 0xFF);
+		if (playerRole == DominosRole.VERTICAL) {
+			vertical[x] |= bit;
+			vertical[x + 1] |= bit;
+		} else {
+			horizontal[x] |= bit | (bit << 1);
 		}
-		return allPossibleMoves;
+		return 0L; // Nothing to remember : the squares were empty
+	}
+
+	@Override
+	public void unmakeMove(int move, DominosRole playerRole, long undo) {
+		int x = move >>> 8;
+		long bit = 1L << (move & 0xFF);
+		if (playerRole == DominosRole.VERTICAL) {
+			vertical[x] &= ~bit;
+			vertical[x + 1] &= ~bit;
+		} else {
+			horizontal[x] &= ~(bit | (bit << 1));
+		}
+	}
+
+	@Override
+	public DominosMove toMove(int move) {
+		return new DominosMove(move >>> 8, move & 0xFF);
+	}
+
+	@Override
+	public DominosBoard copy() {
+		return new DominosBoard(this);
+	}
+
+	// --------------------- Other Methods ---------------------
+
+	// Bit j set when a vertical domino fits on (i, j) and (i + 1, j)
+	long verticalMask(int i) {
+		return freeRow(i) & freeRow(i + 1);
+	}
+
+	// Bit j set when a horizontal domino fits on (i, j) and (i, j + 1)
+	long horizontalMask(int i) {
+		long free = freeRow(i);
+		return free & (free >>> 1);
 	}
 
-    // Create a copy of the current board grid
-	private SQUARE[][] copyGrid() {
-		SQUARE[][] newGrid = new SQUARE[GRID_SIZE][GRID_SIZE];
-		for (int i = 0; i < GRID_SIZE; i++)
-			System.arraycopy(boardGrid[i], 0, newGrid[i], 0, GRID_SIZE);
-		return newGrid;
+	private static void addMoves(ArrayList<DominosMove> moves, int row, long mask) {
+		while (mask != 0) {
+			moves.add(new DominosMove(row, Long.numberOfTrailingZeros(mask)));
+			mask &= mask - 1;
+		}
+	}
+
+	private boolean hasHorizontalMove() {
+		for (int i = 0; i < size; i++)
+			if (horizontalMask(i) != 0) return true;
+		return false;
+	}
+
+	private boolean hasVerticalMove() {
+		for (int i = 0; i < size - 1; i++)
+			if (verticalMask(i) != 0) return true;
+		return false;
 	}
 
     // String representation of the board
 	public String toString() {
-		StringBuilder retstr = new StringBuilder(new String(""));
-		for (int i = 0; i < GRID_SIZE; i++) {
-			for (int j = 0; j < GRID_SIZE; j++)
-				if (boardGrid[i][j] == SQUARE.EMPTY)
-					retstr.append("-");
-				else if (boardGrid[i][j] == SQUARE.VERTICAL)
+		StringBuilder retstr = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				long bit = 1L << j;
+				if ((vertical[i] & bit) != 0)
 					retstr.append("V");
-				else // damier[i][j] == NOIR
+				else if ((horizontal[i] & bit) != 0)
 					retstr.append("H");
+				else
+					retstr.append("-");
+			}
 			retstr.append("\n");
 		}
 		return retstr.toString();
@@ -155,24 +218,16 @@ public class  DominosBoard implements IBoard<DominosMove, DominosRole, DominosBo
     // Count the number of horizontal moves available
 	public int nbHorizontalMoves() {
 		int nbMoves = 0;
-		for (int i = 0; i < GRID_SIZE; i++) {
-			for (int j = 0; j < GRID_SIZE - 1; j++) {
-				if (boardGrid[i][j] == SQUARE.EMPTY && boardGrid[i][j + 1] == SQUARE.EMPTY)
-					nbMoves++;
-			}
-		}
+		for (int i = 0; i < size; i++)
+			nbMoves += Long.bitCount(horizontalMask(i));
 		return nbMoves;
 	}
 
     // Count the number of vertical moves available
 	public int nbVerticalMoves() {
 		int nbMoves = 0;
-		for (int i = 0; i < GRID_SIZE; i++) {
-			for (int j = 0; j < GRID_SIZE - 1; j++) {
-				if (boardGrid[j][i] == SQUARE.EMPTY && boardGrid[j + 1][i] == SQUARE.EMPTY)
-					nbMoves++;
-			}
-		}
+		for (int i = 0; i < size - 1; i++)
+			nbMoves += Long.bitCount(verticalMask(i));
 		return nbMoves;
 	}
 
@@ -181,17 +236,17 @@ public class  DominosBoard implements IBoard<DominosMove, DominosRole, DominosBo
 	public ArrayList<Score<DominosRole>> getScores() {
 		ArrayList<Score<DominosRole>> scores = new ArrayList<Score<DominosRole>>();
 		if(this.isGameOver()) {
-			if (nbHorizontalMoves() == 0) {
+			if (!hasHorizontalMove()) {
 				scores.add(new Score<DominosRole>(DominosRole.HORIZONTAL,Score.Status.LOOSE,0));
 				scores.add(new Score<DominosRole>(DominosRole.VERTICAL,Score.Status.WIN,1));
 			}
 			else {
 				scores.add(new Score<DominosRole>(DominosRole.HORIZONTAL,Score.Status.WIN,1));
 				scores.add(new Score<DominosRole>(DominosRole.VERTICAL,Score.Status.LOOSE,0));
-			}			
+			}
 		}
 		else {
-			
+
 		}
 		return scores;
 	}
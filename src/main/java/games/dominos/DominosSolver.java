@@ -0,0 +1,393 @@
+package games.dominos;
+
+import iialib.games.algs.GameAlgorithm;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Résolution exacte du jeu de dominos (Domineering) : le joueur qui ne peut plus poser de domino perd.
+ * Contrairement à AlphaBeta, le solveur ne s'arrête pas à une profondeur : il prouve l'issue de la position.
+ *
+ * Trois techniques se combinent :
+ *   - une table de transpositions, où la position est ramenée à la plus petite de ses images par les
+ *     symétries du plateau (miroirs gauche-droite et haut-bas, qui conservent l'orientation des joueurs ;
+ *     la transposition échange Vertical et Horizontal, donc aussi le joueur au trait) ;
+ *   - la décomposition des cases libres en régions indépendantes (composantes connexes) ;
+ *   - quand toutes les régions sont petites, la valeur combinatoire de chacune (forme canonique,
+ *     calculée une seule fois par forme de région à symétrie près) : la position vaut leur somme,
+ *     ce qui donne l'issue sans explorer l'entrelacement des coups entre régions.
+ *
+ * Utilisable comme GameAlgorithm : bestMove renvoie un coup gagnant s'il en existe un.
+ *
+ * Exemple: >java -cp . games.dominos.DominosSolver 6
+ */
+public class DominosSolver implements GameAlgorithm<DominosMove, DominosRole, DominosBoard> {
+
+    /** Plus grand plateau résolu (clé de table sur 4 mots de 64 bits) */
+    public static final int MAX_SIZE = 16;
+
+    private static final int REGION_CELLS = 14; // Au-delà, une région est cherchée et non évaluée
+    private static final int REGION_AREA = 56; // Aire maximale de la boîte englobante d'une région évaluée
+    private static final int DEFAULT_TABLE_BITS = 20;
+
+    // Résultats stockés dans la table, pour chaque joueur au trait
+    private static final int V_WINS = 1, V_LOSES = 2, H_WINS = 4, H_LOSES = 8;
+
+    private final CombinatorialValues values = new CombinatorialValues();
+    private final HashMap<Long, Integer> regionValues = new HashMap<>();
+
+    private final int tableMask;
+    private long[] tableKeys = new long[0];
+    private byte[] tableResults = new byte[0];
+    private int words = 0; // Mots de 64 bits par clé de la table
+    private int size = 0; // Taille du plateau pour lequel la table est construite
+
+    private long nodes;
+    private long tableHits;
+    private long regionSolves;
+
+    public DominosSolver() {
+        this(DEFAULT_TABLE_BITS);
+    }
+
+    /** @param tableBits log2 du nombre d'entrées de la table de transpositions */
+    public DominosSolver(int tableBits) {
+        this.tableMask = (1 << tableBits) - 1;
+    }
+
+    public static void main(String[] args) {
+        int maxSize = (args.length > 0) ? Integer.parseInt(args[0]) : 6;
+        DominosSolver solver = new DominosSolver();
+        for (int n = 2; n <= maxSize; n++) {
+            for (DominosRole first : DominosRole.values()) {
+                long start = System.currentTimeMillis();
+                solver.resetStats();
+                boolean wins = solver.wins(new DominosBoard(n), first);
+                System.out.println(String.format("%2dx%-2d %-10s joue en premier et %s  (%d noeuds, %d transpositions, %d sommes de régions, %d ms)",
+                        n, n, first, wins ? "gagne" : "perd ", solver.nodes, solver.tableHits, solver.regionSolves,
+                        System.currentTimeMillis() - start));
+            }
+        }
+    }
+
+    // --------------------- API ---------------------
+
+    /** @return vrai si le joueur au trait gagne avec un jeu parfait */
+    public boolean wins(DominosBoard board, DominosRole toMove) {
+        return wins(freeRows(board), toMove == DominosRole.VERTICAL);
+    }
+
+    /** @return un coup gagnant, ou le premier coup légal si la position est perdue, ou null sans coup */
+    @Override
+    public DominosMove bestMove(DominosBoard board, DominosRole playerRole) {
+        long[] free = freeRows(board);
+        boolean vertical = (playerRole == DominosRole.VERTICAL);
+        int[] moves = orderedMoves(free, vertical);
+        if (moves.length == 0) return null;
+        for (int move : moves) {
+            if (!wins(play(free, move, vertical), !vertical)) return new DominosMove(move >>> 8, move & 0xFF);
+        }
+        return new DominosMove(moves[0] >>> 8, moves[0] & 0xFF);
+    }
+
+    public long getNodes() { return nodes; }
+    public long getTableHits() { return tableHits; }
+    public long getRegionSolves() { return regionSolves; }
+
+    public void resetStats() {
+        nodes = tableHits = regionSolves = 0;
+    }
+
+    // --------------------- Recherche ---------------------
+
+    private boolean wins(long[] free, boolean vertical) {
+        nodes++;
+        int myMoves = countMoves(free, vertical);
+        if (myMoves == 0) return false;
+        if (countMoves(free, !vertical) == 0) return true; // Mes coups ne créent pas de coups adverses
+
+        // Toutes les régions sont petites : l'issue se lit sur la somme de leurs valeurs
+        int value = regionsValue(free);
+        if (value >= 0) {
+            regionSolves++;
+            return vertical ? values.leftWinsMovingFirst(value) : values.rightWinsMovingFirst(value);
+        }
+
+        long[] key = new long[words];
+        boolean transposed = canonicalKey(free, key);
+        boolean keyVertical = vertical ^ transposed;
+        int slot = slot(key);
+        if (sameKey(slot, key)) {
+            int stored = tableResults[slot];
+            if ((stored & (keyVertical ? V_WINS : H_WINS)) != 0) { tableHits++; return true; }
+            if ((stored & (keyVertical ? V_LOSES : H_LOSES)) != 0) { tableHits++; return false; }
+        }
+
+        boolean result = false;
+        for (int move : orderedMoves(free, vertical)) {
+            if (!wins(play(free, move, vertical), !vertical)) {
+                result = true;
+                break;
+            }
+        }
+
+        if (!sameKey(slot, key)) { // Remplacement systématique
+            System.arraycopy(key, 0, tableKeys, slot * words, words);
+            tableResults[slot] = 0;
+        }
+        tableResults[slot] |= keyVertical ? (result ? V_WINS : V_LOSES) : (result ? H_WINS : H_LOSES);
+        return result;
+    }
+
+    /** Coups du joueur, codés (ligne << 8 | colonne), les plus prometteurs d'abord :
+     * ceux qui laissent le plus de coups au joueur et le moins à l'adversaire
+     */
+    private int[] orderedMoves(long[] free, boolean vertical) {
+        int[] moves = new int[countMoves(free, vertical)];
+        int[] scores = new int[moves.length];
+        int n = 0;
+        for (int i = 0; i < free.length; i++) {
+            long mask = vertical ? (i + 1 < free.length ? free[i] & free[i + 1] : 0) : free[i] & (free[i] >>> 1);
+            while (mask != 0) {
+                int move = (i << 8) | Long.numberOfTrailingZeros(mask);
+                long[] next = play(free, move, vertical);
+                int score = countMoves(next, vertical) - countMoves(next, !vertical);
+                int j = n++;
+                while (j > 0 && scores[j - 1] < score) { // Tri par insertion, stable
+                    moves[j] = moves[j - 1];
+                    scores[j] = scores[j - 1];
+                    j--;
+                }
+                moves[j] = move;
+                scores[j] = score;
+                mask &= mask - 1;
+            }
+        }
+        return moves;
+    }
+
+    private static long[] play(long[] free, int move, boolean vertical) {
+        long[] next = free.clone();
+        int row = move >>> 8;
+        long bit = 1L << (move & 0xFF);
+        next[row] &= ~bit;
+        if (vertical) next[row + 1] &= ~bit;
+        else next[row] &= ~(bit << 1);
+        return next;
+    }
+
+    private static int countMoves(long[] free, boolean vertical) {
+        int count = 0;
+        if (vertical) {
+            for (int i = 0; i + 1 < free.length; i++) count += Long.bitCount(free[i] & free[i + 1]);
+        } else {
+            for (long row : free) count += Long.bitCount(row & (row >>> 1));
+        }
+        return count;
+    }
+
+    private long[] freeRows(DominosBoard board) {
+        int n = board.getSize();
+        if (n > MAX_SIZE) throw new IllegalArgumentException("Plateau trop grand pour le solveur : " + n);
+        if (n != size) { // Nouvelle taille : nouvelle table
+            size = n;
+            words = (n * n + 63) / 64;
+            tableKeys = new long[(tableMask + 1) * words];
+            tableResults = new byte[tableMask + 1];
+        }
+        long[] free = new long[n];
+        for (int i = 0; i < n; i++) free[i] = board.freeRow(i);
+        return free;
+    }
+
+    // --------------------- Table de transpositions ---------------------
+
+    /** Plus petite image de la position par les 8 symétries du carré
+     * @return vrai si cette image passe par une transposition (Vertical et Horizontal échangés)
+     */
+    private boolean canonicalKey(long[] free, long[] best) {
+        int n = free.length;
+        long[] candidate = new long[words];
+        long[] image = new long[n];
+        boolean bestTransposed = false;
+        boolean first = true;
+        for (int t = 0; t < 2; t++) {
+            long[] base = (t == 0) ? free : transpose(free);
+            for (int mirror = 0; mirror < 4; mirror++) {
+                for (int i = 0; i < n; i++) {
+                    long row = base[(mirror & 2) != 0 ? n - 1 - i : i];
+                    image[i] = ((mirror & 1) != 0) ? Long.reverse(row) >>> (64 - n) : row;
+                }
+                pack(image, candidate);
+                if (first || compare(candidate, best) < 0) {
+                    System.arraycopy(candidate, 0, best, 0, words);
+                    bestTransposed = (t == 1);
+                    first = false;
+                }
+            }
+        }
+        return bestTransposed;
+    }
+
+    private static long[] transpose(long[] rows) {
+        int n = rows.length;
+        long[] result = new long[n];
+        for (int i = 0; i < n; i++) {
+            long row = rows[i];
+            while (row != 0) {
+                int j = Long.numberOfTrailingZeros(row);
+                result[j] |= 1L << i;
+                row &= row - 1;
+            }
+        }
+        return result;
+    }
+
+    private static void pack(long[] rows, long[] key) {
+        int n = rows.length;
+        Arrays.fill(key, 0L);
+        for (int i = 0; i < n; i++) {
+            int bit = i * n;
+            key[bit >>> 6] |= rows[i] << (bit & 63);
+            if ((bit & 63) + n > 64) key[(bit >>> 6) + 1] |= rows[i] >>> (64 - (bit & 63));
+        }
+    }
+
+    private static int compare(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int c = Long.compareUnsigned(a[i], b[i]);
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    private int slot(long[] key) {
+        long h = 0;
+        for (long word : key) h = (h ^ word) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & tableMask;
+    }
+
+    private boolean sameKey(int slot, long[] key) {
+        if (tableResults[slot] == 0) return false;
+        for (int i = 0; i < words; i++) if (tableKeys[slot * words + i] != key[i]) return false;
+        return true;
+    }
+
+    // --------------------- Régions ---------------------
+
+    /** Somme des valeurs combinatoires des régions libres
+     * @return la valeur, ou -1 si une région est trop grande pour être évaluée
+     */
+    private int regionsValue(long[] free) {
+        long[] remaining = free.clone();
+        long[] region = new long[free.length];
+        int sum = CombinatorialValues.ZERO;
+        int first = 0;
+        while (true) {
+            while (first < remaining.length && remaining[first] == 0) first++;
+            if (first == remaining.length) return sum;
+            extractRegion(remaining, first, region);
+            int cells = 0;
+            for (long row : region) cells += Long.bitCount(row);
+            if (cells >= 2) {
+                if (cells > REGION_CELLS) return -1;
+                int value = regionValue(region);
+                if (value < 0) return -1;
+                sum = values.add(sum, value);
+            }
+        }
+    }
+
+    /** Retire de <remaining> la composante connexe de sa première case libre (ligne <first>) et la met dans <region> */
+    private static void extractRegion(long[] remaining, int first, long[] region) {
+        Arrays.fill(region, 0L);
+        region[first] = Long.lowestOneBit(remaining[first]);
+        boolean grew = true;
+        while (grew) {
+            grew = false;
+            for (int i = first; i < remaining.length; i++) {
+                long grown = region[i] | (region[i] << 1) | (region[i] >>> 1);
+                if (i > 0) grown |= region[i - 1];
+                if (i + 1 < remaining.length) grown |= region[i + 1];
+                grown &= remaining[i] | region[i];
+                if (grown != region[i]) {
+                    region[i] = grown;
+                    grew = true;
+                }
+            }
+        }
+        for (int i = 0; i < remaining.length; i++) remaining[i] &= ~region[i];
+    }
+
+    /** Valeur d'une région connexe, calculée une fois par forme (à symétrie près)
+     * @return le numéro de la valeur, ou -1 si la boîte englobante est trop grande
+     */
+    private int regionValue(long[] region) {
+        int top = 0, bottom = region.length - 1;
+        while (region[top] == 0) top++;
+        while (region[bottom] == 0) bottom--;
+        long columns = 0;
+        for (int i = top; i <= bottom; i++) columns |= region[i];
+        int left = Long.numberOfTrailingZeros(columns);
+        int h = bottom - top + 1;
+        int w = 64 - Long.numberOfLeadingZeros(columns) - left;
+        if (h * w > REGION_AREA) return -1;
+
+        // Plus petite clé parmi les 8 symétries ; les transpositions échangent les joueurs (valeur opposée)
+        long best = Long.MAX_VALUE;
+        boolean negate = false;
+        for (int t = 0; t < 8; t++) {
+            boolean transposed = (t & 4) != 0;
+            int th = transposed ? w : h, tw = transposed ? h : w;
+            long bits = 0;
+            for (int i = 0; i < h; i++) {
+                long row = region[top + i] >>> left;
+                while (row != 0) {
+                    int j = Long.numberOfTrailingZeros(row);
+                    int r = transposed ? j : i, c = transposed ? i : j;
+                    if ((t & 1) != 0) c = tw - 1 - c;
+                    if ((t & 2) != 0) r = th - 1 - r;
+                    bits |= 1L << (r * tw + c);
+                    row &= row - 1;
+                }
+            }
+            long key = ((long) (th - 1) << 60) | ((long) (tw - 1) << 56) | bits;
+            if (key < best) {
+                best = key;
+                negate = transposed;
+            }
+        }
+        int value = shapeValue(best);
+        return negate ? values.neg(value) : value;
+    }
+
+    /** Valeur de la région décrite par une clé de regionValue : { coups verticaux | coups horizontaux } */
+    private int shapeValue(long key) {
+        Integer cached = regionValues.get(key);
+        if (cached != null) return cached;
+
+        int h = (int) (key >>> 60) + 1, w = (int) ((key >>> 56) & 0xF) + 1;
+        long[] rows = new long[h];
+        for (int i = 0; i < h; i++) rows[i] = (key >>> (i * w)) & ((1L << w) - 1);
+
+        int[] left = new int[countMoves(rows, true)];
+        int[] right = new int[countMoves(rows, false)];
+        int nl = 0, nr = 0;
+        for (int i = 0; i < h; i++) {
+            long vertical = (i + 1 < h) ? rows[i] & rows[i + 1] : 0;
+            long horizontal = rows[i] & (rows[i] >>> 1);
+            while (vertical != 0) {
+                left[nl++] = regionsValue(play(rows, (i << 8) | Long.numberOfTrailingZeros(vertical), true));
+                vertical &= vertical - 1;
+            }
+            while (horizontal != 0) {
+                right[nr++] = regionsValue(play(rows, (i << 8) | Long.numberOfTrailingZeros(horizontal), false));
+                horizontal &= horizontal - 1;
+            }
+        }
+        int value = values.make(left, right);
+        regionValues.put(key, value);
+        return value;
+    }
+}
@@ -0,0 +1,47 @@
+package games.escampe;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Écriture atomique de fichiers : le contenu est écrit dans un fichier temporaire voisin
+ * puis renommé sur la cible. Un lecteur voit donc soit l'ancienne version, soit la nouvelle,
+ * jamais un fichier à moitié écrit (utile si le processus est tué pendant l'écriture).
+ */
+final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /** Écrit le texte dans le fichier cible de manière atomique
+     * @param target le fichier à (ré)écrire
+     * @param content le contenu complet du fichier
+     * @throws IOException si l'écriture ou le renommage échoue
+     */
+    static void writeAtomically(Path target, String content) throws IOException {
+        writeAtomically(target, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Écrit les octets dans le fichier cible de manière atomique
+     * @param target le fichier à (ré)écrire
+     * @param content le contenu complet du fichier
+     * @throws IOException si l'écriture ou le renommage échoue
+     */
+    static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(tmp, content);
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Système de fichiers sans renommage atomique : on se contente d'un remplacement simple
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package games.escampe;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Variante non bloquante de ClientJeu : un seul thread réseau (Selector) pilote plusieurs parties,
+ * chacune avec sa propre instance de IJoueur, sur le même protocole que ClientJeu.
+ * Les appels au moteur (initJoueur, choixMouvement, ...) s'exécutent sur un pool de threads, dans
+ * l'ordre des messages de chaque partie, pour ne jamais bloquer le réseau.
+ *
+ * Chaque partie mesure :
+ *   - reflexion : durée de choixMouvement ;
+ *   - aller-retour : de l'envoi complet de notre coup au message suivant du serveur ;
+ *   - bout-en-bout : de la réception de "JOUEUR <ma couleur>" à l'envoi complet du coup.
+ * Les histogrammes (p50/p99) sont affichés à la réception de "FIN!".
+ *
+ * Exemple: >java -cp . games.escampe.ClientJeuNio games.escampe.EscampePlayer localhost 1234 4
+ *
+ * @see ClientJeu
+ */
+public class ClientJeuNio {
+
+    static final int BLANC = -1;
+    static final int NOIR = 1;
+    static final int VIDE = 0;
+
+    private static final long READ_TIMEOUT_MS = 10 * 60_000; // Silence maximal du serveur quand on attend un message
+    private static final long WRITE_TIMEOUT_MS = 10_000; // Durée maximale pour vider un message vers le serveur
+    private static final long SELECT_INTERVAL_MS = 500; // Période de vérification des échéances
+
+    private final Selector selector;
+    private final ExecutorService engines;
+    private final ConcurrentLinkedQueue<Session> readyToWrite = new ConcurrentLinkedQueue<>();
+    private final ArrayList<Session> sessions = new ArrayList<>();
+
+    // Totaux sur toutes les parties
+    private final LatencyHistogram totalThink = new LatencyHistogram("reflexion");
+    private final LatencyHistogram totalRoundTrip = new LatencyHistogram("aller-retour");
+    private final LatencyHistogram totalEndToEnd = new LatencyHistogram("bout-en-bout");
+
+    private ClientJeuNio(int numEngineThreads) throws IOException {
+        this.selector = Selector.open();
+        this.engines = Executors.newFixedThreadPool(numEngineThreads, r -> {
+            Thread t = new Thread(r, "moteur");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @param args
+     *            Dans l'ordre : NomClasseJoueur MachineServeur PortEcoute [NombreParties]
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("ClientJeuNio Usage: NomClasseJoueur MachineServeur PortEcoute [NombreParties]");
+            System.exit(1);
+        }
+
+        String classeJoueur = args[0];
+        String serverMachine = args[1];
+        int portNum = Integer.parseInt(args[2]);
+        int nbParties = (args.length > 3) ? Integer.parseInt(args[3]) : 1;
+
+        System.out.println("Le client ouvrira " + nbParties + " partie(s) sur " + serverMachine + ":" + portNum);
+
+        try {
+            Class<?> cjoueur = Class.forName(classeJoueur);
+            ClientJeuNio client = new ClientJeuNio(Math.min(nbParties, Runtime.getRuntime().availableProcessors()));
+            for (int i = 0; i < nbParties; i++) {
+                IJoueur joueur = (IJoueur) cjoueur.getDeclaredConstructor().newInstance();
+                client.connect(i, new InetSocketAddress(serverMachine, portNum), joueur);
+            }
+            client.run();
+        } catch (Exception e) {
+            System.out.println(e);
+        }
+    }
+
+    /** Ouvre la connexion d'une partie (non bloquante : terminée dans la boucle de sélection) */
+    private void connect(int id, InetSocketAddress address, IJoueur joueur) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        Session session = new Session(id, channel, joueur);
+        sessions.add(session);
+        if (channel.connect(address)) {
+            session.onConnected();
+            channel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, session);
+        } else {
+            channel.register(selector, SelectionKey.OP_CONNECT, session);
+        }
+    }
+
+    // --------------------- Boucle réseau ---------------------
+
+    /** Boucle de sélection : tourne jusqu'à la fin de toutes les parties */
+    private void run() throws IOException, InterruptedException {
+        while (sessions.stream().anyMatch(s -> !s.closed)) {
+            selector.select(SELECT_INTERVAL_MS);
+
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                Session session = (Session) key.attachment();
+                try {
+                    if (key.isValid() && key.isConnectable()) {
+                        session.channel.finishConnect();
+                        session.onConnected();
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                    if (key.isValid() && key.isReadable()) session.onReadable();
+                    if (key.isValid() && key.isWritable()) session.onWritable(key);
+                } catch (IOException e) {
+                    session.close("erreur réseau : " + e.getMessage());
+                }
+            }
+
+            // Coups produits par le moteur : réveiller l'écriture sur le thread réseau
+            Session ready;
+            while ((ready = readyToWrite.poll()) != null) {
+                SelectionKey key = ready.channel.keyFor(selector);
+                if (key != null && key.isValid()) key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+
+            long now = System.nanoTime();
+            for (Session session : sessions) session.checkDeadlines(now);
+        }
+
+        if (sessions.size() > 1) {
+            System.out.println("=== Latences sur " + sessions.size() + " parties ===");
+            System.out.println(totalThink);
+            System.out.println(totalRoundTrip);
+            System.out.println(totalEndToEnd);
+        }
+        engines.shutdown();
+        engines.awaitTermination(1, TimeUnit.MINUTES);
+        selector.close();
+    }
+
+    // --------------------- Une partie ---------------------
+
+    /** Un message en attente d'envoi, avec l'instant de la demande de coup correspondante (0 sinon) */
+    private static final class Outgoing {
+        final ByteBuffer bytes;
+        final long requestedAt;
+        final long queuedAt = System.nanoTime();
+
+        Outgoing(String line, long requestedAt) {
+            this.bytes = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.ISO_8859_1));
+            this.requestedAt = requestedAt;
+        }
+    }
+
+    private final class Session {
+        final int id;
+        final SocketChannel channel;
+        final IJoueur joueur;
+
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+        private final StringBuilder line = new StringBuilder();
+        private final ConcurrentLinkedQueue<Outgoing> pending = new ConcurrentLinkedQueue<>(); // Rempli par le moteur
+        private final ArrayDeque<Outgoing> out = new ArrayDeque<>(); // Utilisé par le thread réseau uniquement
+
+        // Appels au moteur, enchaînés pour respecter l'ordre des messages
+        private CompletableFuture<Void> engineChain = CompletableFuture.completedFuture(null);
+        private final AtomicInteger engineTasks = new AtomicInteger(); // Le moteur réfléchit : pas d'échéance de lecture
+
+        private boolean colourKnown = false;
+        private boolean closed = false;
+        private int maCouleur;
+        private volatile long lastActivity = System.nanoTime();
+        private long moveSentAt = 0L; // Instant où notre dernier coup est parti (0 si déjà compté)
+
+        final LatencyHistogram think = new LatencyHistogram("reflexion");
+        final LatencyHistogram roundTrip = new LatencyHistogram("aller-retour");
+        final LatencyHistogram endToEnd = new LatencyHistogram("bout-en-bout");
+
+        Session(int id, SocketChannel channel, IJoueur joueur) {
+            this.id = id;
+            this.channel = channel;
+            this.joueur = joueur;
+        }
+
+        /** Envoie l'identifiant du binôme dès la connexion établie */
+        void onConnected() {
+            lastActivity = System.nanoTime();
+            out.add(new Outgoing(joueur.binoName(), 0L));
+            System.out.println("[" + id + "] Connecté, nom envoyé : " + joueur.binoName());
+        }
+
+        void onReadable() throws IOException {
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                close(colourKnown ? "connexion fermée par le serveur" : "connexion fermée avant le début de la partie");
+                return;
+            }
+            long now = System.nanoTime();
+            lastActivity = now;
+            readBuffer.flip();
+            while (readBuffer.hasRemaining() && !closed) {
+                char c = (char) (readBuffer.get() & 0xFF);
+                if (c == '\n') {
+                    String msg = line.toString().trim();
+                    line.setLength(0);
+                    if (!msg.isEmpty()) onMessage(msg, now);
+                } else if (c != '\r' && c != '\0') {
+                    line.append(c);
+                }
+            }
+            readBuffer.clear();
+        }
+
+        void onWritable(SelectionKey key) throws IOException {
+            Outgoing next;
+            while ((next = pending.poll()) != null) out.add(next);
+
+            while (!out.isEmpty()) {
+                Outgoing head = out.peek();
+                channel.write(head.bytes);
+                if (head.bytes.hasRemaining()) return; // Tampon système plein : on réessaiera
+                out.poll();
+                long now = System.nanoTime();
+                lastActivity = now;
+                if (head.requestedAt != 0L) {
+                    endToEnd.record(now - head.requestedAt);
+                    moveSentAt = now;
+                }
+            }
+            key.interestOps(SelectionKey.OP_READ); // Plus rien à écrire
+        }
+
+        /** Traite un message du serveur (même protocole que ClientJeu) */
+        private void onMessage(String msg, long receivedAt) {
+            if (moveSentAt != 0L) { // Première réponse du serveur après notre coup
+                roundTrip.record(receivedAt - moveSentAt);
+                moveSentAt = 0L;
+            }
+
+            int space = msg.indexOf(' ');
+            String firstToken = (space < 0) ? msg : msg.substring(0, space);
+            String argument = (space < 0) ? "" : msg.substring(space + 1).trim();
+
+            if (!colourKnown) {
+                System.out.println("[" + id + "] " + msg);
+                maCouleur = firstToken.equals("Blanc") ? BLANC : NOIR; // Sinon doit être "Noir"
+                colourKnown = true;
+                int couleur = maCouleur;
+                submit(() -> joueur.initJoueur(couleur));
+            } else if (firstToken.equals("FIN!")) {
+                int gagnant = argument.startsWith("Blanc") ? BLANC : argument.startsWith("Noir") ? NOIR : VIDE;
+                if (gagnant == maCouleur) System.out.println("[" + id + "] J'ai gagné!");
+                submit(() -> joueur.declareLeVainqueur(gagnant));
+                dumpLatencies();
+                close(null);
+            } else if (firstToken.equals("JOUEUR")) {
+                int couleurAJouer = argument.startsWith("Blanc") ? BLANC : NOIR;
+                if (couleurAJouer == maCouleur) {
+                    submit(() -> {
+                        long start = System.nanoTime();
+                        String coup;
+                        try {
+                            coup = joueur.choixMouvement();
+                        } catch (RuntimeException e) {
+                            // Sans réponse, la partie attendrait l'échéance de lecture : on passe plutôt
+                            System.err.println("[" + id + "] Erreur du joueur, passe envoyé à la place : " + e);
+                            coup = "E";
+                        }
+                        think.record(System.nanoTime() - start);
+                        pending.add(new Outgoing(coup, receivedAt));
+                        readyToWrite.add(this);
+                        selector.wakeup();
+                    });
+                }
+            } else if (firstToken.equals("MOUVEMENT")) {
+                int end = argument.indexOf(' ');
+                String coup = (end < 0) ? argument : argument.substring(0, end);
+                submit(() -> joueur.mouvementEnnemi(coup));
+            }
+        }
+
+        /** Ajoute un appel au moteur à la suite des précédents de cette partie */
+        private void submit(Runnable task) {
+            engineTasks.incrementAndGet();
+            engineChain = engineChain.thenRunAsync(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("[" + id + "] Erreur du joueur : " + e);
+                } finally {
+                    engineTasks.decrementAndGet();
+                    lastActivity = System.nanoTime(); // L'attente du serveur recommence après la réflexion
+                }
+            }, engines);
+        }
+
+        /** Ferme la partie si le serveur se tait trop longtemps ou si un envoi n'avance plus */
+        void checkDeadlines(long now) {
+            if (closed) return;
+            Outgoing head = out.peek();
+            if (head != null && now - head.queuedAt > TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT_MS)) {
+                close("échéance d'écriture dépassée");
+            } else if (engineTasks.get() == 0 && out.isEmpty() && pending.isEmpty()
+                    && now - lastActivity > TimeUnit.MILLISECONDS.toNanos(READ_TIMEOUT_MS)) {
+                close("échéance de lecture dépassée");
+            }
+        }
+
+        private void dumpLatencies() {
+            System.out.println("[" + id + "] Latences de la partie :");
+            System.out.println("  " + think);
+            System.out.println("  " + roundTrip);
+            System.out.println("  " + endToEnd);
+            totalThink.addAll(think);
+            totalRoundTrip.addAll(roundTrip);
+            totalEndToEnd.addAll(endToEnd);
+        }
+
+        void close(String reason) {
+            if (closed) return;
+            closed = true;
+            if (reason != null) System.out.println("[" + id + "] Partie abandonnée : " + reason);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Fermeture au mieux
+            }
+        }
+    }
+}
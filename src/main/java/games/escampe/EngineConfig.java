@@ -0,0 +1,150 @@
+package games.escampe;
+
+import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.IHeuristic;
+import iialib.games.algs.algorithms.AlphaBeta;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Réglages d'un moteur pour les matchs automatiques (SelfPlayRunner, ...).
+ * Une configuration se décrit par une chaîne "cle=valeur" séparée par des virgules,
+ * par exemple "name=ab4,depth=4", "depth=3,negamax", "depth=4,weights=data/weights-new.txt" ou "engine=escampe,depth=5".
+ * Sans "weights", le moteur utilise les poids globaux de EscampeHeuristics.
+ * "engine" choisit l'algorithme : "alphabeta" (AlphaBeta générique de iialib, par défaut) ou "escampe" (EscampeSearch).
+ * "nnue=data/nnue.bin" remplace l'heuristique par un réseau entraîné par NnueTrainer (NnueEvaluator).
+ * "tt=data/escampe.tt" (avec engine=escampe) donne à EscampeSearch une TranspositionTable sur disque,
+ * de "ttsize" Mo (64 par défaut) ; tous les moteurs de la configuration partagent le même fichier.
+ * "ext" (avec engine=escampe) active les extensions des nœuds presque forcés d'EscampeSearch.
+ */
+public final class EngineConfig {
+
+    private static final int DEFAULT_DEPTH = 4;
+    private static final int DEFAULT_TT_SIZE_MB = 64;
+
+    private final String name;
+    private final int depth;
+    private final boolean negamax;
+    private final int[] weights; // null = poids globaux
+    private final boolean escampeSearch; // EscampeSearch au lieu d'AlphaBeta
+    private final NnueNetwork network; // null = heuristique écrite à la main
+    private final TranspositionTable tt; // null = sans table de transposition (EscampeSearch seulement)
+    private final boolean extensions; // Extensions d'EscampeSearch
+
+    /** Une configuration se construit par parse (voir la description des clés ci-dessus) */
+    private EngineConfig(String name, int depth, boolean negamax, int[] weights, boolean escampeSearch, NnueNetwork network,
+                         TranspositionTable tt, boolean extensions) {
+        if (weights != null && network != null) throw new IllegalArgumentException("Poids et réseau NNUE sont exclusifs");
+        if (escampeSearch && negamax) throw new IllegalArgumentException("EscampeSearch n'a pas de version negamax");
+        if (tt != null && !escampeSearch) throw new IllegalArgumentException("La table de transposition demande engine=escampe");
+        if (extensions && !escampeSearch) throw new IllegalArgumentException("Les extensions demandent engine=escampe");
+        this.name = name;
+        this.depth = depth;
+        this.negamax = negamax;
+        this.weights = (weights != null) ? weights.clone() : null;
+        this.escampeSearch = escampeSearch;
+        this.network = network;
+        this.tt = tt;
+        this.extensions = extensions;
+    }
+
+    /** Lit une configuration
+     * @param spec la description, ex : "name=ab4,depth=4,negamax"
+     * @return la configuration (les clés absentes prennent leur valeur par défaut)
+     * @throws IllegalArgumentException si une clé est inconnue ou une valeur illisible
+     */
+    public static EngineConfig parse(String spec) {
+        String name = null;
+        int depth = DEFAULT_DEPTH;
+        boolean negamax = false;
+        int[] weights = null;
+        boolean escampeSearch = false;
+        NnueNetwork network = null;
+        String ttFile = null;
+        int ttSizeMb = DEFAULT_TT_SIZE_MB;
+        boolean extensions = false;
+
+        for (String part : spec.split(",")) {
+            part = part.trim();
+            if (part.isEmpty()) continue;
+            int eq = part.indexOf('=');
+            String key = (eq < 0) ? part : part.substring(0, eq).trim();
+            String value = (eq < 0) ? "true" : part.substring(eq + 1).trim();
+            switch (key) {
+                case "name": name = value; break;
+                case "depth": depth = Integer.parseInt(value); break;
+                case "negamax": negamax = Boolean.parseBoolean(value); break;
+                case "weights":
+                    try {
+                        weights = EscampeHeuristics.loadWeights(Paths.get(value));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    break;
+                case "nnue":
+                    try {
+                        network = NnueNetwork.load(Paths.get(value));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    break;
+                case "tt": ttFile = value; break;
+                case "ttsize": ttSizeMb = Integer.parseInt(value); break;
+                case "ext": extensions = Boolean.parseBoolean(value); break;
+                case "engine":
+                    if (!value.equals("alphabeta") && !value.equals("escampe"))
+                        throw new IllegalArgumentException("Moteur inconnu : " + value + " (alphabeta ou escampe)");
+                    escampeSearch = value.equals("escampe");
+                    break;
+                default: throw new IllegalArgumentException("Réglage de moteur inconnu : " + key);
+            }
+        }
+        if (name == null) name = (escampeSearch ? "es" : "ab") + depth + (negamax ? "n" : "") + (network != null ? "nnue" : "")
+                               + (ttFile != null ? "tt" : "") + (extensions ? "x" : "");
+        TranspositionTable tt = null;
+        if (ttFile != null) {
+            if (!escampeSearch) throw new IllegalArgumentException("La table de transposition demande engine=escampe");
+            try {
+                tt = TranspositionTable.open(Paths.get(ttFile), ttSizeMb, EscampeSearch.evalFingerprint(weights, network));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new EngineConfig(name, depth, negamax, weights, escampeSearch, network, tt, extensions);
+    }
+
+    /** Crée un algorithme neuf pour ce moteur (les algorithmes ne sont pas partagés entre threads)
+     * @param role le rôle joué par le moteur
+     */
+    public GameAlgorithm<EscampeMove, EscampeRole, EscampeBoard> createAlgorithm(EscampeRole role) {
+        if (escampeSearch) return new EscampeSearch(role, depth, weights, network, tt, extensions);
+        EscampeRole opponentRole = (role == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        IHeuristic<EscampeBoard, EscampeRole> heuristic = (network != null) ? new NnueEvaluator(network)
+                : (weights != null) ? EscampeHeuristics.withWeights(role, weights)
+                : (role == EscampeRole.WHITE) ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack;
+        return new AlphaBeta<>(role, opponentRole, heuristic, depth, negamax);
+    }
+
+    /** Crée un SearchService avec l'évaluation et la table de ce moteur (toujours EscampeSearch, à la profondeur
+     * choisie à chaque soumission)
+     * @param threads nombre de workers
+     */
+    public SearchService createSearchService(int threads) {
+        if (negamax) throw new IllegalArgumentException("EscampeSearch n'a pas de version negamax");
+        return new SearchService(threads, tt, weights, network, extensions);
+    }
+
+    public String getName() { return name; }
+    public int getDepth() { return depth; }
+    public boolean isNegamax() { return negamax; }
+    public boolean isEscampeSearch() { return escampeSearch; }
+
+    @Override
+    public String toString() {
+        return name + "(" + (escampeSearch ? "EscampeSearch, " : "") + "depth=" + depth + (negamax ? ", negamax" : "") + (weights != null ? ", poids " + Arrays.toString(weights) : "")
+             + (network != null ? ", nnue " + network.getHidden() : "") + (tt != null ? ", table " + tt.getFile() : "") + (extensions ? ", extensions" : "") + ")";
+    }
+}
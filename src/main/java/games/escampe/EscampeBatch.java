@@ -0,0 +1,50 @@
+package games.escampe;
+
+/**
+ * Successeurs d'une position, rangés par colonnes (un tableau par bitboard) plutôt qu'un EscampeBoard
+ * par coup : EscampeHeuristics.evaluateBatch peut alors calculer chaque terme de l'évaluation sur tout
+ * le lot dans une boucle serrée, sans objet intermédiaire.
+ *
+ * Utilisé par EscampeSearch au dernier niveau de la recherche, où tous les fils sont des feuilles.
+ * Les tableaux sont réutilisés d'un lot à l'autre ; seules les size premières cases sont valides.
+ */
+final class EscampeBatch {
+
+    final long[] whiteUnicorn = new long[EscampeBoard.MAX_MOVES];
+    final long[] whitePaladins = new long[EscampeBoard.MAX_MOVES];
+    final long[] blackUnicorn = new long[EscampeBoard.MAX_MOVES];
+    final long[] blackPaladins = new long[EscampeBoard.MAX_MOVES];
+    final int[] constraint = new int[EscampeBoard.MAX_MOVES];
+    int size;
+
+    /** Remplit le lot avec les positions obtenues en jouant chacun des coups
+     * @param moves des codes de EscampeBoard.generateMoves pour board et player
+     */
+    void expand(EscampeBoard board, EscampeRole player, int[] moves, int count) {
+        long wu = board.getWhiteUnicorn(), wp = board.getWhitePaladins();
+        long bu = board.getBlackUnicorn(), bp = board.getBlackPaladins();
+        boolean isWhite = (player == EscampeRole.WHITE);
+        long myUnicorn = isWhite ? wu : bu;
+
+        for (int i = 0; i < count; i++) {
+            int to = moves[i] & 0x3F;
+            long toMask = 1L << to;
+            long moveMask = (1L << (moves[i] >>> 6)) | toMask;
+            boolean unicornMoves = (myUnicorn & moveMask) != 0; // La case d'arrivée n'est jamais à moi
+
+            if (isWhite) {
+                whiteUnicorn[i] = unicornMoves ? wu ^ moveMask : wu;
+                whitePaladins[i] = unicornMoves ? wp : wp ^ moveMask;
+                blackUnicorn[i] = bu & ~toMask;
+                blackPaladins[i] = bp & ~toMask;
+            } else {
+                blackUnicorn[i] = unicornMoves ? bu ^ moveMask : bu;
+                blackPaladins[i] = unicornMoves ? bp : bp ^ moveMask;
+                whiteUnicorn[i] = wu & ~toMask;
+                whitePaladins[i] = wp & ~toMask;
+            }
+            constraint[i] = EscampeBoard.getLisereType(to);
+        }
+        size = count;
+    }
+}
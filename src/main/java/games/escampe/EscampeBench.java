@@ -0,0 +1,127 @@
+package games.escampe;
+
+import java.util.Arrays;
+
+import iialib.games.algs.algorithms.AlphaBeta;
+
+/**
+ * Banc d'essai déterministe : recherche AlphaBeta à profondeur fixe sur une suite de positions de référence
+ * (placement, début de partie, chaque contrainte de liseré, finales tactiques), puis affiche le nombre total
+ * de nœuds, le temps total et le nombre de nœuds par seconde.
+ *
+ * Le total de nœuds sert de signature : il ne change que si le comportement de la recherche change
+ * (génération des coups, ordre, élagage, heuristique). Une optimisation pure doit le laisser identique
+ * et n'améliorer que le temps.
+ *
+ * Le second argument choisit le moteur : "alphabeta" (AlphaBeta de iialib, par défaut) ou "escampe" (EscampeSearch).
+ * Les deux moteurs doivent donner la même signature. "escampe-ext" ajoute les extensions d'EscampeSearch
+ * (signature propre, plus élevée : les lignes forcées sont cherchées plus loin).
+ *
+ * Les deux moteurs évaluent avec les poids intégrés (EscampeHeuristics.DEFAULT_WEIGHTS), jamais ceux de
+ * data/weights.txt : la signature ne dépend pas des fichiers du répertoire courant.
+ *
+ * Exemple: >java -cp . games.escampe.EscampeBench 5 escampe   (ou : gradlew bench -Pdepth=5 -Pengine=escampe)
+ */
+public class EscampeBench {
+
+    private static final int DEFAULT_DEPTH = 5;
+    private static final int PLACEMENT_STRIDE = 64; // Un placement Blanc sur 64 est cherché pour la position de placement
+    private static final int[] WEIGHTS = EscampeHeuristics.DEFAULT_WEIGHTS.clone(); // Poids fixes de la signature
+
+    /** Positions de référence : nom, position au format EscampeBoard.toCompactString */
+    static final String[][] POSITIONS = {
+        {"placement", "nn-n-n/--N--n/------/------/------/------ B 0"},
+        {"opening",   "nn-n-n/--N--n/------/------/---Bb-/bbb--b B 0"},
+        {"opening2",  "Nn----/-nnnn-/------/------/-bbbbb/--B--- B 0"},
+        {"lisere1",   "-n-n-n/n-N--n/------/-b----/--bBb-/--b--b B 1"},
+        {"lisere2",   "-n---n/n-N--n/-bn---/------/--bB-b/--b--b N 2"},
+        {"lisere3",   "-n-n-n/n-N--n/-b----/------/--bBb-/--b--b N 3"},
+        {"free",      "-nn--n/-----N/-bn-n-/--b-b-/---B--/b----b B 3"},
+        {"middle",    "Nn----/-n-n--/b---nb/--bn--/---bb-/B----- N 2"},
+        {"middle2",   "-B---N/-n-n--/nb--n-/-----n/b-----/-bb-b- B 3"},
+        {"endgame",   "N-----/-nnn--/b---nb/--b---/--n--b/Bb---- B 2"},
+        {"endgame2",  "-B---N/-n-n--/n---n-/-b---n/b-----/-bb-b- N 1"},
+        {"endgame3",  "--nn-N/nB---n/---n--/------/b-bbb-/---b-- N 2"},
+    };
+
+    public static void main(String[] args) {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        String engine = (args.length > 1) ? args[1] : "alphabeta";
+        if (!engine.equals("alphabeta") && !engine.equals("escampe") && !engine.equals("escampe-ext"))
+            throw new IllegalArgumentException("Moteur inconnu : " + engine + " (alphabeta, escampe ou escampe-ext)");
+        boolean escampeSearch = !engine.equals("alphabeta");
+        boolean extensions = engine.equals("escampe-ext");
+
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (String[] entry : POSITIONS) {
+            EscampeBoard board = EscampeBoard.fromCompactString(entry[1]);
+            long start = System.nanoTime();
+            long nodes = isPlacement(board) ? searchPlacements(board, depth, escampeSearch, extensions)
+                                             : search(board, board.getCurrentTurn(), depth, escampeSearch, extensions);
+            long nanos = System.nanoTime() - start;
+            totalNodes += nodes;
+            totalNanos += nanos;
+            System.out.println(String.format("%-10s %12d noeuds %8d ms", entry[0], nodes, nanos / 1_000_000));
+        }
+
+        System.out.println("===========================");
+        System.out.println("Moteur         : " + engine);
+        System.out.println("Profondeur     : " + depth);
+        System.out.println("Poids          : intégrés " + Arrays.toString(WEIGHTS) + " (data/weights.txt ignoré)");
+        System.out.println("Temps total    : " + totalNanos / 1_000_000 + " ms");
+        System.out.println("Noeuds/seconde : " + (totalNanos > 0 ? totalNodes * 1_000_000_000L / totalNanos : 0));
+        System.out.println("Noeuds (signature) : " + totalNodes);
+    }
+
+    /** Position de référence de ce nom (utilisée aussi par les benchmarks JMH) */
+    static EscampeBoard position(String name) {
+        for (String[] entry : POSITIONS) {
+            if (entry[0].equals(name)) return EscampeBoard.fromCompactString(entry[1]);
+        }
+        throw new IllegalArgumentException("Position de référence inconnue : " + name);
+    }
+
+    // --------------------- Recherches ---------------------
+
+    /** Le joueur au trait n'a pas encore placé ses pièces */
+    static boolean isPlacement(EscampeBoard board) {
+        return (board.getCurrentTurn() == EscampeRole.WHITE)
+                ? (board.getWhiteUnicorn() | board.getWhitePaladins()) == 0L
+                : (board.getBlackUnicorn() | board.getBlackPaladins()) == 0L;
+    }
+
+    /** @return le nombre de nœuds visités (feuilles comprises) d'une recherche à profondeur fixe */
+    private static long search(EscampeBoard board, EscampeRole role, int depth, boolean escampeSearch, boolean extensions) {
+        if (escampeSearch) {
+            EscampeSearch search = new EscampeSearch(role, depth, WEIGHTS, null, null, extensions);
+            search.bestMove(board, role);
+            return search.getNbNodes();
+        }
+        EscampeRole opponent = (role == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> alphabeta = new AlphaBeta<>(role, opponent,
+                EscampeHeuristics.withWeights(role, WEIGHTS), depth);
+        alphabeta.bestMove(board, role);
+        return alphabeta.getNbNodes();
+    }
+
+    /** Comme PlacementSearch, mais sans livre ni échéance : un placement sur PLACEMENT_STRIDE du côté libre,
+     * suivi d'une recherche du premier coup à profondeur depth - 2 (les placements se construisent depuis
+     * PlacementIndex, le résultat ne dépend donc pas de openings.txt)
+     */
+    private static long searchPlacements(EscampeBoard board, int depth, boolean escampeSearch, boolean extensions) {
+        EscampeRole role = board.getCurrentTurn();
+        long opponent = (role == EscampeRole.WHITE)
+                        ? (board.getBlackUnicorn() | board.getBlackPaladins())
+                        : (board.getWhiteUnicorn() | board.getWhitePaladins());
+        int base = ((opponent & 0xFFFL) != 0) ? PlacementIndex.PER_SIDE : 0;
+
+        long nodes = 0;
+        for (int index = base; index < base + PlacementIndex.PER_SIDE; index += PLACEMENT_STRIDE) {
+            EscampeBoard afterPlacement = new EscampeBoard(board);
+            afterPlacement.playPlacement(role, PlacementIndex.unicorn(index), PlacementIndex.paladins(index));
+            nodes += search(afterPlacement, role, Math.max(1, depth - 2), escampeSearch, extensions);
+        }
+        return nodes;
+    }
+}
@@ -6,22 +6,31 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
-import iialib.games.model.IBoard;
+import iialib.games.model.IIndexedBoard;
 import iialib.games.model.Score;
 
-public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,EscampeBoard> {
+public class EscampeBoard implements Partie1, IIndexedBoard<EscampeMove,EscampeRole,EscampeBoard> {
 
     // ------------ Constantes ------------
 
     // Masques pour les liserés (Bit 0 = case libre, Bit 1 = liseré)
-    private static final long LISERE_1 = (1L) | (1L<<4) | (1L<<7) | (1L<<9) | (1L<<14) | (1L<<16) | (1L<<19) | (1L<<23) | (1L<<24) | (1L<<26) | (1L<<28) | (1L<<33);
-    private static final long LISERE_2 = (1L<<1) | (1L<<2) | (1L<<5) | (1L<<11) | (1L<<12) | (1L<<15) | (1L<<18) | (1L<<21) | (1L<<29) | (1L<<31) | (1L<<32) | (1L<<35);
-    private static final long LISERE_3 = (1L<<3) | (1L<<6) | (1L<<8) | (1L<<10) | (1L<<13) | (1L<<17) | (1L<<20) | (1L<<22) | (1L<<25) | (1L<<27) | (1L<<30) | (1L<<34);
+    static final long LISERE_1 = (1L) | (1L<<4) | (1L<<7) | (1L<<9) | (1L<<14) | (1L<<16) | (1L<<19) | (1L<<23) | (1L<<24) | (1L<<26) | (1L<<28) | (1L<<33);
+    static final long LISERE_2 = (1L<<1) | (1L<<2) | (1L<<5) | (1L<<11) | (1L<<12) | (1L<<15) | (1L<<18) | (1L<<21) | (1L<<29) | (1L<<31) | (1L<<32) | (1L<<35);
+    static final long LISERE_3 = (1L<<3) | (1L<<6) | (1L<<8) | (1L<<10) | (1L<<13) | (1L<<17) | (1L<<20) | (1L<<22) | (1L<<25) | (1L<<27) | (1L<<30) | (1L<<34);
 
     private static final String[] COORD_CACHE = new String[36]; // Cache des coordonnées des cases pour éviter de les recalculer
-    static final long[][][] PATH_CACHE = new long[36][36][]; // Cache des chemins entre chaque paire de cases (null si impossible)
+    static final long[][][] PATH_CACHE = PathTables.load(); // Chemins entre chaque paire de cases (null si impossible), précalculés à la compilation
+    static final int[][] TARGETS = new int[36][]; // Cases d'arrivée géométriquement possibles depuis chaque case, croissantes
+
+    static final int MAX_MOVES = 6 * 35; // Coups indexés : 6 pièces, 35 cases d'arrivée chacune au plus
+    static final int PASS_MOVE = 0;      // Code du passe pour EscampeSearch (aucun déplacement n'a départ = arrivée)
+
+    // Informations d'annulation de makeMove : contrainte (bits 0-1), trait (bit 2), pièce prise (bits 3-4)
+    private static final long UNDO_WHITE_TURN = 1L << 2;
+    private static final long UNDO_CAPTURED_UNICORN = 1L << 3;
+    private static final long UNDO_CAPTURED_PALADIN = 1L << 4;
 
     // ------------ Variables d'etat ------------
 
@@ -40,7 +49,12 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
     }
 
     static{
-        precomputePaths();
+        for (int from = 0; from < 36; from++) {
+            int n = 0;
+            int[] targets = new int[35];
+            for (int to = 0; to < 36; to++) if (PATH_CACHE[from][to] != null) targets[n++] = to;
+            TARGETS[from] = Arrays.copyOf(targets, n);
+        }
     }
 
     // ------------ Constructeurs ------------
@@ -150,45 +164,104 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
     @Override
     public void saveToFile(String fileName) {
         try(BufferedWriter bw = new BufferedWriter(new FileWriter(fileName))){
-            bw.write("%  ABCDEF"); // Premier commentaire pour afficher les numéros de colonnes
-            bw.newLine();
+            bw.write(toPlateauString());
+        } catch (IOException e){
+            e.printStackTrace();
+        }
+    }
 
-            char[] line = new char[12]; // Liste de char pour réutiliser ceux qui ne changent pas
+    /** Texte du plateau au format de plateau.txt (celui lu par setFromFile)
+     * @return les 8 lignes du fichier, chacune terminée par un saut de ligne
+     */
+    public String toPlateauString() {
+        String newLine = System.lineSeparator();
+        StringBuilder sb = new StringBuilder(8 * 14);
+        sb.append("%  ABCDEF").append(newLine); // Premier commentaire pour afficher les numéros de colonnes
 
-            line[0] = '0';
-            line[2] = ' ';
-            line[9] = ' ';
-            line[10] = '0';
+        char[] line = new char[12]; // Liste de char pour réutiliser ceux qui ne changent pas
 
-            for(int row = 0; row < 6; row++){ // Boucle sur les 6 lignes
-                char rowChar = (char) ('1' + row); // Calcul du chiffre de la ligne
-                line[1] = rowChar;
-                line[11] = rowChar;
+        line[0] = '0';
+        line[2] = ' ';
+        line[9] = ' ';
+        line[10] = '0';
 
-                int rowStartIndex = row * 6;
+        for(int row = 0; row < 6; row++){ // Boucle sur les 6 lignes
+            char rowChar = (char) ('1' + row); // Calcul du chiffre de la ligne
+            line[1] = rowChar;
+            line[11] = rowChar;
 
-                for(int col = 0; col < 6; col++){ // Boucle sur les 6 colonnes
-                    long mask = 1L << (rowStartIndex + col);
+            int rowStartIndex = row * 6;
 
-                    char c = '-';
+            for(int col = 0; col < 6; col++){ // Boucle sur les 6 colonnes
+                long mask = 1L << (rowStartIndex + col);
 
-                    // Test si un pion sur cette case
-                    if((whitePaladins & mask) != 0) c = 'b';
-                    else if ((blackPaladins & mask) != 0) c = 'n';
-                    else if((whiteUnicorn & mask) != 0) c = 'B';
-                    else if((blackUnicorn & mask) != 0) c = 'N';
+                char c = '-';
 
-                    line[3 + col] = c;
-                }
+                // Test si un pion sur cette case
+                if((whitePaladins & mask) != 0) c = 'b';
+                else if ((blackPaladins & mask) != 0) c = 'n';
+                else if((whiteUnicorn & mask) != 0) c = 'B';
+                else if((blackUnicorn & mask) != 0) c = 'N';
 
-                bw.write(line);
-                bw.newLine();
+                line[3 + col] = c;
             }
-            bw.write("%  ABCDEF");
-            bw.newLine();
-        } catch (IOException e){
-            e.printStackTrace();
+
+            sb.append(line).append(newLine);
         }
+        sb.append("%  ABCDEF").append(newLine);
+        return sb.toString();
+    }
+
+    /** Position complète sur une ligne : les 6 lignes du plateau séparées par '/', le trait
+     * ('B' = Blanc, 'N' = Noir) et la contrainte de liseré, ex : "--b-Bb/--n--b/b-----/--nb--/n--n--/---Nn- B 3"
+     * Contrairement à plateau.txt, le trait et la contrainte sont conservés.
+     */
+    public String toCompactString() {
+        StringBuilder sb = new StringBuilder(45);
+        for (int index = 0; index < 36; index++) {
+            if (index > 0 && index % 6 == 0) sb.append('/');
+            long mask = 1L << index;
+            char c = '-';
+            if ((whitePaladins & mask) != 0) c = 'b';
+            else if ((blackPaladins & mask) != 0) c = 'n';
+            else if ((whiteUnicorn & mask) != 0) c = 'B';
+            else if ((blackUnicorn & mask) != 0) c = 'N';
+            sb.append(c);
+        }
+        sb.append(' ').append(currentTurn == EscampeRole.WHITE ? 'B' : 'N');
+        sb.append(' ').append(nextMoveConstraint);
+        return sb.toString();
+    }
+
+    /** Lit une position au format de toCompactString
+     * @throws IllegalArgumentException si la chaîne est mal formée
+     */
+    public static EscampeBoard fromCompactString(String s) {
+        String[] parts = s.trim().split("\\s+");
+        String[] rows = parts[0].split("/");
+        if (parts.length != 3 || rows.length != 6) throw new IllegalArgumentException("Position compacte invalide : " + s);
+
+        EscampeBoard board = new EscampeBoard();
+        for (int row = 0; row < 6; row++) {
+            if (rows[row].length() != 6) throw new IllegalArgumentException("Ligne invalide : " + rows[row]);
+            for (int col = 0; col < 6; col++) {
+                long mask = 1L << (row * 6 + col);
+                switch (rows[row].charAt(col)) {
+                    case 'b': board.whitePaladins |= mask; break;
+                    case 'n': board.blackPaladins |= mask; break;
+                    case 'B': board.whiteUnicorn |= mask; break;
+                    case 'N': board.blackUnicorn |= mask; break;
+                    case '-': break;
+                    default: throw new IllegalArgumentException("Case invalide dans : " + rows[row]);
+                }
+            }
+        }
+        if (!parts[1].equals("B") && !parts[1].equals("N")) throw new IllegalArgumentException("Trait invalide : " + parts[1]);
+        board.currentTurn = parts[1].equals("B") ? EscampeRole.WHITE : EscampeRole.BLACK;
+        board.nextMoveConstraint = Integer.parseInt(parts[2]);
+        if (board.nextMoveConstraint < 0 || board.nextMoveConstraint > 3)
+            throw new IllegalArgumentException("Contrainte de liseré invalide : " + parts[2]);
+        return board;
     }
 
     // --------------------- Gestion des coups ---------------------
@@ -271,8 +344,14 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
      * @return vrai si le coup est valide
      */
     private boolean isValidGameplayMove(EscampeMove move, EscampeRole player) {
-        int from = move.getFromIndex();
-        int to = move.getToIndex();
+        return isValidGameplayMove(move.getFromIndex(), move.getToIndex(), player);
+    }
+
+    /** Vérifie si le déplacement de la case <from> à la case <to> est valide (sans créer de coup)
+     * @param player le joueur qui joue, représenté par "noir" ou "blanc".
+     * @return vrai si le coup est valide
+     */
+    private boolean isValidGameplayMove(int from, int to, EscampeRole player) {
         if(from == to || from < 0 || from > 35 || to < 0 || to > 35) return false; // Mêmes cases ou index invalides
 
         // Récupération des bitboards
@@ -365,17 +444,147 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
 
                 if (PATH_CACHE[from][to] == null) continue; // Pas de chemin géométrique
 
-                // Crée le coup sous forme "A1-B2" avec string
-                String moveStr = indexToString(from) + "-" + indexToString(to);
-                EscampeMove move = new EscampeMove(moveStr);
-
-                if (isValidMove(move, player)) moves.add(move);
+                // Crée le coup sous forme "A1-B2" seulement s'il est valide
+                if (isValidGameplayMove(from, to, player)) moves.add(new EscampeMove(indexToString(from) + "-" + indexToString(to)));
             }
         }
 
         return moves;
     }
 
+    /** Nombre de coups possibles pour le joueur <player>, sans créer les coups (égal à possibleMoves(player).size())
+     * @param player le joueur qui joue, représenté par "noir" ou "blanc".
+     */
+    public int countMoves(EscampeRole player) {
+        long myPieces = (player == EscampeRole.WHITE) ? (whitePaladins | whiteUnicorn) : (blackPaladins | blackUnicorn);
+        if (myPieces == 0L) return possibleMoves(player).size(); // Placement : les placements dépendent de openings.txt
+
+        return (player == EscampeRole.WHITE)
+               ? countGameplayMoves(whitePaladins, whiteUnicorn, blackPaladins, blackUnicorn, nextMoveConstraint)
+               : countGameplayMoves(blackPaladins, blackUnicorn, whitePaladins, whiteUnicorn, nextMoveConstraint);
+    }
+
+    /** Nombre de déplacements valides d'un joueur, à partir des seuls bitboards (mêmes règles que isValidGameplayMove)
+     * @param constraint la contrainte de liseré (0 = aucune)
+     */
+    static int countGameplayMoves(long myPaladins, long myUnicorn, long opponentPaladins, long opponentUnicorn, int constraint) {
+        long myPieces = myPaladins | myUnicorn;
+        long allPieces = myPieces | opponentPaladins | opponentUnicorn;
+        int count = 0;
+        for (long pieces = myPieces; pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            if (constraint != 0 && getLisereType(from) != constraint) continue;
+            boolean isPaladin = (myPaladins & (1L << from)) != 0;
+            for (int to : TARGETS[from]) {
+                long toMask = 1L << to;
+                if ((myPieces & toMask) != 0) continue; // Ma pièce
+                if ((allPieces & toMask) != 0 && !(isPaladin && (opponentUnicorn & toMask) != 0)) continue; // Seule prise : paladin sur licorne
+                for (long pathMask : PATH_CACHE[from][to]) {
+                    if ((allPieces & pathMask) == 0) {
+                        count++;
+                        break;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    // --------------------- Coups indexés (IIndexedBoard) ---------------------
+    // Un déplacement est codé (case de départ << 6) | case d'arrivée, comme dans GameRecord.
+    // Les placements ne sont pas indexés : generateMoves renvoie -1 tant que le joueur n'a pas placé ses pièces.
+
+    @Override
+    public int maxMoves() {
+        return MAX_MOVES;
+    }
+
+    /** Coups possibles du joueur, dans le même ordre que possibleMoves
+     * @return le nombre de coups, ou -1 pendant le placement
+     */
+    @Override
+    public int generateMoves(EscampeRole player, int[] buffer) {
+        long myPieces = (player == EscampeRole.WHITE) ? (whitePaladins | whiteUnicorn) : (blackPaladins | blackUnicorn);
+        if (myPieces == 0L) return -1;
+
+        int count = 0;
+        for (int from = 0; from < 36; from++) {
+            if ((myPieces & (1L << from)) == 0) continue;
+            if (nextMoveConstraint != 0 && getLisereType(from) != nextMoveConstraint) continue;
+            for (int to = 0; to < 36; to++) {
+                if (from == to || PATH_CACHE[from][to] == null) continue;
+                if (isValidGameplayMove(from, to, player)) buffer[count++] = (from << 6) | to;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long makeMove(int move, EscampeRole player) {
+        int to = move & 0x3F;
+        long toMask = 1L << to;
+        long undo = nextMoveConstraint | (currentTurn == EscampeRole.WHITE ? UNDO_WHITE_TURN : 0L);
+        if (player == EscampeRole.WHITE) {
+            if ((blackUnicorn & toMask) != 0) undo |= UNDO_CAPTURED_UNICORN;
+            else if ((blackPaladins & toMask) != 0) undo |= UNDO_CAPTURED_PALADIN;
+        } else {
+            if ((whiteUnicorn & toMask) != 0) undo |= UNDO_CAPTURED_UNICORN;
+            else if ((whitePaladins & toMask) != 0) undo |= UNDO_CAPTURED_PALADIN;
+        }
+        playGameplayMove(move >>> 6, to, player);
+        return undo;
+    }
+
+    @Override
+    public void unmakeMove(int move, EscampeRole player, long undo) {
+        long fromMask = 1L << (move >>> 6);
+        long toMask = 1L << (move & 0x3F);
+        if (player == EscampeRole.WHITE) {
+            if ((whiteUnicorn & toMask) != 0) whiteUnicorn ^= fromMask | toMask;
+            else whitePaladins ^= fromMask | toMask;
+            if ((undo & UNDO_CAPTURED_UNICORN) != 0) blackUnicorn |= toMask;
+            if ((undo & UNDO_CAPTURED_PALADIN) != 0) blackPaladins |= toMask;
+        } else {
+            if ((blackUnicorn & toMask) != 0) blackUnicorn ^= fromMask | toMask;
+            else blackPaladins ^= fromMask | toMask;
+            if ((undo & UNDO_CAPTURED_UNICORN) != 0) whiteUnicorn |= toMask;
+            if ((undo & UNDO_CAPTURED_PALADIN) != 0) whitePaladins |= toMask;
+        }
+        nextMoveConstraint = (int) (undo & 3);
+        currentTurn = ((undo & UNDO_WHITE_TURN) != 0) ? EscampeRole.WHITE : EscampeRole.BLACK;
+    }
+
+    @Override
+    public EscampeMove toMove(int move) {
+        return moveOf(move);
+    }
+
+    /** Version statique de toMove : le coup ne dépend pas du plateau (PASS_MOVE donne le passe "E") */
+    static EscampeMove moveOf(int move) {
+        if (move == PASS_MOVE) return new EscampeMove("E");
+        return new EscampeMove(indexToString(move >>> 6) + "-" + indexToString(move & 0x3F));
+    }
+
+    /** Passe le tour, comme le coup "E" : la contrainte de liseré est levée et le trait change de camp
+     * @return de quoi annuler le passe avec unmakePass
+     */
+    long makePass() {
+        long undo = nextMoveConstraint | (currentTurn == EscampeRole.WHITE ? UNDO_WHITE_TURN : 0L);
+        nextMoveConstraint = 0;
+        switchTurn();
+        return undo;
+    }
+
+    void unmakePass(long undo) {
+        nextMoveConstraint = (int) (undo & 3);
+        currentTurn = ((undo & UNDO_WHITE_TURN) != 0) ? EscampeRole.WHITE : EscampeRole.BLACK;
+    }
+
+    @Override
+    public EscampeBoard copy() {
+        return new EscampeBoard(this);
+    }
+
     /** Modifie le plateau en jouant le coup move avec la pièce choisie
      * @param move le coup à jouer, sous la forme "C1-D1" ou "C6/A6/B5/D5/E6/F5"
      * @param player le joueur qui joue, représenté par "noir" ou "blanc".
@@ -417,8 +626,11 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         }
 
         // Si déplacement normal (ex : "A1-B2")
-        int from = move.getFromIndex();
-        int to   = move.getToIndex();
+        playGameplayMove(move.getFromIndex(), move.getToIndex(), player);
+    }
+
+    /** Déplace la pièce de la case <from> vers la case <to> (avec prise éventuelle) et passe le trait */
+    private void playGameplayMove(int from, int to, EscampeRole player) {
         long fromMask = 1L << from;
         long toMask   = 1L << to;
         boolean isWhite = (player == EscampeRole.WHITE);
@@ -452,6 +664,24 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         this.switchTurn();
     }
 
+    /** Pose directement les pièces d'un placement initial à partir de bitboards (sans passer par une chaîne)
+     * Équivalent à playVoid avec le coup de placement correspondant.
+     * @param player le joueur qui place ses pièces
+     * @param unicorn bitboard de la licorne
+     * @param paladins bitboard des 5 paladins
+     */
+    public void playPlacement(EscampeRole player, long unicorn, long paladins) {
+        if (player == EscampeRole.WHITE) {
+            this.whiteUnicorn |= unicorn;
+            this.whitePaladins |= paladins;
+        } else {
+            this.blackUnicorn |= unicorn;
+            this.blackPaladins |= paladins;
+        }
+        this.nextMoveConstraint = 0; // Pas de contrainte après placement
+        this.switchTurn();
+    }
+
     /** Vrai lorsque le plateau correspond à une fin de partie.
      */
     @Override
@@ -512,82 +742,6 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
         this.currentTurn = (this.currentTurn == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
     }
 
-    /** Pré-calcul des chemins entre chaque paire de cases pour chaque type de liseré
-     * Stocke les résultats dans PATH_CACHE
-     */
-    private static void precomputePaths() {
-        for (int from = 0; from < 36; from++) { // Pour chaque case de départ
-            int dist = getLisereType(from); // Récupérer la distance (type de liseré)
-
-            for (int to = 0; to < 36; to++) { // Pour chaque case d'arrivée
-                if (from == to) continue; // Ignorer les mêmes cases
-
-                // Trouver tous les chemins valides géométriquement (sans penser aux obstacles)
-                List<Long> pathsFound = new ArrayList<>();
-
-                findPathsRecursive(from, to, dist, 0L, pathsFound); // Masque initial = 0 (aucune case intermédiaire)
-
-                if (!pathsFound.isEmpty()) {
-                    long[] masks = new long[pathsFound.size()];
-                    for (int i = 0; i < pathsFound.size(); i++) { // Copier dans un tableau
-                        masks[i] = pathsFound.get(i);
-                    }
-                    PATH_CACHE[from][to] = masks; // Stocker dans le cache
-                }
-            }
-        }
-    }
-
-    /** Recherche récursive des chemins valides entre deux cases
-     * @param currentCase la case courante
-     * @param target la case cible
-     * @param stepsLeft le nombre de pas restants à effectuer
-     * @param currentPathMask le masque des cases déjà visitées dans le chemin actuel
-     * @param results la liste des masques de chemins valides trouvés
-     */
-    private static void findPathsRecursive(int currentCase, int target, int stepsLeft, long currentPathMask, List<Long> results) {
-        if (stepsLeft == 0) {
-            if (currentCase == target) { // Si on est arrivé à la cible
-                results.add(currentPathMask);
-            }
-            return;
-        }
-
-        // Calcul de la distance de Manhattan entre la case courante et la cible
-        int cx = currentCase % 6, cy = currentCase / 6;
-        int tx = target % 6, ty = target / 6;
-        int manhattan = Math.abs(cx - tx) + Math.abs(cy - ty);
-
-        if (manhattan > stepsLeft) return; // Trop loin
-        if ((manhattan % 2) != (stepsLeft % 2)) return; // Parité incompatible
-
-        // Exploration des 4 voisins : Haut, Bas, Gauche (-1), Droite (+1)
-        int[] moves = {-6, 6, -1, 1};
-
-        for (int move : moves) {
-            int next = currentCase + move;
-
-            if (next < 0 || next > 35) continue; // Vérification des limites du plateau
-            if (Math.abs(move) == 1 && (currentCase / 6 != next / 6)) continue; // Vérification des sauts de ligne horizontaux quand on bouge à gauche/droite
-
-            // Vérification pour ne pas repasser par une case déjà dans le masque
-            long nextBit = 1L << next;
-            boolean isLastStep = (stepsLeft == 1); // Vérifier si c'est le dernier pas
-
-            if ((currentPathMask & nextBit) == 0) { // Si la case n'est pas déjà dans le chemin
-                if (isLastStep) { // Dernier pas
-                    if (next == target) { // On a atteint la cible
-                        results.add(currentPathMask);
-                    }
-                } else {
-                    if (next != target) { // Ne pas aller à la cible avant le dernier pas
-                        findPathsRecursive(next, target, stepsLeft - 1, currentPathMask | nextBit, results); // Explorer la suite du chemin
-                    }
-                }
-            }
-        }
-    }
-
     /** Réinitialise toutes les pièces pour avoir un plateau vide */
     public void clearBoard() {
         whitePaladins = 0L;
@@ -604,6 +758,7 @@ public class EscampeBoard implements Partie1, IBoard<EscampeMove,EscampeRole,Esc
     public long getWhiteUnicorn() { return whiteUnicorn; }
     public long getBlackUnicorn() { return blackUnicorn; }
     public EscampeRole getCurrentTurn() { return this.currentTurn; }
+    public int getNextMoveConstraint() { return this.nextMoveConstraint; }
 
     /**
      * Génère tous les placements possibles pour un joueur.
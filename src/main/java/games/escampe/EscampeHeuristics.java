@@ -2,18 +2,132 @@ package games.escampe;
 
 import iialib.games.algs.IHeuristic;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 public class EscampeHeuristics {
 
     public static final int VICTORY = 1000000;
     public static final int DEFEAT  = -1000000;
 
+    // --------------------- Poids ---------------------
+
+    public static final String WEIGHTS_FILE = ".\\data\\weights.txt";
+
+    // L'évaluation est la somme des poids multipliés par les caractéristiques (features) de la position
+    public static final int MOBILITY_MINE    = 0;  // Nombre de coups possibles pour moi
+    public static final int MOBILITY_OPP     = 1;  // Nombre de coups possibles pour l'adversaire
+    public static final int OPP_BLOCKED      = 2;  // 1 si l'adversaire n'a aucun coup
+    public static final int LISERES          = 3;  // Nombre de liserés différents occupés par mes pièces
+    public static final int ONE_LISERE       = 4;  // 1 si mes pièces n'occupent qu'un seul liseré
+    public static final int TWO_LISERES      = 5;  // 1 si mes pièces n'occupent que deux liserés
+    public static final int THREAT_DEFENSE   = 6;  // Somme des 1/(pas+1) des paladins adverses qui atteignent ma licorne
+    public static final int GEOGRAPHY        = 7;  // Avancée de ma licorne au-delà de ses lignes
+    public static final int GUARDS           = 8;  // Paladins adjacents à ma licorne (plafonné à 3)
+    public static final int THREAT_ATTACK    = 9;  // Somme des 1/(pas+1) de mes paladins qui atteignent la licorne adverse
+    public static final int NUM_FEATURES     = 10;
+
+    public static final String[] FEATURE_NAMES = {
+        "MOBILITY_MINE", "MOBILITY_OPP", "OPP_BLOCKED", "LISERES", "ONE_LISERE",
+        "TWO_LISERES", "THREAT_DEFENSE", "GEOGRAPHY", "GUARDS", "THREAT_ATTACK"
+    };
+
+    // Poids réglés à la main, utilisés si data/weights.txt est absent
+    public static final int[] DEFAULT_WEIGHTS = {15, -20, 2000, 100, -2000, -700, -8000, -80, 120, 4000};
+
+    private static volatile int[] weights = loadWeightsAtStartup();
+
+    // Cases voisines (haut, bas, gauche, droite) de chaque case, pour les gardes de evaluateBatch
+    private static final long[] ADJACENT = new long[36];
+
+    static {
+        for (int i = 0; i < 36; i++) {
+            int x = i % 6, y = i / 6;
+            if (x > 0) ADJACENT[i] |= 1L << (i - 1);
+            if (x < 5) ADJACENT[i] |= 1L << (i + 1);
+            if (y > 0) ADJACENT[i] |= 1L << (i - 6);
+            if (y < 5) ADJACENT[i] |= 1L << (i + 6);
+        }
+    }
+
     public static IHeuristic<EscampeBoard, EscampeRole> hWhite =
-            (board, role) -> evaluate(board, EscampeRole.WHITE);
+            (board, role) -> evaluate(board, EscampeRole.WHITE, weights);
 
     public static IHeuristic<EscampeBoard, EscampeRole> hBlack =
-            (board, role) -> evaluate(board, EscampeRole.BLACK);
+            (board, role) -> evaluate(board, EscampeRole.BLACK, weights);
 
-    private static int evaluate(EscampeBoard board, EscampeRole role) {
+    /** Heuristique avec un jeu de poids donné, indépendant des poids globaux (pour comparer deux versions)
+     * @param role le rôle dont l'heuristique prend le point de vue
+     * @param w les poids, indexés par les constantes de caractéristiques
+     */
+    public static IHeuristic<EscampeBoard, EscampeRole> withWeights(EscampeRole role, int[] w) {
+        int[] copy = w.clone();
+        return (board, r) -> evaluate(board, role, copy);
+    }
+
+    /** Poids utilisés par hWhite et hBlack, sans copie : à ne pas modifier (pour EscampeSearch) */
+    static int[] currentWeights() {
+        return weights;
+    }
+
+    /** @return une copie des poids utilisés par hWhite et hBlack */
+    public static int[] getWeights() {
+        return weights.clone();
+    }
+
+    /** Remplace les poids utilisés par hWhite et hBlack */
+    public static void setWeights(int[] w) {
+        if (w.length != NUM_FEATURES) throw new IllegalArgumentException("Il faut " + NUM_FEATURES + " poids");
+        weights = w.clone();
+    }
+
+    /** Lit un fichier de poids : une ligne "NOM=valeur" par caractéristique, les lignes "%" sont des commentaires.
+     * Les caractéristiques absentes du fichier gardent leur poids par défaut.
+     */
+    public static int[] loadWeights(Path file) throws IOException {
+        int[] w = DEFAULT_WEIGHTS.clone();
+        for (String line : Files.readAllLines(file)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("%")) continue;
+            int eq = line.indexOf('=');
+            if (eq < 0) continue;
+            int feature = Arrays.asList(FEATURE_NAMES).indexOf(line.substring(0, eq).trim());
+            if (feature < 0) throw new IOException("Caractéristique inconnue dans " + file + " : " + line);
+            w[feature] = Integer.parseInt(line.substring(eq + 1).trim());
+        }
+        return w;
+    }
+
+    /** Texte d'un fichier de poids au format lu par loadWeights */
+    public static String formatWeights(int[] w, String comment) {
+        StringBuilder sb = new StringBuilder();
+        if (comment != null) sb.append("% ").append(comment).append(System.lineSeparator());
+        for (int i = 0; i < NUM_FEATURES; i++) {
+            sb.append(FEATURE_NAMES[i]).append('=').append(w[i]).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private static int[] loadWeightsAtStartup() {
+        Path file = Paths.get(WEIGHTS_FILE);
+        if (!Files.exists(file)) return DEFAULT_WEIGHTS.clone();
+        try {
+            int[] w = loadWeights(file);
+            System.out.println("Poids de l'heuristique chargés depuis " + WEIGHTS_FILE);
+            return w;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Poids illisibles, poids par défaut utilisés : " + e.getMessage());
+            return DEFAULT_WEIGHTS.clone();
+        }
+    }
+
+    // --------------------- Évaluation ---------------------
+
+    /** Évaluation du point de vue de role avec les poids w (appel direct, sans passer par IHeuristic) */
+    static int evaluate(EscampeBoard board, EscampeRole role, int[] w) {
         boolean isWhite = (role == EscampeRole.WHITE);
         EscampeRole oppRole = isWhite ? EscampeRole.BLACK : EscampeRole.WHITE;
 
@@ -30,19 +144,133 @@ public class EscampeHeuristics {
         int score = 0;
         int myUniIdx = Long.numberOfTrailingZeros(myUni);
         int oppUniIdx = Long.numberOfTrailingZeros(oppUni);
-        int myUniX = myUniIdx % 6;
-        int myUniY = myUniIdx / 6;
 
         // --- 1) MOBILITÉ & RESTRICTION ---
-        int myMoves  = board.possibleMoves(role).size();
-        int oppMoves = board.possibleMoves(oppRole).size();
-        score += 15 * myMoves - 20 * oppMoves;
-        if (oppMoves == 0) score += 2000;
+        int myMoves  = board.countMoves(role);
+        int oppMoves = board.countMoves(oppRole);
+        score += w[MOBILITY_MINE] * myMoves + w[MOBILITY_OPP] * oppMoves;
+        if (oppMoves == 0) score += w[OPP_BLOCKED];
 
         // --- 2) DIVERSITÉ DES LISERÉS ---
+        int lisereCount = countLiseres(myPaladins | myUni);
+
+        // Bonus important pour avoir plusieurs liserés différents
+        score += w[LISERES] * lisereCount;
+
+        // Pénalité si on n'a qu'un seul liseré (= blocage facile par l'adversaire)
+        if (lisereCount == 1) {
+            score += w[ONE_LISERE]; // Malus énorme pour vulnérabilité au blocage
+        } else if (lisereCount == 2) {
+            score += w[TWO_LISERES]; // Malus modéré, toujours vulnérable mais moins
+        }
+
+        // --- 3) SÉCURITÉ DE MA LICORNE (Défense) ---
+        // a) Danger direct : Paladins adverses pouvant m'atteindre
+        score += calculateThreatWithDistance(oppPaladins, myUniIdx, allPieces, w[THREAT_DEFENSE]);
+
+        // b) Prudence Géographique : Empêcher la licorne d'aller trop loin
+        score += w[GEOGRAPHY] * geography(myUniIdx, isWhite);
+
+        // c) Garde rapprochée : Bonus pour les paladins adjacents (bloqueurs, plafonné)
+        score += w[GUARDS] * guards(myPaladins, myUniIdx);
+
+        // --- 4) AGRESSIVITÉ (Attaque) ---
+        // Menace sur la licorne adverse
+        score += calculateThreatWithDistance(myPaladins, oppUniIdx, allPieces, w[THREAT_ATTACK]);
+
+        return score;
+    }
+
+    /** Premier temps de l'évaluation d'un lot : les termes bon marché (liserés, géographie, gardes) de toutes
+     * les positions, terme par terme ; chaque boucle parcourt les tableaux du lot sans appel virtuel ni objet
+     * intermédiaire. Les termes coûteux (mobilité, menaces) sont laissés à finishBatchEval, position par position,
+     * pour ne pas les calculer sur les fils qu'une coupure alpha-beta rend inutiles.
+     * @param out reçoit la partie bon marché de chaque évaluation, du point de vue de role
+     */
+    static void evaluateBatch(EscampeBatch batch, EscampeRole role, int[] w, int[] out) {
+        boolean isWhite = (role == EscampeRole.WHITE);
+        long[] myPal = isWhite ? batch.whitePaladins : batch.blackPaladins;
+        long[] myUni = isWhite ? batch.whiteUnicorn : batch.blackUnicorn;
+        int n = batch.size;
+
+        // Diversité des liserés : un test de masque par liseré
+        for (int i = 0; i < n; i++) {
+            long pieces = myPal[i] | myUni[i];
+            int lisereCount = ((pieces & EscampeBoard.LISERE_1) != 0 ? 1 : 0)
+                            + ((pieces & EscampeBoard.LISERE_2) != 0 ? 1 : 0)
+                            + ((pieces & EscampeBoard.LISERE_3) != 0 ? 1 : 0);
+            out[i] = w[LISERES] * lisereCount
+                   + (lisereCount == 1 ? w[ONE_LISERE] : lisereCount == 2 ? w[TWO_LISERES] : 0);
+        }
+
+        // Géographie et gardes : position de ma licorne (sans objet si elle est prise, voir finishBatchEval)
+        for (int i = 0; i < n; i++) {
+            int uniIdx = Long.numberOfTrailingZeros(myUni[i]) & 63; // 0 si la licorne est prise
+            out[i] += w[GEOGRAPHY] * geography(uniIdx, isWhite)
+                    + w[GUARDS] * Math.min(Long.bitCount(myPal[i] & ADJACENT[uniIdx]), 3);
+        }
+    }
+
+    /** Second temps : ajoute à la partie bon marché de la position i du lot les termes coûteux
+     * @return l'évaluation complète, égale à celle de evaluate
+     */
+    static int finishBatchEval(EscampeBatch batch, int i, EscampeRole role, int[] w, int partial) {
+        boolean isWhite = (role == EscampeRole.WHITE);
+        long myPal  = isWhite ? batch.whitePaladins[i] : batch.blackPaladins[i];
+        long myUni  = isWhite ? batch.whiteUnicorn[i] : batch.blackUnicorn[i];
+        long oppPal = isWhite ? batch.blackPaladins[i] : batch.whitePaladins[i];
+        long oppUni = isWhite ? batch.blackUnicorn[i] : batch.whiteUnicorn[i];
+        if (myUni == 0)  return DEFEAT;
+        if (oppUni == 0) return VICTORY;
+
+        long allPieces = myPal | myUni | oppPal | oppUni;
+        int myMoves = EscampeBoard.countGameplayMoves(myPal, myUni, oppPal, oppUni, batch.constraint[i]);
+        int oppMoves = EscampeBoard.countGameplayMoves(oppPal, oppUni, myPal, myUni, batch.constraint[i]);
+        return partial
+             + w[MOBILITY_MINE] * myMoves + w[MOBILITY_OPP] * oppMoves + (oppMoves == 0 ? w[OPP_BLOCKED] : 0)
+             + calculateThreatWithDistance(oppPal, Long.numberOfTrailingZeros(myUni), allPieces, w[THREAT_DEFENSE])
+             + calculateThreatWithDistance(myPal, Long.numberOfTrailingZeros(oppUni), allPieces, w[THREAT_ATTACK]);
+    }
+
+    /** Caractéristiques d'une position, telles que evaluate les pondère (pour le réglage des poids)
+     * @param board la position
+     * @param role le point de vue
+     * @param features tableau de NUM_FEATURES cases, rempli par la méthode
+     * @return faux si la position est terminale (une licorne est prise) : pas de caractéristiques
+     */
+    public static boolean extractFeatures(EscampeBoard board, EscampeRole role, double[] features) {
+        boolean isWhite = (role == EscampeRole.WHITE);
+        EscampeRole oppRole = isWhite ? EscampeRole.BLACK : EscampeRole.WHITE;
+
+        long myPaladins  = isWhite ? board.getWhitePaladins() : board.getBlackPaladins();
+        long myUni       = isWhite ? board.getWhiteUnicorn() : board.getBlackUnicorn();
+        long oppPaladins = isWhite ? board.getBlackPaladins() : board.getWhitePaladins();
+        long oppUni      = isWhite ? board.getBlackUnicorn() : board.getWhiteUnicorn();
+        long allPieces   = myPaladins | myUni | oppPaladins | oppUni;
+        if (myUni == 0 || oppUni == 0) return false;
+
+        int myUniIdx = Long.numberOfTrailingZeros(myUni);
+        int oppUniIdx = Long.numberOfTrailingZeros(oppUni);
+        int oppMoves = board.countMoves(oppRole);
+        int lisereCount = countLiseres(myPaladins | myUni);
+
+        features[MOBILITY_MINE] = board.countMoves(role);
+        features[MOBILITY_OPP] = oppMoves;
+        features[OPP_BLOCKED] = (oppMoves == 0) ? 1 : 0;
+        features[LISERES] = lisereCount;
+        features[ONE_LISERE] = (lisereCount == 1) ? 1 : 0;
+        features[TWO_LISERES] = (lisereCount == 2) ? 1 : 0;
+        features[THREAT_DEFENSE] = threatFeature(oppPaladins, myUniIdx, allPieces);
+        features[GEOGRAPHY] = geography(myUniIdx, isWhite);
+        features[GUARDS] = guards(myPaladins, myUniIdx);
+        features[THREAT_ATTACK] = threatFeature(myPaladins, oppUniIdx, allPieces);
+        return true;
+    }
+
+    private static int countLiseres(long pieces) {
         int lisereMask = 0;
         int lisereCount = 0;
-        long temp = myPaladins | myUni; // paladins + licorne
+        long temp = pieces; // paladins + licorne
         while (temp != 0) {
             int idx = Long.numberOfTrailingZeros(temp);
             int lisere = EscampeBoard.getLisereType(idx);
@@ -54,72 +282,70 @@ public class EscampeHeuristics {
             }
             temp &= (temp - 1);
         }
+        return lisereCount;
+    }
 
-        // Bonus important pour avoir plusieurs liserés différents
-        score += 100 * lisereCount;
-
-        // Pénalité si on n'a qu'un seul liseré (= blocage facile par l'adversaire)
-        if (lisereCount == 1) {
-            score -= 2000; // Malus énorme pour vulnérabilité au blocage
-        } else if (lisereCount == 2) {
-            score -= 700; // Malus modéré, toujours vulnérable mais moins
-        }
-
-        // --- 3) SÉCURITÉ DE MA LICORNE (Défense) ---
-        // a) Danger direct : Paladins adverses pouvant m'atteindre
-        score -= calculateThreatWithDistance(oppPaladins, myUniIdx, allPieces, true);
-
-        // b) Prudence Géographique : Empêcher la licorne d'aller trop loin
+    /** Nombre de lignes dont la licorne s'est avancée hors de son camp (0 si elle y est) */
+    private static int geography(int uniIdx, boolean isWhite) {
+        int uniY = uniIdx / 6;
         if (isWhite) {
-            if (myUniY > 1) score -= (myUniY * 80); // Malus si elle descend trop
+            return (uniY > 1) ? uniY : 0; // Malus si elle descend trop
         } else {
-            if (myUniY < 4) score -= ((5 - myUniY) * 80); // Malus si elle monte trop
+            return (uniY < 4) ? (5 - uniY) : 0; // Malus si elle monte trop
         }
+    }
 
-        // c) Garde rapprochée : Bonus pour les paladins adjacents (bloqueurs, plafonné)
+    /** Paladins adjacents à la licorne, plafonné à 3 gardes */
+    private static int guards(long paladins, int uniIdx) {
+        int uniX = uniIdx % 6;
+        int uniY = uniIdx / 6;
         int guardCount = 0;
-        temp = myPaladins;
+        long temp = paladins;
         while (temp != 0) {
             int pIdx = Long.numberOfTrailingZeros(temp);
-            int dist = Math.abs(myUniX - (pIdx % 6)) + Math.abs(myUniY - (pIdx / 6));
+            int dist = Math.abs(uniX - (pIdx % 6)) + Math.abs(uniY - (pIdx / 6));
             if (dist == 1) guardCount++;
             temp &= (temp - 1);
         }
-        score += Math.min(guardCount * 120, 360); // Max 3 gardes = 360 points
+        return Math.min(guardCount, 3);
+    }
 
-        // --- 4) AGRESSIVITÉ (Attaque) ---
-        // Menace sur la licorne adverse
-        score += calculateThreatWithDistance(myPaladins, oppUniIdx, allPieces, false);
+    /** Nombre minimal de cases intermédiaires libres entre l'attaquant et la cible, ou -1 si aucun chemin n'est libre */
+    private static int minFreeSteps(int attackerIdx, int targetIdx, long allPieces) {
+        long[] paths = EscampeBoard.PATH_CACHE[attackerIdx][targetIdx];
+        if (paths == null) return -1;
+        int minSteps = Integer.MAX_VALUE;
+        for (long pathMask : paths) {
+            if ((pathMask & allPieces) == 0) {
+                int steps = Long.bitCount(pathMask);
+                if (steps < minSteps) minSteps = steps;
+            }
+        }
+        return (minSteps == Integer.MAX_VALUE) ? -1 : minSteps;
+    }
 
-        return score;
+    // Menace d'un attaquant à minSteps cases libres de sa cible : 1 / (minSteps + 1), en sixièmes pour rester entière
+    // (minSteps vaut 0, 1 ou 2 selon le liseré). evaluate et extractFeatures utilisent la même quantité.
+    private static final int THREAT_UNITS = 6;
+
+    private static int calculateThreatWithDistance(long attackers, int targetIdx, long allPieces, int weight) {
+        // Score très élevé (4000) pour une capture en 1 coup (minSteps 0, 1 ou 2 selon liseré)
+        return weight * threatUnits(attackers, targetIdx, allPieces) / THREAT_UNITS;
     }
 
-    private static int calculateThreatWithDistance(long attackers, int targetIdx, long allPieces, boolean isDefensive) {
-        int threatScore = 0;
-        long temp = attackers;
+    private static double threatFeature(long attackers, int targetIdx, long allPieces) {
+        return threatUnits(attackers, targetIdx, allPieces) / (double) THREAT_UNITS;
+    }
 
+    /** @return la somme des 1 / (minSteps + 1) des attaquants qui ont un chemin libre, en THREAT_UNITS */
+    private static int threatUnits(long attackers, int targetIdx, long allPieces) {
+        int units = 0;
+        long temp = attackers;
         while (temp != 0) {
-            int attackerIdx = Long.numberOfTrailingZeros(temp);
-            long[] paths = EscampeBoard.PATH_CACHE[attackerIdx][targetIdx];
-
-            if (paths != null) {
-                int minSteps = Integer.MAX_VALUE;
-                for (long pathMask : paths) {
-                    if ((pathMask & allPieces) == 0) {
-                        int steps = Long.bitCount(pathMask); 
-                        if (steps < minSteps) minSteps = steps;
-                    }
-                }
-                if (minSteps != Integer.MAX_VALUE) {
-                    // Score très élevé (4000) pour une capture en 1 coup (minSteps 0, 1 ou 2 selon liseré)
-                    // On utilise une valeur plancher pour que la capture soit toujours prioritaire
-                    int val = 4000 / (minSteps + 1);
-                    threatScore += val;
-                }
-            }
+            int minSteps = minFreeSteps(Long.numberOfTrailingZeros(temp), targetIdx, allPieces);
+            if (minSteps >= 0) units += THREAT_UNITS / (minSteps + 1);
             temp &= (temp - 1);
         }
-
-        return isDefensive ? (threatScore * 2) : threatScore;
+        return units;
     }
-}
\ No newline at end of file
+}
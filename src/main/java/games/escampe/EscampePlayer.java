@@ -7,13 +7,42 @@ import iialib.games.algs.algorithms.AlphaBeta;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EscampePlayer implements IJoueur{
 
     public static final String PLATEAU_FILE = ".\\data\\plateau.txt";
     private static final String OPENINGS_FILE = ".\\data\\openings.txt";
+    private static final long PLACEMENT_TIME_BUDGET_MS = 5_000; // Temps maximal d'un placement hors livre
+    private static final int SEARCH_DEPTH = 4;
+    private static final boolean USE_ESCAMPE_SEARCH = !"alphabeta".equals(System.getProperty("escampe.engine"));
+    // Extensions des lignes forcées par le liseré (-Descampe.ext=false pour la recherche à profondeur fixe)
+    private static final boolean USE_EXTENSIONS = Boolean.parseBoolean(System.getProperty("escampe.ext", "true"));
+
+    // Table de transposition sur disque, gardée d'une partie à l'autre (-Descampe.tt=.\data\escampe.tt, -Descampe.tt.mb=64)
+    private static final String TT_FILE = System.getProperty("escampe.tt");
+    private static final int TT_SIZE_MB = Integer.getInteger("escampe.tt.mb", 64);
+
+    // Recherches d'échauffement dans le premier initJoueur (-Descampe.warmup.ms=0 pour les désactiver)
+    private static final long WARMUP_BUDGET_MS = Long.getLong("escampe.warmup.ms", 300);
+    // Le code compilé par le JIT sert à toutes les parties de la JVM : un seul échauffement
+    private static final AtomicBoolean WARMED_UP = new AtomicBoolean();
+
+    // Instantanés de débogage du plateau dans PLATEAU_FILE (-Descampe.snapshots=true), écrits hors du chemin critique
+    private static final boolean SNAPSHOTS_ENABLED = Boolean.getBoolean("escampe.snapshots");
+    private static final ExecutorService SNAPSHOT_WRITER = SNAPSHOTS_ENABLED
+            ? Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "plateau-snapshot");
+                t.setDaemon(true);
+                return t;
+            })
+            : null;
+
     private final EscampeBoard board;
     private int myColour;
     private EscampeRole myRole;
@@ -24,6 +53,7 @@ public class EscampePlayer implements IJoueur{
     private final Map<String, String> whiteOpenings = new HashMap<>(); // Réponses Blanches selon placement Noir
 
     // Constructeur
+    // Le plateau en mémoire fait foi pendant toute la partie (y compris le tour et la contrainte de liseré)
     public EscampePlayer() {
         board = new EscampeBoard();
     }
@@ -74,24 +104,53 @@ public class EscampePlayer implements IJoueur{
 
         // ---- Nettoyer plateau avant de commencer ----
         board.clearBoard(); // vide les bitboards
-        board.clearPlateauFile(PLATEAU_FILE); // vide plateau.txt
+        saveSnapshot();
 
-        // Donner le rôle adverse
-        EscampeRole opponentRole = (myRole == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        // Initialiser le joueur IA avec l'algorithme choisi
+        aiPlayer = new AIPlayer<>(myRole, createAlgorithm(openTranspositionTable()));
 
-        // Choisir l'heuristique appropriée selon ma couleur
-        GameAlgorithm<EscampeMove, EscampeRole, EscampeBoard> algorithm;
-        if (myRole == EscampeRole.WHITE) {
-            algorithm = new AlphaBeta<>(myRole, opponentRole, EscampeHeuristics.hWhite, 4);
-        } else {
-            algorithm = new AlphaBeta<>(myRole, opponentRole, EscampeHeuristics.hBlack, 4);
+        warmUp();
+    }
+
+    // Moteur spécialisé pour le tournoi (-Descampe.engine=alphabeta pour revenir à l'AlphaBeta générique)
+    private GameAlgorithm<EscampeMove, EscampeRole, EscampeBoard> createAlgorithm(TranspositionTable tt) {
+        if (USE_ESCAMPE_SEARCH) {
+            return new EscampeSearch(myRole, SEARCH_DEPTH, null, null, tt, USE_EXTENSIONS);
         }
+        EscampeRole opponentRole = (myRole == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        return new AlphaBeta<>(myRole, opponentRole,
+                (myRole == EscampeRole.WHITE) ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack, SEARCH_DEPTH);
+    }
 
-        // Initialiser le joueur IA avec l'algorithme choisi
-        aiPlayer = new AIPlayer<>(myRole, algorithm);
+    // Recherches sur les positions de référence de EscampeBench, le temps de WARMUP_BUDGET_MS : le JIT compile
+    // la recherche avant la partie et le premier coup est aussi rapide que les suivants.
+    // Le moteur d'échauffement n'a pas de table de transposition, pour ne pas la remplir de positions d'essai.
+    private void warmUp() {
+        if (WARMUP_BUDGET_MS <= 0 || !WARMED_UP.compareAndSet(false, true)) return;
+        long start = System.currentTimeMillis();
+        GameAlgorithm<EscampeMove, EscampeRole, EscampeBoard> algorithm = createAlgorithm(null);
+        int searches = 0;
+        while (System.currentTimeMillis() - start < WARMUP_BUDGET_MS) {
+            for (String[] entry : EscampeBench.POSITIONS) {
+                EscampeBoard position = EscampeBoard.fromCompactString(entry[1]);
+                if (EscampeBench.isPlacement(position)) continue;
+                algorithm.bestMove(position, position.getCurrentTurn());
+                searches++;
+                if (System.currentTimeMillis() - start >= WARMUP_BUDGET_MS) break;
+            }
+        }
+        System.out.println("Échauffement : " + searches + " recherches en " + (System.currentTimeMillis() - start) + " ms");
+    }
 
-        // Charger l'état actuel du plateau depuis le fichier
-        board.setFromFile(PLATEAU_FILE);
+    // Ouvre la table de transposition si elle est demandée ; sans elle le joueur fonctionne normalement
+    private static TranspositionTable openTranspositionTable() {
+        if (TT_FILE == null) return null;
+        try {
+            return TranspositionTable.open(Paths.get(TT_FILE), TT_SIZE_MB, EscampeSearch.evalFingerprint(null, null));
+        } catch (IOException e) {
+            System.err.println("Impossible d'ouvrir la table de transposition: " + e.getMessage());
+            return null;
+        }
     }
 
     // Retourner la couleur du joueur
@@ -103,9 +162,6 @@ public class EscampePlayer implements IJoueur{
     // Choisir le meilleur mouvement à jouer
     @Override
     public String choixMouvement() {
-        // Recharger le plateau depuis le fichier pour avoir l'état le plus récent
-        board.setFromFile(PLATEAU_FILE);
-
         // Vérifier si c'est un placement initial
         long myPieces = (myRole == EscampeRole.WHITE)
                         ? (board.getWhiteUnicorn() | board.getWhitePaladins())
@@ -117,8 +173,8 @@ public class EscampePlayer implements IJoueur{
             if (openingMove != null) {
                 System.out.println("Utilisation de l'ouverture pré-calculée: " + openingMove);
                 EscampeMove move = new EscampeMove(openingMove);
-                board.playVoid(move, myRole);
-                board.saveToFile(PLATEAU_FILE);
+                play(move, myRole);
+                saveSnapshot();
                 return openingMove;
             }
         }
@@ -131,10 +187,9 @@ public class EscampePlayer implements IJoueur{
         }
 
         // Jouer le coup sur notre copie du plateau (avec playVoid qui est optimisée)
-        board.playVoid(bestMove, myRole);
+        play(bestMove, myRole);
 
-        // Sauvegarder l'état mis à jour
-        board.saveToFile(PLATEAU_FILE);
+        saveSnapshot();
 
         // Retourner le coup au format string
         System.out.println("[DEBUG] Coup envoyé : " + bestMove);
@@ -166,9 +221,8 @@ public class EscampePlayer implements IJoueur{
                     return whiteOpenings.get(blackPlacement);
                 } else {
                     System.out.println("  → Placement Noir non référencé dans le livre");
-                    System.out.println("  → Recherche du meilleur placement Blanc avec AlphaBeta (profondeur 2)...");
+                    System.out.println("  → Recherche du meilleur placement Blanc parmi tous les placements légaux...");
                     // Le placement adverse n'est pas dans le livre
-                    // Utiliser AlphaBeta pour trouver un bon placement (profondeur réduite pour rapidité)
                     return findBestPlacementWithAlphaBeta();
                 }
             }
@@ -178,110 +232,14 @@ public class EscampePlayer implements IJoueur{
     }
 
     /**
-     * Trouve le meilleur placement initial en utilisant AlphaBeta avec une basse profondeur
+     * Trouve le meilleur placement initial par une recherche parallèle sur tous les placements légaux,
+     * bornée par PLACEMENT_TIME_BUDGET_MS
      */
     private String findBestPlacementWithAlphaBeta() {
-        // Générer tous les placements possibles pour les Blancs
-        java.util.ArrayList<EscampeMove> possiblePlacements = generateInitialPlacements(myRole);
-
-        if (possiblePlacements.isEmpty()) {
-            return null;
-        }
-
-        // Évaluer chaque placement possible avec AlphaBeta et garder le meilleur
-        EscampeMove bestPlacement = null;
-        int bestScore = Integer.MIN_VALUE;
-
-        System.out.println("  → Évaluation de " + possiblePlacements.size() + " placements avec AlphaBeta...");
-
-        for (EscampeMove placement : possiblePlacements) {
-            EscampeBoard testBoard = new EscampeBoard(board);
-            testBoard.playVoid(placement, myRole);
-
-            // Utiliser l'aiPlayer existant pour trouver le meilleur coup après ce placement
-            EscampeMove bestNextMove = aiPlayer.bestMove(testBoard);
-
-            // Évaluer la position résultante
-            int score;
-            if (bestNextMove != null && !bestNextMove.isPass()) {
-                EscampeBoard afterMove = testBoard.play(bestNextMove, myRole);
-                if (myRole == EscampeRole.WHITE) {
-                    score = EscampeHeuristics.hWhite.eval(afterMove, myRole);
-                } else {
-                    score = EscampeHeuristics.hBlack.eval(afterMove, myRole);
-                }
-            } else {
-                // Si pas de coup possible, évaluer directement
-                if (myRole == EscampeRole.WHITE) {
-                    score = EscampeHeuristics.hWhite.eval(testBoard, myRole);
-                } else {
-                    score = EscampeHeuristics.hBlack.eval(testBoard, myRole);
-                }
-            }
-
-            if (score > bestScore) {
-                bestScore = score;
-                bestPlacement = placement;
-            }
-        }
-
-        System.out.println("  → Meilleur placement trouvé avec score: " + bestScore);
-        return bestPlacement != null ? bestPlacement.toString() : null;
-    }
-
-    /**
-     * Génère tous les placements initiaux possibles pour un rôle donné
-     */
-    private java.util.ArrayList<EscampeMove> generateInitialPlacements(EscampeRole role) {
-        java.util.ArrayList<EscampeMove> placements = new java.util.ArrayList<>();
-
-        // Définir les cases disponibles selon le rôle
-        int startRow = (role == EscampeRole.BLACK) ? 0 : 4;
-        int endRow = (role == EscampeRole.BLACK) ? 1 : 5;
-
-        // Générer plusieurs placements stratégiques variés
-        // Important: diversifier les liserés pour ne pas être bloqué
-
-        // Pattern 1: Distribution équilibrée sur les deux lignes
-        placements.add(new EscampeMove(generatePlacementString(startRow, endRow, 0)));
-
-        // Pattern 2: Mix entre les deux lignes - variant 1
-        placements.add(new EscampeMove(generatePlacementString(startRow, endRow, 1)));
-
-        // Pattern 3: Mix entre les deux lignes - variant 2
-        placements.add(new EscampeMove(generatePlacementString(startRow, endRow, 2)));
-
-        return placements;
-    }
-
-    /**
-     * Génère une chaîne de placement selon un pattern
-     */
-    private String generatePlacementString(int row1, int row2, int pattern) {
-        StringBuilder sb = new StringBuilder();
-        int[] positions;
-
-        // Différents patterns de placement
-        switch (pattern) {
-            case 0: // Mix équilibré 3-3
-                positions = new int[]{row1*6, row1*6+1, row1*6+2, row2*6+3, row2*6+4, row2*6+5};
-                break;
-            case 1: // Mix 4-2 (majorité row1)
-                positions = new int[]{row1*6, row1*6+1, row1*6+3, row1*6+4, row2*6+2, row2*6+5};
-                break;
-            case 2: // Mix 2-4 (majorité row2)
-                positions = new int[]{row1*6+1, row1*6+4, row2*6, row2*6+2, row2*6+3, row2*6+5};
-                break;
-            default: // Toutes sur row1
-                positions = new int[]{row1*6, row1*6+1, row1*6+2, row1*6+3, row1*6+4, row1*6+5};
-        }
-
-        for (int i = 0; i < positions.length; i++) {
-            sb.append(EscampeBoard.indexToString(positions[i]));
-            if (i < positions.length - 1) sb.append("/");
-        }
-
-        return sb.toString();
+        long start = System.currentTimeMillis();
+        String bestPlacement = new PlacementSearch(myRole).findBest(board, PLACEMENT_TIME_BUDGET_MS);
+        System.out.println("  → Meilleur placement trouvé en " + (System.currentTimeMillis() - start) + " ms: " + bestPlacement);
+        return bestPlacement;
     }
 
     /**
@@ -329,9 +287,6 @@ public class EscampePlayer implements IJoueur{
 
     @Override
     public void mouvementEnnemi(String coup) {
-        // Recharger le plateau depuis le fichier
-        board.setFromFile(PLATEAU_FILE);
-
         // Créer le mouvement de l'ennemi
         EscampeMove ennemyMove = new EscampeMove(coup);
 
@@ -339,10 +294,38 @@ public class EscampePlayer implements IJoueur{
         EscampeRole ennemyRole = (myRole == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
 
         // Appliquer le mouvement ennemi sur notre plateau
-        board.playVoid(ennemyMove, ennemyRole);
+        play(ennemyMove, ennemyRole);
 
-        // Sauvegarder l'état mis à jour
-        board.saveToFile(PLATEAU_FILE);
+        saveSnapshot();
+    }
+
+    /** Joue un coup sur notre plateau en gardant le trait à jour : après le second placement, playVoid
+     * rend le trait au Noir, mais Blanc joue le premier coup (comme EscampeGame et boardWithPlacements)
+     */
+    private void play(EscampeMove move, EscampeRole role) {
+        board.playVoid(move, role);
+        if (move.isPlacement() && (board.getWhiteUnicorn() | board.getWhitePaladins()) != 0L
+                               && (board.getBlackUnicorn() | board.getBlackPaladins()) != 0L) {
+            board.switchTurn();
+        }
+    }
+
+    /** Écrit en arrière-plan une copie du plateau dans PLATEAU_FILE si les instantanés sont activés.
+     * Le fichier est remplacé atomiquement et contient aussi le tour et la contrainte en commentaire,
+     * ce que le format de plateau.txt ne stocke pas.
+     */
+    private void saveSnapshot() {
+        if (!SNAPSHOTS_ENABLED) return;
+        EscampeBoard copy = new EscampeBoard(board); // Le plateau continue d'évoluer pendant l'écriture
+        SNAPSHOT_WRITER.execute(() -> {
+            String content = "% Tour: " + copy.getCurrentTurn() + ", contrainte: " + copy.getNextMoveConstraint()
+                           + System.lineSeparator() + copy.toPlateauString();
+            try {
+                AtomicFiles.writeAtomically(Paths.get(PLATEAU_FILE), content);
+            } catch (IOException e) {
+                System.err.println("Impossible d'écrire l'instantané du plateau: " + e.getMessage());
+            }
+        });
     }
 
     @Override
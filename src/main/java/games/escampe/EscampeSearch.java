@@ -0,0 +1,582 @@
+package games.escampe;
+
+import iialib.games.algs.GameAlgorithm;
+import iialib.games.algs.SearchHandle;
+import iialib.games.algs.SearchInfo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Moteur de recherche propre à Escampe : même recherche AlphaBeta (version classique) que
+ * iialib.games.algs.algorithms.AlphaBeta, mais écrite directement sur EscampeBoard.
+ *
+ * Les coups sont des entiers (generateMoves) joués puis annulés sur un seul plateau (makeMove / unmakeMove),
+ * l'évaluation appelle EscampeHeuristics.evaluate (ou NnueEvaluator) directement et les rôles sont comparés par ==.
+ * Aucun appel n'est donc polymorphe dans la boucle de recherche, ce qui laisse le JIT tout inliner.
+ *
+ * À profondeur et poids égaux, le coup choisi et le nombre de nœuds sont ceux d'AlphaBeta :
+ * EscampeBench le vérifie (même signature avec "escampe" en second argument).
+ * Un moteur par thread : les tampons de coups et les statistiques ne sont pas partagés.
+ *
+ * Avec une TranspositionTable (optionnelle, éventuellement sur disque et partagée), chaque nœud consulte
+ * la table avant de générer ses coups : une entrée assez profonde coupe la recherche, sinon son meilleur coup
+ * est essayé en premier. La racine déjà cherchée à cette profondeur (partie précédente, autre processus)
+ * rend directement le coup stocké. Sans table, la recherche est exactement celle décrite plus haut.
+ *
+ * bestMoveAsync cherche par approfondissement itératif (profondeurs 1 à depthMax) et publie à chaque profondeur
+ * la valeur, la variante principale et le nombre de nœuds ; elle peut être arrêtée à tout moment.
+ *
+ * Un seul coup légal à la racine est rendu sans recherche (comme AlphaBeta). Avec les extensions (optionnelles),
+ * les nœuds presque forcés par le liseré sont prolongés par fractions de ply (ONE_PLY) : les fils d'un nœud
+ * à un seul coup gagnent un ply, ceux d'un nœud à deux coups un quart de ply, et un passe forcé (aucun coup sous
+ * la contrainte) est joué au lieu d'être évalué, avec un demi-ply d'extension. Ces nœuds coûtent peu (un ou deux
+ * fils, ni tri ni lot de feuilles) et c'est là qu'une profondeur fixe se trompe le plus. Le total est plafonné
+ * à MAX_EXTENSION par chemin ; les nœuds ne sont alors plus ceux d'AlphaBeta.
+ */
+public class EscampeSearch implements GameAlgorithm<EscampeMove, EscampeRole, EscampeBoard> {
+
+    // Extensions, en fractions de ply
+    static final int ONE_PLY = 4;
+    private static final int EXTENSION_SINGLE = ONE_PLY;     // Fils d'un nœud à un seul coup
+    private static final int EXTENSION_DOUBLE = ONE_PLY / 4; // Fils d'un nœud à deux coups
+    private static final int EXTENSION_PASS = ONE_PLY / 2;   // Passe forcé par le liseré (l'adversaire rejoue librement)
+    private static final int MAX_EXTENSION_PLIES = 2;
+    private static final int MAX_EXTENSION = MAX_EXTENSION_PLIES * ONE_PLY; // Plafond par chemin
+
+    private final EscampeRole maxRole;
+    private final EscampeRole minRole;
+    private final int depthMax;
+    private final int[] fixedWeights; // null = poids globaux de EscampeHeuristics, relus à chaque recherche
+    private final NnueEvaluator nnue; // null = heuristique écrite à la main
+    private final TranspositionTable tt; // null = sans table de transposition
+    private final long roleKey;          // Sépare dans la table les valeurs des moteurs Blanc et Noir
+    private final boolean extensions;    // Extensions des nœuds presque forcés
+
+    private final int[][] moveBuffers; // Un tampon de coups par profondeur
+    private final EscampeBatch leaves = new EscampeBatch(); // Fils du dernier niveau, évalués en lot
+    private final int[] leafValues = new int[EscampeBoard.MAX_MOVES];
+    private int bestLeaf;              // Indice du meilleur fils du dernier lot (maxOfLeaves / minOfLeaves)
+    private int[] weights;             // Poids de la recherche en cours
+    private int searchDepth;           // Profondeur de l'itération en cours (depthMax hors approfondissement itératif)
+    private int rootValue;             // Valeur du coup choisi par la dernière recherche de la racine
+
+    // Variantes principales : pv[d][d..pvLength[d]-1] est la meilleure suite trouvée depuis le nœud de profondeur d
+    private final int[][] pv;
+    private final int[] pvLength;
+
+    private SearchHandle<EscampeMove> stopHandle; // Recherche asynchrone en cours (null pour bestMove)
+
+    private int nbNodes;
+    private int nbLeaves;
+
+    /**
+     * @param maxRole le rôle du moteur (point de vue de l'évaluation)
+     * @param depthMax la profondeur de recherche
+     * @param weights les poids de l'heuristique, ou null pour les poids globaux de EscampeHeuristics
+     * @param network le réseau d'évaluation, ou null pour l'heuristique de EscampeHeuristics (avec weights)
+     * @param tt la table de transposition, ou null. Une table sur disque doit avoir été ouverte avec
+     *           l'empreinte evalFingerprint(weights, network) de cette évaluation.
+     * @param extensions vrai pour prolonger les nœuds à un ou deux coups et les passes forcés
+     */
+    public EscampeSearch(EscampeRole maxRole, int depthMax, int[] weights, NnueNetwork network, TranspositionTable tt,
+                         boolean extensions) {
+        this.maxRole = maxRole;
+        this.minRole = (maxRole == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        this.depthMax = depthMax;
+        this.fixedWeights = (weights != null) ? weights.clone() : null;
+        this.nnue = (network != null) ? new NnueEvaluator(network) : null;
+        int plies = depthMax + 1 + (extensions ? MAX_EXTENSION_PLIES : 0);
+        this.moveBuffers = new int[plies][EscampeBoard.MAX_MOVES];
+        this.pv = new int[plies][plies];
+        this.pvLength = new int[plies];
+        this.extensions = extensions;
+        this.tt = tt;
+        this.roleKey = (maxRole == EscampeRole.BLACK) ? EscampeZobrist.BLACK_ENGINE : 0L;
+    }
+
+    /** Empreinte d'une évaluation, pour TranspositionTable.open : une table remplie avec d'autres poids
+     * ou un autre réseau est remise à zéro plutôt que de fournir des valeurs fausses.
+     * @param weights les poids, ou null pour les poids globaux actuels de EscampeHeuristics
+     * @param network le réseau, ou null
+     */
+    public static long evalFingerprint(int[] weights, NnueNetwork network) {
+        if (network != null) {
+            long h = 31L * network.hidden + network.b2;
+            h = 31 * h + Arrays.hashCode(network.w1);
+            h = 31 * h + Arrays.hashCode(network.b1);
+            return (31 * h + Arrays.hashCode(network.w2)) | (1L << 63);
+        }
+        return Arrays.hashCode((weights != null) ? weights : EscampeHeuristics.currentWeights()) & 0xFFFF_FFFFL;
+    }
+
+    @Override
+    public EscampeMove bestMove(EscampeBoard board, EscampeRole playerRole) {
+        startSearch();
+        searchDepth = depthMax;
+
+        EscampeBoard position = new EscampeBoard(board); // La recherche joue et annule les coups sur sa propre copie
+        int[] moves = moveBuffers[0];
+        int count = position.generateMoves(playerRole, moves);
+        if (count < 0) {
+            return bestPlacement(position, playerRole);
+        }
+        if (count == 1) {
+            forcedRoot(position, playerRole, moves[0]);
+            return position.toMove(moves[0]);
+        }
+
+        long key = 0;
+        if (tt != null) {
+            key = EscampeZobrist.key(position, playerRole) ^ roleKey;
+            long entry = tt.probe(key);
+            if (entry != 0 && moveFirst(moves, count, TranspositionTable.move(entry))
+                    && TranspositionTable.bound(entry) == TranspositionTable.BOUND_EXACT
+                    && TranspositionTable.depth(entry) >= depthMax) {
+                rootValue = TranspositionTable.value(entry); // Position déjà cherchée au moins aussi profondément
+                pv[0][0] = moves[0];
+                pvLength[0] = 1;
+                return position.toMove(moves[0]);
+            }
+        }
+
+        int best = searchRoot(position, playerRole, moves, count);
+        if (best < 0) return null;
+        if (tt != null) tt.store(key, rootValue, moves[best], depthMax, TranspositionTable.BOUND_EXACT);
+        return position.toMove(moves[best]);
+    }
+
+    /** Approfondissement itératif de 1 à depthMax (voir GameAlgorithm.bestMoveAsync). Le meilleur coup
+     * de chaque profondeur est cherché en premier à la suivante ; arrêtée, la recherche rend celui de la dernière
+     * profondeur terminée (le premier coup si aucune ne l'est). Le plateau est copié avant le retour.
+     */
+    @Override
+    public SearchHandle<EscampeMove> bestMoveAsync(EscampeBoard board, EscampeRole playerRole,
+                                                   Consumer<? super SearchInfo<EscampeMove>> listener) {
+        EscampeBoard position = new EscampeBoard(board);
+        return SearchHandle.start(handle -> iterativeDeepening(position, playerRole, handle), listener);
+    }
+
+    /** @return la valeur du coup rendu par le dernier bestMove, du point de vue du moteur */
+    public int getLastValue() {
+        return rootValue;
+    }
+
+    /** @return la variante principale du dernier bestMove : le coup rendu puis les réponses attendues
+     * (vide pour un placement ou sans coup)
+     */
+    public List<EscampeMove> getPrincipalVariation() {
+        List<EscampeMove> line = new ArrayList<>(pvLength[0]);
+        for (int i = 0; i < pvLength[0]; i++) line.add(EscampeBoard.moveOf(pv[0][i]));
+        return line;
+    }
+
+    public int getNbNodes() {
+        return nbNodes;
+    }
+
+    public int getNbLeaves() {
+        return nbLeaves;
+    }
+
+    public int getDepth() {
+        return depthMax;
+    }
+
+    @Override
+    public String toString() {
+        return "EscampeSearch(ProfMax=" + depthMax + (extensions ? ", extensions" : "") + ")";
+    }
+
+    // --------------------- Recherche ---------------------
+
+    private void startSearch() {
+        nbNodes = 0;
+        nbLeaves = 0;
+        weights = (fixedWeights != null) ? fixedWeights : EscampeHeuristics.currentWeights();
+        if (tt != null) tt.newSearch();
+    }
+
+    private EscampeMove iterativeDeepening(EscampeBoard position, EscampeRole playerRole, SearchHandle<EscampeMove> handle) {
+        startSearch();
+        stopHandle = handle;
+        try {
+            int[] moves = moveBuffers[0];
+            int count = position.generateMoves(playerRole, moves);
+            if (count < 0) { // Placement : une seule profondeur
+                searchDepth = depthMax;
+                EscampeMove placement = bestPlacement(position, playerRole);
+                if (placement != null && !handle.isStopRequested())
+                    handle.report(new SearchInfo<>(depthMax, rootValue, List.of(placement), nbNodes, handle.elapsedMillis()));
+                return placement;
+            }
+            if (count == 0) return null;
+            if (count == 1) { // Coup forcé : la recherche s'arrête à la profondeur 1
+                searchDepth = 1;
+                forcedRoot(position, playerRole, moves[0]);
+                EscampeMove move = position.toMove(moves[0]);
+                handle.report(new SearchInfo<>(1, rootValue, List.of(move), nbNodes, handle.elapsedMillis()));
+                return move;
+            }
+
+            int bestMove = moves[0];
+            try {
+                for (int depth = 1; depth <= depthMax; depth++) {
+                    searchDepth = depth;
+                    moveFirst(moves, count, bestMove);
+                    bestMove = moves[searchRoot(position, playerRole, moves, count)];
+                    List<EscampeMove> line = new ArrayList<>(pvLength[0]);
+                    for (int i = 0; i < pvLength[0]; i++) line.add(position.toMove(pv[0][i]));
+                    handle.report(new SearchInfo<>(depth, rootValue, line, nbNodes, handle.elapsedMillis()));
+                }
+            } catch (SearchHandle.StopException e) {
+                // Profondeur interrompue : position est laissée en cours de recherche, seul bestMove sert encore
+            }
+            return position.toMove(bestMove);
+        } finally {
+            stopHandle = null;
+            searchDepth = depthMax;
+        }
+    }
+
+    /** Cherche chacun des count coups de la racine (fenêtre complète pour chacun, comme AlphaBeta)
+     * @return l'indice du meilleur coup (-1 s'il n'y en a pas), sa valeur dans rootValue et sa variante dans pv[0]
+     */
+    private int searchRoot(EscampeBoard position, EscampeRole playerRole, int[] moves, int count) {
+        boolean isMax = (playerRole == maxRole);
+        int bestValue = isMax ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int best = -1;
+        int ext = extend(0, count);
+        pvLength[0] = 0;
+        for (int i = 0; i < count; i++) {
+            long undo = position.makeMove(moves[i], playerRole);
+            int value = isMax ? minMax(position, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, ext)
+                              : maxMin(position, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, ext);
+            position.unmakeMove(moves[i], playerRole, undo);
+            if (isMax ? value > bestValue : value < bestValue) {
+                bestValue = value;
+                best = i;
+                updatePv(0, moves[i]);
+            }
+        }
+        rootValue = bestValue;
+        return best;
+    }
+
+    /** Seul coup légal à la racine : rendu sans recherche, avec la valeur d'une recherche de profondeur 1 */
+    private void forcedRoot(EscampeBoard position, EscampeRole playerRole, int move) {
+        long undo = position.makeMove(move, playerRole);
+        rootValue = evaluate(position);
+        position.unmakeMove(move, playerRole, undo);
+        nbNodes = 1;
+        nbLeaves = 1;
+        pv[0][0] = move;
+        pvLength[0] = 1;
+    }
+
+    /** @return l'extension cumulée des fils d'un nœud à count coups, dont le chemin a déjà l'extension ext */
+    private int extend(int ext, int count) {
+        if (!extensions) return ext;
+        int extension = (count == 1) ? EXTENSION_SINGLE : (count == 2) ? EXTENSION_DOUBLE : 0;
+        return Math.min(MAX_EXTENSION, ext + extension);
+    }
+
+    /** La variante du nœud de profondeur depth devient move suivi de celle de son fils */
+    private void updatePv(int depth, int move) {
+        int[] line = pv[depth];
+        line[depth] = move;
+        int length = pvLength[depth + 1];
+        System.arraycopy(pv[depth + 1], depth + 1, line, depth + 1, length - depth - 1);
+        pvLength[depth] = length;
+    }
+
+    private int evaluate(EscampeBoard board) {
+        return (nnue != null) ? nnue.evaluate(board, maxRole) : EscampeHeuristics.evaluate(board, maxRole, weights);
+    }
+
+    /** Placement à la racine : les placements ne sont pas indexés, ils passent par possibleMoves */
+    private EscampeMove bestPlacement(EscampeBoard board, EscampeRole playerRole) {
+        boolean isMax = (playerRole == maxRole);
+        int bestValue = isMax ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        EscampeMove bestMove = null;
+        ArrayList<EscampeMove> moves = board.possibleMoves(playerRole);
+        pvLength[0] = 0;
+        try {
+            for (EscampeMove move : moves) {
+                EscampeBoard next = board.play(move, playerRole);
+                int value = isMax ? minMax(next, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0)
+                                  : maxMin(next, 1, Integer.MIN_VALUE, Integer.MAX_VALUE, 0);
+                if (isMax ? value > bestValue : value < bestValue) {
+                    bestValue = value;
+                    bestMove = move;
+                }
+            }
+        } catch (SearchHandle.StopException e) {
+            if (bestMove == null) bestMove = moves.get(0); // Arrêtée avant la fin du premier placement
+        }
+        rootValue = bestValue;
+        return bestMove;
+    }
+
+    /** Nœud où joue le moteur : valeur maximale pour maxRole
+     * @param ext extension cumulée du chemin (en fractions ONE_PLY) : l'horizon est searchDepth + ext / ONE_PLY
+     */
+    private int maxMin(EscampeBoard board, int depth, int alpha, int beta, int ext) {
+        nbNodes++;
+        pvLength[depth] = depth;
+        int remaining = searchDepth + ext / ONE_PLY - depth;
+        if (board.isGameOver() || remaining <= 0) {
+            nbLeaves++;
+            return evaluate(board);
+        }
+        if (stopHandle != null) stopHandle.checkStop();
+
+        long key = 0;
+        long entry = 0;
+        if (tt != null) {
+            key = EscampeZobrist.key(board, maxRole) ^ roleKey;
+            entry = tt.probe(key);
+            if (cuts(entry, remaining, alpha, beta)) return TranspositionTable.value(entry);
+        }
+
+        int[] moves = moveBuffers[depth];
+        int count = board.generateMoves(maxRole, moves);
+        if (count < 0) {
+            return maxMinPlacements(board, depth, alpha, beta, ext);
+        }
+        if (count == 0) {
+            if (!extensions || board.getNextMoveConstraint() == 0) {
+                nbLeaves++;
+                return evaluate(board);
+            }
+            // Passe forcé par le liseré : l'adversaire rejoue sans contrainte (AlphaBeta évaluerait la position)
+            long undo = board.makePass();
+            int value = minMax(board, depth + 1, alpha, beta, Math.min(MAX_EXTENSION, ext + EXTENSION_PASS));
+            board.unmakePass(undo);
+            updatePv(depth, EscampeBoard.PASS_MOVE);
+            if (tt != null) store(key, value, EscampeBoard.PASS_MOVE, remaining, alpha, beta);
+            return value;
+        }
+        int childExt = extend(ext, count);
+        if (count == 1) { // Coup forcé : ni tri ni lot de feuilles
+            long undo = board.makeMove(moves[0], maxRole);
+            int value = minMax(board, depth + 1, alpha, beta, childExt);
+            board.unmakeMove(moves[0], maxRole, undo);
+            updatePv(depth, moves[0]);
+            if (tt != null) store(key, value, moves[0], remaining, alpha, beta);
+            return value;
+        }
+        if (entry != 0) moveFirst(moves, count, TranspositionTable.move(entry));
+
+        if (depth + 1 >= searchDepth + childExt / ONE_PLY && nnue == null) {
+            int value = maxOfLeaves(board, moves, count, alpha, beta);
+            pv[depth][depth] = moves[bestLeaf];
+            pvLength[depth] = depth + 1;
+            if (tt != null) store(key, value, moves[bestLeaf], 1, alpha, beta);
+            return value;
+        }
+
+        int alphaOrig = alpha;
+        int maxValue = Integer.MIN_VALUE;
+        int best = 0;
+        for (int i = 0; i < count; i++) {
+            long undo = board.makeMove(moves[i], maxRole);
+            int value = minMax(board, depth + 1, alpha, beta, childExt);
+            board.unmakeMove(moves[i], maxRole, undo);
+            if (value > maxValue) {
+                maxValue = value;
+                best = i;
+                updatePv(depth, moves[i]);
+            }
+            if (value > alpha) alpha = value;
+            if (alpha >= beta) break;
+        }
+        if (tt != null) store(key, maxValue, moves[best], remaining, alphaOrig, beta);
+        return maxValue;
+    }
+
+    /** Nœud où joue l'adversaire : valeur minimale pour maxRole */
+    private int minMax(EscampeBoard board, int depth, int alpha, int beta, int ext) {
+        nbNodes++;
+        pvLength[depth] = depth;
+        int remaining = searchDepth + ext / ONE_PLY - depth;
+        if (board.isGameOver() || remaining <= 0) {
+            nbLeaves++;
+            return evaluate(board);
+        }
+        if (stopHandle != null) stopHandle.checkStop();
+
+        long key = 0;
+        long entry = 0;
+        if (tt != null) {
+            key = EscampeZobrist.key(board, minRole) ^ roleKey;
+            entry = tt.probe(key);
+            if (cuts(entry, remaining, alpha, beta)) return TranspositionTable.value(entry);
+        }
+
+        int[] moves = moveBuffers[depth];
+        int count = board.generateMoves(minRole, moves);
+        if (count < 0) {
+            return minMaxPlacements(board, depth, alpha, beta, ext);
+        }
+        if (count == 0) {
+            if (!extensions || board.getNextMoveConstraint() == 0) {
+                nbLeaves++;
+                return evaluate(board);
+            }
+            long undo = board.makePass();
+            int value = maxMin(board, depth + 1, alpha, beta, Math.min(MAX_EXTENSION, ext + EXTENSION_PASS));
+            board.unmakePass(undo);
+            updatePv(depth, EscampeBoard.PASS_MOVE);
+            if (tt != null) store(key, value, EscampeBoard.PASS_MOVE, remaining, alpha, beta);
+            return value;
+        }
+        int childExt = extend(ext, count);
+        if (count == 1) {
+            long undo = board.makeMove(moves[0], minRole);
+            int value = maxMin(board, depth + 1, alpha, beta, childExt);
+            board.unmakeMove(moves[0], minRole, undo);
+            updatePv(depth, moves[0]);
+            if (tt != null) store(key, value, moves[0], remaining, alpha, beta);
+            return value;
+        }
+        if (entry != 0) moveFirst(moves, count, TranspositionTable.move(entry));
+
+        if (depth + 1 >= searchDepth + childExt / ONE_PLY && nnue == null) {
+            int value = minOfLeaves(board, moves, count, alpha, beta);
+            pv[depth][depth] = moves[bestLeaf];
+            pvLength[depth] = depth + 1;
+            if (tt != null) store(key, value, moves[bestLeaf], 1, alpha, beta);
+            return value;
+        }
+
+        int betaOrig = beta;
+        int minValue = Integer.MAX_VALUE;
+        int best = 0;
+        for (int i = 0; i < count; i++) {
+            long undo = board.makeMove(moves[i], minRole);
+            int value = maxMin(board, depth + 1, alpha, beta, childExt);
+            board.unmakeMove(moves[i], minRole, undo);
+            if (value < minValue) {
+                minValue = value;
+                best = i;
+                updatePv(depth, moves[i]);
+            }
+            if (value < beta) beta = value;
+            if (alpha >= beta) break;
+        }
+        if (tt != null) store(key, minValue, moves[best], remaining, alpha, betaOrig);
+        return minValue;
+    }
+
+    // --------------------- Table de transposition ---------------------
+
+    /** @return vrai si l'entrée (0 = absente) donne la valeur du nœud pour la fenêtre alpha, beta */
+    private static boolean cuts(long entry, int remaining, int alpha, int beta) {
+        if (entry == 0 || TranspositionTable.depth(entry) < remaining) return false;
+        int value = TranspositionTable.value(entry);
+        switch (TranspositionTable.bound(entry)) {
+            case TranspositionTable.BOUND_EXACT: return true;
+            case TranspositionTable.BOUND_LOWER: return value >= beta;
+            case TranspositionTable.BOUND_UPPER: return value <= alpha;
+            default: return false;
+        }
+    }
+
+    /** Enregistre la valeur d'un nœud cherché avec la fenêtre alpha, beta (avant la recherche) */
+    private void store(long key, int value, int move, int remaining, int alpha, int beta) {
+        int bound = (value <= alpha) ? TranspositionTable.BOUND_UPPER
+                  : (value >= beta) ? TranspositionTable.BOUND_LOWER : TranspositionTable.BOUND_EXACT;
+        tt.store(key, value, move, remaining, bound);
+    }
+
+    /** Place move en tête de moves (les autres coups gardent leur ordre)
+     * @return faux si move n'est pas parmi les coups (coup inconnu ou collision de clés)
+     */
+    private static boolean moveFirst(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Dernier niveau : tous les fils sont des feuilles. Ils sont développés en un lot (EscampeBatch) dont les
+    // termes bon marché de l'évaluation sont calculés d'un coup, puis parcourus dans l'ordre des coups ;
+    // les termes coûteux ne sont calculés que pour les fils visités avant une éventuelle coupure.
+
+    private int maxOfLeaves(EscampeBoard board, int[] moves, int count, int alpha, int beta) {
+        leaves.expand(board, maxRole, moves, count);
+        EscampeHeuristics.evaluateBatch(leaves, maxRole, weights, leafValues);
+        int maxValue = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            nbNodes++;
+            nbLeaves++;
+            int value = EscampeHeuristics.finishBatchEval(leaves, i, maxRole, weights, leafValues[i]);
+            if (value > maxValue) {
+                maxValue = value;
+                bestLeaf = i;
+            }
+            if (value > alpha) alpha = value;
+            if (alpha >= beta) break;
+        }
+        return maxValue;
+    }
+
+    private int minOfLeaves(EscampeBoard board, int[] moves, int count, int alpha, int beta) {
+        leaves.expand(board, minRole, moves, count);
+        EscampeHeuristics.evaluateBatch(leaves, maxRole, weights, leafValues);
+        int minValue = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            nbNodes++;
+            nbLeaves++;
+            int value = EscampeHeuristics.finishBatchEval(leaves, i, maxRole, weights, leafValues[i]);
+            if (value < minValue) {
+                minValue = value;
+                bestLeaf = i;
+            }
+            if (value < beta) beta = value;
+            if (alpha >= beta) break;
+        }
+        return minValue;
+    }
+
+    // Placements dans l'arbre (l'adversaire n'a pas encore placé ses pièces) : sur des copies, comme AlphaBeta
+
+    private int maxMinPlacements(EscampeBoard board, int depth, int alpha, int beta, int ext) {
+        ArrayList<EscampeMove> moves = board.possibleMoves(maxRole);
+        if (moves.isEmpty()) {
+            nbLeaves++;
+            return evaluate(board);
+        }
+        int maxValue = Integer.MIN_VALUE;
+        for (EscampeMove move : moves) {
+            int value = minMax(board.play(move, maxRole), depth + 1, alpha, beta, ext);
+            if (value > maxValue) maxValue = value;
+            if (value > alpha) alpha = value;
+            if (alpha >= beta) break;
+        }
+        return maxValue;
+    }
+
+    private int minMaxPlacements(EscampeBoard board, int depth, int alpha, int beta, int ext) {
+        ArrayList<EscampeMove> moves = board.possibleMoves(minRole);
+        if (moves.isEmpty()) {
+            nbLeaves++;
+            return evaluate(board);
+        }
+        int minValue = Integer.MAX_VALUE;
+        for (EscampeMove move : moves) {
+            int value = maxMin(board.play(move, minRole), depth + 1, alpha, beta, ext);
+            if (value < minValue) minValue = value;
+            if (value < beta) beta = value;
+            if (alpha >= beta) break;
+        }
+        return minValue;
+    }
+}
@@ -0,0 +1,52 @@
+package games.escampe;
+
+import java.util.SplittableRandom;
+
+/**
+ * Clés de Zobrist des positions d'Escampe : le ou exclusif d'un nombre aléatoire par pièce et par case,
+ * d'un par contrainte de liseré et d'un pour le trait aux Blancs.
+ *
+ * Les nombres sont tirés d'une graine fixe : une même position a la même clé dans tous les processus,
+ * ce qui permet de les garder dans une table de transposition sur disque (TranspositionTable).
+ * Changer SEED ou l'ordre des tirages invalide les tables existantes.
+ */
+final class EscampeZobrist {
+
+    static final long SEED = 0x45_53_43_41_4D_50_45_31L; // "ESCAMPE1"
+
+    private static final long[][] PIECES = new long[4][36]; // Licorne blanche, paladins blancs, licorne noire, paladins noirs
+    private static final long[] CONSTRAINTS = new long[4];
+    private static final long WHITE_TURN;
+    static final long BLACK_ENGINE; // Ajouté par EscampeSearch quand le moteur joue les Noirs (voir TranspositionTable)
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] squares : PIECES) {
+            for (int i = 0; i < 36; i++) squares[i] = random.nextLong();
+        }
+        for (int c = 0; c < 4; c++) CONSTRAINTS[c] = random.nextLong();
+        WHITE_TURN = random.nextLong();
+        BLACK_ENGINE = random.nextLong();
+    }
+
+    private EscampeZobrist() {
+    }
+
+    /** @return la clé de la position (pièces, contrainte et trait)
+     * @param toMove le joueur au trait dans la recherche (maxRole ou minRole du nœud)
+     */
+    static long key(EscampeBoard board, EscampeRole toMove) {
+        long key = pieces(PIECES[0], board.getWhiteUnicorn())
+                 ^ pieces(PIECES[1], board.getWhitePaladins())
+                 ^ pieces(PIECES[2], board.getBlackUnicorn())
+                 ^ pieces(PIECES[3], board.getBlackPaladins())
+                 ^ CONSTRAINTS[board.getNextMoveConstraint()];
+        return (toMove == EscampeRole.WHITE) ? key ^ WHITE_TURN : key;
+    }
+
+    private static long pieces(long[] squares, long bitboard) {
+        long key = 0;
+        for (long b = bitboard; b != 0; b &= b - 1) key ^= squares[Long.numberOfTrailingZeros(b)];
+        return key;
+    }
+}
@@ -0,0 +1,122 @@
+package games.escampe;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Une partie enregistrée au format binaire compact (voir GameRecordWriter et GameRecordReader).
+ *
+ * Format d'un enregistrement (little endian) :
+ *   u32 longueur des octets qui suivent
+ *   u16 placement Noir, u16 placement Blanc (numéros PlacementIndex)
+ *   i8  résultat (1 = Noir gagne, -1 = Blanc gagne, 0 = nulle), u8 options (FLAG_EVALS, FLAG_TIMES)
+ *   u16 nombre de coups après les placements, u32 durée de la partie en ms
+ *   u16 par coup : case de départ (6 bits) puis case d'arrivée (6 bits), PASS pour un passage
+ *   si FLAG_EVALS : i32 par coup, évaluation du point de vue du joueur qui a joué le coup
+ *   si FLAG_TIMES : u16 par coup, temps de réflexion en ms (plafonné à 65535)
+ * Une partie de 40 coups tient en environ 100 octets.
+ */
+public final class GameRecord {
+
+    static final int HEADER_BYTES = 12; // Octets fixes après le champ de longueur
+    static final int FLAG_EVALS = 1;
+    static final int FLAG_TIMES = 2;
+    public static final short PASS = (short) 0xFFFF;
+
+    public final int blackPlacement;
+    public final int whitePlacement;
+    public final int result; // Constantes de IJoueur : 1 = Noir, -1 = Blanc, 0 = nulle
+    public final long durationMillis;
+    public final short[] moves;
+    public final int[] evals; // null si absent
+    public final int[] moveMillis; // null si absent
+
+    public GameRecord(int blackPlacement, int whitePlacement, int result, long durationMillis,
+                      short[] moves, int[] evals, int[] moveMillis) {
+        this.blackPlacement = blackPlacement;
+        this.whitePlacement = whitePlacement;
+        this.result = result;
+        this.durationMillis = durationMillis;
+        this.moves = moves;
+        this.evals = evals;
+        this.moveMillis = moveMillis;
+    }
+
+    // --------------------- Coups ---------------------
+
+    /** Code d'un coup de déplacement ou de passage sur 16 bits */
+    public static short encodeMove(EscampeMove move) {
+        if (move.isPass()) return PASS;
+        return (short) ((move.getFromIndex() << 6) | move.getToIndex());
+    }
+
+    /** Coup correspondant à un code de encodeMove */
+    public static EscampeMove decodeMove(short code) {
+        if (code == PASS) return new EscampeMove("E");
+        return new EscampeMove(EscampeBoard.indexToString((code >> 6) & 0x3F) + "-" + EscampeBoard.indexToString(code & 0x3F));
+    }
+
+    /** Rejoue la partie
+     * @return les positions avant chaque coup (la première est celle qui suit les deux placements)
+     */
+    public List<EscampeBoard> positions() {
+        List<EscampeBoard> positions = new ArrayList<>(moves.length + 1);
+        EscampeBoard board = OpeningGenerator.boardWithPlacements(blackPlacement, whitePlacement);
+        EscampeRole toMove = EscampeRole.WHITE; // Le Blanc joue le premier déplacement
+        for (short move : moves) {
+            positions.add(new EscampeBoard(board));
+            board.playVoid(decodeMove(move), toMove);
+            toMove = (toMove == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        }
+        positions.add(board);
+        return positions;
+    }
+
+    // --------------------- Sérialisation ---------------------
+
+    /** @return l'enregistrement complet, champ de longueur compris */
+    byte[] toBytes() {
+        int n = moves.length;
+        int flags = (evals != null ? FLAG_EVALS : 0) | (moveMillis != null ? FLAG_TIMES : 0);
+        int length = HEADER_BYTES + 2 * n + (evals != null ? 4 * n : 0) + (moveMillis != null ? 2 * n : 0);
+
+        ByteBuffer buf = ByteBuffer.allocate(4 + length).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(length);
+        buf.putShort((short) blackPlacement);
+        buf.putShort((short) whitePlacement);
+        buf.put((byte) result);
+        buf.put((byte) flags);
+        buf.putShort((short) n);
+        buf.putInt((int) Math.min(durationMillis, 0xFFFFFFFFL));
+        for (short move : moves) buf.putShort(move);
+        if (evals != null) for (int eval : evals) buf.putInt(eval);
+        if (moveMillis != null) for (int ms : moveMillis) buf.putShort((short) Math.min(ms, 0xFFFF));
+        return buf.array();
+    }
+
+    /** Lit un enregistrement à la position courante du tampon (little endian), champ de longueur compris */
+    static GameRecord read(ByteBuffer buf) {
+        buf.getInt(); // Longueur, déjà utilisée par le lecteur pour découper le fichier
+        int black = Short.toUnsignedInt(buf.getShort());
+        int white = Short.toUnsignedInt(buf.getShort());
+        int result = buf.get();
+        int flags = buf.get();
+        int n = Short.toUnsignedInt(buf.getShort());
+        long duration = Integer.toUnsignedLong(buf.getInt());
+
+        short[] moves = new short[n];
+        for (int i = 0; i < n; i++) moves[i] = buf.getShort();
+        int[] evals = null, times = null;
+        if ((flags & FLAG_EVALS) != 0) {
+            evals = new int[n];
+            for (int i = 0; i < n; i++) evals[i] = buf.getInt();
+        }
+        if ((flags & FLAG_TIMES) != 0) {
+            times = new int[n];
+            for (int i = 0; i < n; i++) times[i] = Short.toUnsignedInt(buf.getShort());
+        }
+        return new GameRecord(black, white, result, duration, moves, evals, times);
+    }
+}
@@ -0,0 +1,75 @@
+package games.escampe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Lecture séquentielle d'un fichier de parties (GameRecordWriter) par projection en mémoire.
+ * Le fichier est projeté par fenêtres de WINDOW_BYTES octets, ce qui permet de lire des fichiers
+ * de plus de 2 Go. Un enregistrement tronqué en fin de fichier (écriture interrompue) est ignoré.
+ */
+public class GameRecordReader implements Closeable {
+
+    private static final long WINDOW_BYTES = 256L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position = GameRecordWriter.FILE_HEADER_BYTES;
+
+    public GameRecordReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        if (size < GameRecordWriter.FILE_HEADER_BYTES) {
+            channel.close();
+            throw new IOException("Fichier de parties vide ou tronqué : " + file);
+        }
+        map(0);
+        if (window.getInt(0) != GameRecordWriter.MAGIC || window.getInt(4) != GameRecordWriter.VERSION) {
+            channel.close();
+            throw new IOException("Ce n'est pas un fichier de parties (version " + GameRecordWriter.VERSION + ") : " + file);
+        }
+    }
+
+    /** @return la partie suivante, ou null à la fin du fichier */
+    public GameRecord next() throws IOException {
+        if (position + 4 > size) return null;
+        ensureMapped(position, 4);
+        int length = window.getInt((int) (position - windowStart));
+        if (length < GameRecord.HEADER_BYTES || position + 4 + length > size) return null; // Fin tronquée
+
+        ensureMapped(position, 4 + length);
+        window.position((int) (position - windowStart));
+        GameRecord record = GameRecord.read(window);
+        position += 4 + length;
+        return record;
+    }
+
+    /** Applique une action à toutes les parties restantes */
+    public void forEach(Consumer<GameRecord> action) throws IOException {
+        GameRecord record;
+        while ((record = next()) != null) action.accept(record);
+    }
+
+    private void ensureMapped(long start, int length) throws IOException {
+        if (start < windowStart || start + length > windowStart + window.capacity()) map(start);
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, size - start));
+        window.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,108 @@
+package games.escampe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écriture en flux de parties au format binaire de GameRecord, en ajout à la fin du fichier.
+ * Plusieurs threads peuvent appeler append en même temps : chaque partie est sérialisée par son thread,
+ * puis seule la copie des octets dans le tampon commun se fait sous verrou. Un enregistrement n'est
+ * jamais coupé par un autre.
+ *
+ * Le fichier commence par un en-tête de 8 octets (MAGIC, VERSION) écrit à sa création. À la réouverture,
+ * un dernier enregistrement tronqué (processus tué pendant une écriture) est supprimé avant d'ajouter la suite.
+ */
+public class GameRecordWriter implements Closeable {
+
+    static final int MAGIC = 0x52435345; // "ESCR" en little endian
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 8;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private long records = 0;
+
+    /** Ouvre le fichier en ajout (le crée avec son en-tête s'il n'existe pas)
+     * @throws IOException si le fichier existe mais n'est pas un fichier de parties
+     */
+    public GameRecordWriter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            while (header.hasRemaining()) channel.write(header);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                channel.close();
+                throw new IOException("Ce n'est pas un fichier de parties (version " + VERSION + ") : " + file);
+            }
+            channel.truncate(endOfCompleteRecords());
+        }
+        channel.position(channel.size());
+    }
+
+    /** Parcourt les champs de longueur pour trouver la fin du dernier enregistrement complet */
+    private long endOfCompleteRecords() throws IOException {
+        long size = channel.size();
+        long position = FILE_HEADER_BYTES;
+        ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        while (position + 4 <= size) {
+            length.clear();
+            channel.read(length, position);
+            long next = position + 4 + length.getInt(0);
+            if (length.getInt(0) < GameRecord.HEADER_BYTES || next > size) break;
+            position = next;
+        }
+        return position;
+    }
+
+    /** Ajoute une partie (sans garantie d'écriture sur disque avant flush ou close) */
+    public void append(GameRecord record) throws IOException {
+        byte[] bytes = record.toBytes(); // Hors verrou
+        synchronized (this) {
+            if (bytes.length > buffer.remaining()) flushBuffer();
+            if (bytes.length > buffer.capacity()) {
+                ByteBuffer big = ByteBuffer.wrap(bytes);
+                while (big.hasRemaining()) channel.write(big);
+            } else {
+                buffer.put(bytes);
+            }
+            records++;
+        }
+    }
+
+    /** @return le nombre de parties ajoutées par cet écrivain */
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    /** Écrit le tampon dans le fichier */
+    public synchronized void flush() throws IOException {
+        flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flushBuffer();
+        channel.force(false);
+        channel.close();
+    }
+}
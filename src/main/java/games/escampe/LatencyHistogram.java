@@ -0,0 +1,100 @@
+package games.escampe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de latences à seaux logarithmiques : chaque puissance de 2 est coupée en 4 seaux de même largeur,
+ * soit une largeur de 25 % à 14 % de leur borne basse selon le seau (une valeur est surestimée de 25 % au plus).
+ * L'enregistrement est sans verrou et peut se faire depuis plusieurs threads ; les percentiles rendus
+ * sont la borne haute du seau, donc légèrement pessimistes.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4; // Seaux par puissance de 2
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray stats = new AtomicLongArray(3); // total, somme, max (en ns)
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /** Enregistre une durée
+     * @param nanos la durée en nanosecondes (les valeurs négatives comptent pour 0)
+     */
+    public void record(long nanos) {
+        long v = Math.max(0L, nanos);
+        counts.incrementAndGet(bucketOf(v));
+        stats.incrementAndGet(0);
+        stats.addAndGet(1, v);
+        long max;
+        while (v > (max = stats.get(2)) && !stats.compareAndSet(2, max, v)) {
+            // Réessayer jusqu'à ce que le maximum soit à jour
+        }
+    }
+
+    /** Ajoute les mesures d'un autre histogramme à celui-ci */
+    public void addAll(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+        stats.addAndGet(0, other.stats.get(0));
+        stats.addAndGet(1, other.stats.get(1));
+        long max, otherMax = other.stats.get(2);
+        while (otherMax > (max = stats.get(2)) && !stats.compareAndSet(2, max, otherMax)) {
+            // Réessayer jusqu'à ce que le maximum soit à jour
+        }
+    }
+
+    /** @return la latence sous laquelle se trouvent p % des mesures (borne haute du seau), en ns */
+    public long percentile(double p) {
+        long total = stats.get(0);
+        if (total == 0) return 0L;
+        long threshold = (long) Math.ceil(total * p / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(threshold, 1)) return Math.min(upperBound(i), stats.get(2));
+        }
+        return stats.get(2);
+    }
+
+    public long getCount() { return stats.get(0); }
+    public long getMax() { return stats.get(2); }
+    public long getMean() {
+        long total = stats.get(0);
+        return total == 0 ? 0L : stats.get(1) / total;
+    }
+
+    /** Résumé sur une ligne : nombre, moyenne, p50, p99, max en millisecondes */
+    @Override
+    public String toString() {
+        return String.format("%-12s n=%-5d moy=%8.2f ms  p50=%8.2f ms  p99=%8.2f ms  max=%8.2f ms",
+                name, getCount(), toMillis(getMean()), toMillis(percentile(50)), toMillis(percentile(99)), toMillis(getMax()));
+    }
+
+    // --------------------- Seaux ---------------------
+
+    private static int bucketOf(long v) {
+        if (v < SUB_BUCKETS) return (int) v; // Valeurs minuscules : un seau par valeur
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponent - 2)) & (SUB_BUCKETS - 1); // Deux bits sous le bit de poids fort
+        return (exponent - 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + 1;
+        if (exponent >= 62) return Long.MAX_VALUE;
+        int sub = bucket % SUB_BUCKETS;
+        long step = 1L << (exponent - 2);
+        return (1L << exponent) + (sub + 1) * step - 1;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,382 @@
+package games.escampe;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arbitre local qui remplace le serveur de tournoi : il héberge autant de parties simultanées que
+ * de paires de clients connectés, avec le protocole de ClientJeu :
+ *   client -> arbitre : nom du binôme, puis un coup par ligne quand c'est son tour
+ *   arbitre -> client : "Noir" ou "Blanc", "JOUEUR <couleur>" (aux deux), "MOUVEMENT <coup>" (à l'adversaire),
+ *                       "FIN! <Blanc|Noir|egalite>"
+ *
+ * Les clients sont appariés dans leur ordre d'arrivée (le premier joue Noir). L'arbitre vérifie chaque coup
+ * avec EscampeBoard.isValidMove et décompte une pendule par joueur : un coup illégal, un dépassement de temps
+ * ou une déconnexion font perdre la partie. Au-delà de MAX_PLIES coups la partie est nulle.
+ *
+ * Tout tourne sur un seul thread (Selector) : chaque partie n'est qu'un petit automate, ce qui permet
+ * d'en faire tourner des centaines sur une machine.
+ *
+ * Exemple: >java -cp . games.escampe.LocalArbiter 1234 300 100
+ */
+public class LocalArbiter {
+
+    private static final int DEFAULT_CLOCK_SECONDS = 300; // Temps total de réflexion par joueur
+    private static final int MAX_PLIES = 400; // Nombre maximal de coups avant match nul
+    private static final long SELECT_INTERVAL_MS = 100; // Période de vérification des pendules
+
+    private final Selector selector;
+    private final long clockNanos;
+    private final int maxMatches; // 0 = sans limite
+    private final ArrayList<Match> matches = new ArrayList<>();
+    private Connection waiting = null; // Client connecté en attente d'un adversaire
+
+    // Statistiques
+    private int matchesStarted = 0;
+    private int matchesFinished = 0;
+    private int whiteWins = 0, blackWins = 0, draws = 0;
+    private final long startTime = System.currentTimeMillis();
+
+    private LocalArbiter(int port, int clockSeconds, int maxMatches) throws IOException {
+        this.selector = Selector.open();
+        this.clockNanos = TimeUnit.SECONDS.toNanos(clockSeconds);
+        this.maxMatches = maxMatches;
+
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(new InetSocketAddress(port), 1024);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * @param args
+     *            Dans l'ordre : PortEcoute [SecondesParJoueur] [NombreParties]
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("LocalArbiter Usage: PortEcoute [SecondesParJoueur] [NombreParties]");
+            System.exit(1);
+        }
+        int port = Integer.parseInt(args[0]);
+        int clockSeconds = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_CLOCK_SECONDS;
+        int maxMatches = (args.length > 2) ? Integer.parseInt(args[2]) : 0;
+
+        try {
+            System.out.println("Arbitre local en écoute sur le port " + port + " (" + clockSeconds + " s par joueur"
+                             + (maxMatches > 0 ? ", " + maxMatches + " parties" : "") + ")");
+            new LocalArbiter(port, clockSeconds, maxMatches).run();
+        } catch (IOException e) {
+            System.out.println(e);
+        }
+    }
+
+    // --------------------- Boucle réseau ---------------------
+
+    private void run() throws IOException {
+        while (maxMatches == 0 || matchesFinished < maxMatches) {
+            selector.select(SELECT_INTERVAL_MS);
+
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                if (!key.isValid()) continue;
+
+                if (key.isAcceptable()) {
+                    accept((ServerSocketChannel) key.channel());
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                try {
+                    if (key.isValid() && key.isReadable()) connection.onReadable();
+                    if (key.isValid() && key.isWritable()) connection.flush();
+                } catch (IOException e) {
+                    connection.onDisconnected();
+                }
+            }
+
+            long now = System.nanoTime();
+            for (int i = matches.size() - 1; i >= 0; i--) {
+                Match match = matches.get(i);
+                match.checkClock(now);
+                if (match.finished) matches.remove(i);
+            }
+        }
+        printSummary();
+        selector.close();
+    }
+
+    private void accept(ServerSocketChannel server) throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    /** Un client a envoyé son nom : on l'apparie avec le client en attente, s'il y en a un */
+    private void onNamed(Connection connection) {
+        if (maxMatches > 0 && matchesStarted >= maxMatches) {
+            connection.close();
+            return;
+        }
+        if (waiting == null || waiting.closed) {
+            waiting = connection;
+            return;
+        }
+        Match match = new Match(++matchesStarted, waiting, connection);
+        waiting = null;
+        matches.add(match);
+        match.start();
+    }
+
+    private void onMatchFinished(Match match, String winner) {
+        matchesFinished++;
+        if (winner.equals("Blanc")) whiteWins++;
+        else if (winner.equals("Noir")) blackWins++;
+        else draws++;
+
+        long seconds = Math.max(1, (System.currentTimeMillis() - startTime) / 1000);
+        System.out.println("Partie " + match.id + " : " + match.black.name + " (Noir) contre " + match.white.name
+                         + " (Blanc) -> " + winner + " en " + match.plies + " coups" + (match.reason != null ? " (" + match.reason + ")" : "")
+                         + " | terminées " + matchesFinished + ", en cours " + (matches.size() - 1)
+                         + ", " + String.format("%.1f", matchesFinished * 60.0 / seconds) + " parties/min");
+    }
+
+    private void printSummary() {
+        System.out.println("=== " + matchesFinished + " parties : Noir " + blackWins + ", Blanc " + whiteWins
+                         + ", nulles " + draws + " en " + OpeningGenerator.formatTime(System.currentTimeMillis() - startTime) + " ===");
+    }
+
+    // --------------------- Une connexion ---------------------
+
+    private final class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        String name = null;
+        Match match = null;
+        boolean closed = false;
+
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(1024);
+        private final StringBuilder line = new StringBuilder();
+        private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        private boolean closeAfterFlush = false;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void onReadable() throws IOException {
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                onDisconnected();
+                return;
+            }
+            readBuffer.flip();
+            while (readBuffer.hasRemaining() && !closed) {
+                char c = (char) (readBuffer.get() & 0xFF);
+                if (c == '\n') {
+                    String msg = line.toString().trim();
+                    line.setLength(0);
+                    if (!msg.isEmpty()) onLine(msg);
+                } else if (c != '\r' && c != '\0') {
+                    line.append(c);
+                }
+            }
+            readBuffer.clear();
+        }
+
+        private void onLine(String msg) {
+            if (name == null) {
+                name = msg;
+                onNamed(this);
+            } else if (match != null) {
+                match.onMove(this, msg);
+            }
+        }
+
+        void send(String msg) {
+            if (closed) return;
+            out.add(ByteBuffer.wrap((msg + "\n").getBytes(StandardCharsets.ISO_8859_1)));
+            try {
+                flush();
+            } catch (IOException e) {
+                onDisconnected();
+            }
+        }
+
+        void flush() throws IOException {
+            while (!out.isEmpty()) {
+                ByteBuffer head = out.peek();
+                channel.write(head);
+                if (head.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                out.poll();
+            }
+            if (closeAfterFlush) {
+                close();
+            } else if (key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        void closeWhenFlushed() {
+            closeAfterFlush = true;
+            try {
+                flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void onDisconnected() {
+            if (closed) return;
+            close();
+            if (match != null) match.onDisconnected(this);
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Fermeture au mieux
+            }
+        }
+    }
+
+    // --------------------- Une partie ---------------------
+
+    private final class Match {
+        final int id;
+        final Connection black;
+        final Connection white;
+
+        private final EscampeBoard board = new EscampeBoard();
+        private EscampeRole toMove = EscampeRole.BLACK; // Les Noirs placent en premier
+        private long blackClock = clockNanos, whiteClock = clockNanos;
+        private long turnStart;
+        int plies = 0;
+        boolean finished = false;
+        String reason = null;
+
+        Match(int id, Connection black, Connection white) {
+            this.id = id;
+            this.black = black;
+            this.white = white;
+            black.match = this;
+            white.match = this;
+        }
+
+        void start() {
+            board.clearBoard();
+            black.send("Noir");
+            white.send("Blanc");
+            requestMove();
+        }
+
+        private void requestMove() {
+            String colour = colourOf(toMove);
+            black.send("JOUEUR " + colour);
+            white.send("JOUEUR " + colour);
+            turnStart = System.nanoTime();
+        }
+
+        void onMove(Connection from, String msg) {
+            if (finished) return;
+            EscampeRole role = (from == black) ? EscampeRole.BLACK : EscampeRole.WHITE;
+            if (role != toMove) {
+                finish(opponentOf(role), "coup joué hors de son tour : " + msg);
+                return;
+            }
+
+            // Décompte de la pendule
+            long elapsed = System.nanoTime() - turnStart;
+            if (role == EscampeRole.BLACK) blackClock -= elapsed; else whiteClock -= elapsed;
+            if ((role == EscampeRole.BLACK ? blackClock : whiteClock) < 0) {
+                finish(opponentOf(role), "temps dépassé");
+                return;
+            }
+
+            // Vérification du coup
+            String coup = msg.split(" ")[0];
+            EscampeMove move;
+            try {
+                move = new EscampeMove(coup);
+            } catch (IllegalArgumentException e) {
+                finish(opponentOf(role), "coup illisible : " + coup);
+                return;
+            }
+            if (!board.isValidMove(move, role)) {
+                finish(opponentOf(role), "coup illégal : " + coup);
+                return;
+            }
+
+            board.playVoid(move, role);
+            plies++;
+            (role == EscampeRole.BLACK ? white : black).send("MOUVEMENT " + coup);
+
+            if (board.isGameOver()) {
+                finish(board.getBlackUnicorn() == 0L ? EscampeRole.WHITE : EscampeRole.BLACK, null);
+                return;
+            }
+            if (plies >= MAX_PLIES) {
+                finish(null, "limite de " + MAX_PLIES + " coups");
+                return;
+            }
+
+            // Après son placement, le Blanc rejoue : il fait le premier déplacement
+            if (plies != 2) toMove = opponentOf(role);
+            requestMove();
+        }
+
+        /** Fait perdre au temps le joueur au trait si sa pendule est écoulée */
+        void checkClock(long now) {
+            if (finished) return;
+            long remaining = (toMove == EscampeRole.BLACK ? blackClock : whiteClock) - (now - turnStart);
+            if (remaining < 0) finish(opponentOf(toMove), "temps dépassé");
+        }
+
+        void onDisconnected(Connection from) {
+            if (finished) return;
+            finish(from == black ? EscampeRole.WHITE : EscampeRole.BLACK, "déconnexion de " + from.name);
+        }
+
+        /** Termine la partie
+         * @param winner le gagnant, ou null pour une partie nulle
+         * @param why raison de la fin de partie (null pour une fin normale)
+         */
+        private void finish(EscampeRole winner, String why) {
+            finished = true;
+            reason = why;
+            String result = (winner == null) ? "egalite" : colourOf(winner);
+            black.send("FIN! " + result);
+            white.send("FIN! " + result);
+            black.closeWhenFlushed();
+            white.closeWhenFlushed();
+            onMatchFinished(this, result);
+        }
+
+        private String colourOf(EscampeRole role) {
+            return (role == EscampeRole.WHITE) ? "Blanc" : "Noir";
+        }
+
+        private EscampeRole opponentOf(EscampeRole role) {
+            return (role == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        }
+    }
+}
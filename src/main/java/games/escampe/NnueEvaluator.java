@@ -0,0 +1,103 @@
+package games.escampe;
+
+import iialib.games.algs.IHeuristic;
+
+/**
+ * Heuristique apprise : évaluation d'une position par un NnueNetwork, avec un accumulateur incrémental.
+ *
+ * L'évaluateur garde l'accumulateur de la dernière position évaluée et les bitboards correspondants.
+ * Pour une nouvelle position, il ne retire et n'ajoute que les entrées qui ont changé (pièces déplacées
+ * ou prises, contrainte, trait) : dans une recherche, deux feuilles successives ne diffèrent que des quelques
+ * coups joués et annulés entre elles, donc de quelques colonnes de la première couche. L'accumulateur suit
+ * ainsi chaque coup et chaque annulation sans que la recherche ait à le prévenir, et l'évaluateur se branche
+ * comme n'importe quelle IHeuristic. Au-delà de REFRESH_THRESHOLD changements, il est recalculé entièrement.
+ *
+ * Les positions terminales gardent les valeurs de EscampeHeuristics (VICTORY / DEFEAT).
+ * Non thread-safe : un évaluateur par moteur (le réseau, lui, est partagé).
+ */
+public final class NnueEvaluator implements IHeuristic<EscampeBoard, EscampeRole> {
+
+    private static final int REFRESH_THRESHOLD = 12; // Au-delà, recalculer coûte moins que les mises à jour
+
+    private final NnueNetwork network;
+    private final short[] accumulator;
+    private final int[] inputs = new int[NnueNetwork.INPUTS];
+
+    // Position dont l'accumulateur est la première couche
+    private boolean valid = false;
+    private long whiteUnicorn, whitePaladins, blackUnicorn, blackPaladins;
+    private int constraint;
+    private boolean whiteTurn;
+
+    public NnueEvaluator(NnueNetwork network) {
+        this.network = network;
+        this.accumulator = new short[network.hidden];
+    }
+
+    @Override
+    public int eval(EscampeBoard board, EscampeRole role) {
+        return evaluate(board, role);
+    }
+
+    /** Évaluation du point de vue de role (appel direct, utilisé par EscampeSearch) */
+    int evaluate(EscampeBoard board, EscampeRole role) {
+        boolean isWhite = (role == EscampeRole.WHITE);
+        if ((isWhite ? board.getWhiteUnicorn() : board.getBlackUnicorn()) == 0) return EscampeHeuristics.DEFEAT;
+        if ((isWhite ? board.getBlackUnicorn() : board.getWhiteUnicorn()) == 0) return EscampeHeuristics.VICTORY;
+
+        update(board);
+        int value = NnueNetwork.toEval(network.output(accumulator));
+        return isWhite ? value : -value;
+    }
+
+    /** Amène l'accumulateur à la position board */
+    private void update(EscampeBoard board) {
+        long wu = board.getWhiteUnicorn(), wp = board.getWhitePaladins();
+        long bu = board.getBlackUnicorn(), bp = board.getBlackPaladins();
+        int c = board.getNextMoveConstraint();
+        boolean wt = (board.getCurrentTurn() == EscampeRole.WHITE);
+
+        if (valid) {
+            int changes = Long.bitCount(wu ^ whiteUnicorn) + Long.bitCount(wp ^ whitePaladins)
+                        + Long.bitCount(bu ^ blackUnicorn) + Long.bitCount(bp ^ blackPaladins)
+                        + (c != constraint ? 2 : 0) + (wt != whiteTurn ? 1 : 0);
+            if (changes <= REFRESH_THRESHOLD) {
+                apply(NnueNetwork.WHITE_UNICORN, whiteUnicorn, wu);
+                apply(NnueNetwork.WHITE_PALADIN, whitePaladins, wp);
+                apply(NnueNetwork.BLACK_UNICORN, blackUnicorn, bu);
+                apply(NnueNetwork.BLACK_PALADIN, blackPaladins, bp);
+                if (c != constraint) {
+                    network.sub(accumulator, NnueNetwork.CONSTRAINT_INPUT + constraint);
+                    network.add(accumulator, NnueNetwork.CONSTRAINT_INPUT + c);
+                }
+                if (wt != whiteTurn) {
+                    if (wt) network.add(accumulator, NnueNetwork.WHITE_TURN_INPUT);
+                    else network.sub(accumulator, NnueNetwork.WHITE_TURN_INPUT);
+                }
+                remember(wu, wp, bu, bp, c, wt);
+                return;
+            }
+        }
+        network.refresh(accumulator, inputs, NnueNetwork.activeInputs(board, inputs));
+        remember(wu, wp, bu, bp, c, wt);
+        valid = true;
+    }
+
+    /** Retire les pièces disparues de from et ajoute celles apparues dans to */
+    private void apply(int type, long from, long to) {
+        int base = type * 36;
+        for (long removed = from & ~to; removed != 0; removed &= removed - 1)
+            network.sub(accumulator, base + Long.numberOfTrailingZeros(removed));
+        for (long added = to & ~from; added != 0; added &= added - 1)
+            network.add(accumulator, base + Long.numberOfTrailingZeros(added));
+    }
+
+    private void remember(long wu, long wp, long bu, long bp, int c, boolean wt) {
+        whiteUnicorn = wu;
+        whitePaladins = wp;
+        blackUnicorn = bu;
+        blackPaladins = bp;
+        constraint = c;
+        whiteTurn = wt;
+    }
+}
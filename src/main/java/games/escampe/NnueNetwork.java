@@ -0,0 +1,179 @@
+package games.escampe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Réseau d'évaluation de type NNUE pour Escampe, avec des poids quantifiés (immuable, partageable entre threads).
+ *
+ * Entrées (INPUTS = 149, toutes binaires) : une par pièce et par case (36 cases x 4 types de pièces :
+ * licorne blanche, paladins blancs, licorne noire, paladins noirs), une par contrainte de liseré (0 à 3)
+ * et une pour le trait aux Blancs. Une position n'active que 14 entrées.
+ *
+ * Couche cachée : accumulateur int16 = b1 + somme des colonnes de w1 des entrées actives, puis ReLU
+ * bornée à [0, QA]. Sortie : somme des activations multipliées par w2 (int8), plus b2, du point de vue
+ * Blanc. Avec les facteurs QA et QB, la sortie du réseau flottant est sortie entière / (QA * QB) ;
+ * NnueTrainer l'entraîne pour que sigmoid(sortie) prédise le résultat de la partie.
+ *
+ * Format du fichier (little endian) : MAGIC, version, INPUTS, taille cachée, w1 (int16, entrée par entrée),
+ * b1 (int16), w2 (int8), b2 (int32).
+ */
+public final class NnueNetwork {
+
+    public static final String NNUE_FILE = ".\\data\\nnue.bin";
+
+    public static final int INPUTS = 4 * 36 + 4 + 1;
+    static final int CONSTRAINT_INPUT = 4 * 36; // + contrainte (0 à 3)
+    static final int WHITE_TURN_INPUT = 4 * 36 + 4;
+
+    // Types de pièces : l'entrée d'une pièce est type * 36 + case
+    static final int WHITE_UNICORN = 0;
+    static final int WHITE_PALADIN = 1;
+    static final int BLACK_UNICORN = 2;
+    static final int BLACK_PALADIN = 3;
+
+    static final int QA = 255; // Échelle de la couche cachée : activation 1.0 = QA
+    static final int QB = 64;  // Échelle des poids de sortie : poids 1.0 = QB
+
+    /** Évaluation entière = sortie flottante * EVAL_SCALE, du même ordre que les scores de EscampeHeuristics */
+    public static final int EVAL_SCALE = 1000;
+
+    private static final int MAGIC = 0x55_4E_4E_45; // "ENNU"
+    private static final int VERSION = 1;
+
+    final int hidden;
+    final short[] w1; // [INPUTS][hidden]
+    final short[] b1;
+    final byte[] w2;
+    final int b2;
+
+    NnueNetwork(int hidden, short[] w1, short[] b1, byte[] w2, int b2) {
+        if (w1.length != INPUTS * hidden || b1.length != hidden || w2.length != hidden)
+            throw new IllegalArgumentException("Dimensions du réseau incohérentes");
+        this.hidden = hidden;
+        this.w1 = w1;
+        this.b1 = b1;
+        this.w2 = w2;
+        this.b2 = b2;
+    }
+
+    public int getHidden() {
+        return hidden;
+    }
+
+    // --------------------- Entrées ---------------------
+
+    /** Écrit les entrées actives de la position dans inputs
+     * @return leur nombre
+     */
+    static int activeInputs(EscampeBoard board, int[] inputs) {
+        int n = 0;
+        n = addPieces(inputs, n, WHITE_UNICORN, board.getWhiteUnicorn());
+        n = addPieces(inputs, n, WHITE_PALADIN, board.getWhitePaladins());
+        n = addPieces(inputs, n, BLACK_UNICORN, board.getBlackUnicorn());
+        n = addPieces(inputs, n, BLACK_PALADIN, board.getBlackPaladins());
+        inputs[n++] = CONSTRAINT_INPUT + board.getNextMoveConstraint();
+        if (board.getCurrentTurn() == EscampeRole.WHITE) inputs[n++] = WHITE_TURN_INPUT;
+        return n;
+    }
+
+    private static int addPieces(int[] inputs, int n, int type, long pieces) {
+        while (pieces != 0) {
+            inputs[n++] = type * 36 + Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+        }
+        return n;
+    }
+
+    // --------------------- Inférence ---------------------
+
+    /** Accumulateur à partir de rien : b1 + colonnes des entrées actives */
+    void refresh(short[] accumulator, int[] inputs, int count) {
+        System.arraycopy(b1, 0, accumulator, 0, hidden);
+        for (int i = 0; i < count; i++) add(accumulator, inputs[i]);
+    }
+
+    void add(short[] accumulator, int input) {
+        int base = input * hidden;
+        for (int j = 0; j < hidden; j++) accumulator[j] += w1[base + j];
+    }
+
+    void sub(short[] accumulator, int input) {
+        int base = input * hidden;
+        for (int j = 0; j < hidden; j++) accumulator[j] -= w1[base + j];
+    }
+
+    /** @return la sortie entière du point de vue Blanc (échelle QA * QB) */
+    int output(short[] accumulator) {
+        int sum = b2;
+        for (int j = 0; j < hidden; j++) {
+            int a = accumulator[j];
+            if (a < 0) a = 0;
+            else if (a > QA) a = QA;
+            sum += a * w2[j];
+        }
+        return sum;
+    }
+
+    /** Sortie entière convertie à l'échelle EVAL_SCALE */
+    static int toEval(int output) {
+        return (int) ((long) output * EVAL_SCALE / (QA * QB));
+    }
+
+    // --------------------- Quantification ---------------------
+
+    /** Quantifie un réseau flottant (poids hors des bornes int16 / int8 écrêtés)
+     * @param w1 [INPUTS][hidden], à l'échelle 1.0 = activation maximale
+     */
+    static NnueNetwork quantize(int hidden, float[] w1, float[] b1, float[] w2, float b2) {
+        short[] qw1 = new short[w1.length];
+        for (int i = 0; i < w1.length; i++) qw1[i] = (short) clamp(Math.round(w1[i] * QA), Short.MIN_VALUE, Short.MAX_VALUE);
+        short[] qb1 = new short[hidden];
+        byte[] qw2 = new byte[hidden];
+        for (int j = 0; j < hidden; j++) {
+            qb1[j] = (short) clamp(Math.round(b1[j] * QA), Short.MIN_VALUE, Short.MAX_VALUE);
+            qw2[j] = (byte) clamp(Math.round(w2[j] * QB), Byte.MIN_VALUE, Byte.MAX_VALUE);
+        }
+        return new NnueNetwork(hidden, qw1, qb1, qw2, Math.round(b2 * QA * QB));
+    }
+
+    private static int clamp(int v, int lo, int hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+
+    // --------------------- Fichier ---------------------
+
+    public static NnueNetwork load(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.remaining() < 16 || buf.getInt() != MAGIC) throw new IOException("Pas un réseau NNUE Escampe : " + file);
+        int version = buf.getInt();
+        if (version != VERSION) throw new IOException("Version de réseau non gérée : " + version);
+        int inputs = buf.getInt();
+        int hidden = buf.getInt();
+        if (inputs != INPUTS || hidden <= 0 || buf.remaining() != 2 * INPUTS * hidden + 2 * hidden + hidden + 4)
+            throw new IOException("Réseau NNUE tronqué ou incompatible : " + file);
+
+        short[] w1 = new short[INPUTS * hidden];
+        buf.asShortBuffer().get(w1);
+        buf.position(buf.position() + 2 * w1.length);
+        short[] b1 = new short[hidden];
+        buf.asShortBuffer().get(b1);
+        buf.position(buf.position() + 2 * hidden);
+        byte[] w2 = new byte[hidden];
+        buf.get(w2);
+        return new NnueNetwork(hidden, w1, b1, w2, buf.getInt());
+    }
+
+    public void save(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(16 + 2 * w1.length + 2 * hidden + hidden + 4).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(INPUTS).putInt(hidden);
+        for (short w : w1) buf.putShort(w);
+        for (short b : b1) buf.putShort(b);
+        buf.put(w2);
+        buf.putInt(b2);
+        AtomicFiles.writeAtomically(file, buf.array());
+    }
+}
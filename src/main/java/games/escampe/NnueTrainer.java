@@ -0,0 +1,271 @@
+package games.escampe;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Entraînement hors ligne d'un NnueNetwork sur CPU, à partir d'un fichier de parties binaire
+ * (SelfPlayRunner --records).
+ *
+ * Chaque position non terminale des parties rejouées devient un exemple : ses entrées actives et le résultat
+ * de la partie du point de vue Blanc (1 = victoire Blanche, 0.5 = nulle, 0 = victoire Noire). Comme pour
+ * TexelTuner, on minimise l'erreur quadratique entre sigmoid(sortie) et ce résultat. L'optimisation est
+ * une descente de gradient par mini-lots avec Adam sur le réseau flottant ; une partie sur VALIDATION_STRIDE
+ * est gardée de côté pour mesurer l'erreur de validation. Le réseau est ensuite quantifié (int16 / int8)
+ * et l'erreur de validation recalculée avec le réseau quantifié, tel que NnueEvaluator l'utilisera.
+ *
+ * Exemple: >java -cp . games.escampe.NnueTrainer --records parties.bin --out .\data\nnue.bin --epochs 20
+ */
+public class NnueTrainer {
+
+    private static final int MAX_ACTIVE = 16;        // Entrées actives par position (14 au plus)
+    private static final int VALIDATION_STRIDE = 20; // Une partie sur 20 sert à la validation
+    private static final float WEIGHT_LIMIT = 8f;    // |w1|, |b1| : l'accumulateur int16 ne doit pas déborder
+    private static final float OUTPUT_LIMIT = (float) Byte.MAX_VALUE / NnueNetwork.QB; // |w2| : tient en int8
+
+    private static final float BETA1 = 0.9f, BETA2 = 0.999f, EPSILON = 1e-8f;
+
+    private final int hidden;
+
+    // Exemples : MAX_ACTIVE entrées (-1 au-delà des actives), la cible, et la partie de validation ou non
+    private int[] inputs = new int[1024 * MAX_ACTIVE];
+    private float[] targets = new float[1024];
+    private boolean[] validation = new boolean[1024];
+    private int size = 0;
+
+    // Réseau flottant et moments d'Adam (un tableau par paramètre, dans l'ordre w1, b1, w2, b2)
+    private final float[][] params;
+    private final float[][] grads;
+    private final float[][] m;
+    private final float[][] v;
+    private int step = 0;
+
+    public static void main(String[] args) throws IOException {
+        String recordsFile = null;
+        String outFile = NnueNetwork.NNUE_FILE;
+        int hidden = 64;
+        int epochs = 20;
+        int batch = 256;
+        float learningRate = 1e-3f;
+        int maxPositions = Integer.MAX_VALUE;
+        long seed = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--records": recordsFile = args[++i]; break;
+                case "--out": outFile = args[++i]; break;
+                case "--hidden": hidden = Integer.parseInt(args[++i]); break;
+                case "--epochs": epochs = Integer.parseInt(args[++i]); break;
+                case "--batch": batch = Integer.parseInt(args[++i]); break;
+                case "--lr": learningRate = Float.parseFloat(args[++i]); break;
+                case "--max-positions": maxPositions = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                default: recordsFile = null; i = args.length;
+            }
+        }
+        if (recordsFile == null) {
+            System.err.println("NnueTrainer Usage: --records fichier [--out fichierReseau] [--hidden n] [--epochs n]"
+                             + " [--batch n] [--lr taux] [--max-positions n] [--seed s]");
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        NnueTrainer trainer = new NnueTrainer(hidden, seed);
+        trainer.loadRecords(recordsFile, maxPositions);
+        System.out.println(trainer.size + " exemples chargés en " + OpeningGenerator.formatTime(System.currentTimeMillis() - start));
+
+        Random random = new Random(seed);
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            double trainError = trainer.epoch(batch, learningRate, random);
+            System.out.println(String.format("Époque %d : erreur %.6f, validation %.6f (%s)", epoch, trainError,
+                    trainer.validationError(null), OpeningGenerator.formatTime(System.currentTimeMillis() - start)));
+        }
+
+        NnueNetwork network = trainer.quantize();
+        System.out.println(String.format("Réseau quantifié : validation %.6f", trainer.validationError(network)));
+        network.save(Paths.get(outFile));
+        System.out.println("Réseau écrit dans " + outFile + " en " + OpeningGenerator.formatTime(System.currentTimeMillis() - start));
+    }
+
+    NnueTrainer(int hidden, long seed) {
+        this.hidden = hidden;
+        int[] sizes = {NnueNetwork.INPUTS * hidden, hidden, hidden, 1};
+        params = new float[4][];
+        grads = new float[4][];
+        m = new float[4][];
+        v = new float[4][];
+        for (int p = 0; p < 4; p++) {
+            params[p] = new float[sizes[p]];
+            grads[p] = new float[sizes[p]];
+            m[p] = new float[sizes[p]];
+            v[p] = new float[sizes[p]];
+        }
+
+        // Initialisation aléatoire : environ 14 entrées actives par position
+        Random random = new Random(seed);
+        float scale1 = (float) (1 / Math.sqrt(14));
+        for (int i = 0; i < params[0].length; i++) params[0][i] = (float) random.nextGaussian() * scale1 * 0.5f;
+        for (int j = 0; j < hidden; j++) {
+            params[1][j] = 0.5f;
+            params[2][j] = (float) random.nextGaussian() / (float) Math.sqrt(hidden);
+        }
+    }
+
+    // --------------------- Chargement ---------------------
+
+    /** Rejoue les parties et garde les positions non terminales */
+    void loadRecords(String file, int maxPositions) throws IOException {
+        int[] active = new int[NnueNetwork.INPUTS];
+        try (GameRecordReader reader = new GameRecordReader(Paths.get(file))) {
+            GameRecord record;
+            int game = 0;
+            while (size < maxPositions && (record = reader.next()) != null) {
+                float target = (1 - record.result) / 2.0f; // result : 1 = Noir, -1 = Blanc
+                boolean isValidation = (game++ % VALIDATION_STRIDE == 0);
+                for (EscampeBoard board : record.positions()) {
+                    if (board.getWhiteUnicorn() == 0 || board.getBlackUnicorn() == 0) continue; // Terminale
+                    if (size == targets.length) {
+                        targets = Arrays.copyOf(targets, 2 * size);
+                        validation = Arrays.copyOf(validation, 2 * size);
+                        inputs = Arrays.copyOf(inputs, 2 * size * MAX_ACTIVE);
+                    }
+                    int n = NnueNetwork.activeInputs(board, active);
+                    Arrays.fill(inputs, size * MAX_ACTIVE, (size + 1) * MAX_ACTIVE, -1);
+                    System.arraycopy(active, 0, inputs, size * MAX_ACTIVE, n);
+                    targets[size] = target;
+                    validation[size] = isValidation;
+                    size++;
+                }
+            }
+        }
+    }
+
+    // --------------------- Entraînement ---------------------
+
+    /** Une passe sur les exemples d'entraînement, dans un ordre aléatoire
+     * @return l'erreur quadratique moyenne pendant la passe
+     */
+    double epoch(int batch, float learningRate, Random random) {
+        int[] order = new int[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) if (!validation[i]) order[n++] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+
+        float[] acc = new float[hidden];
+        double errorSum = 0;
+        for (int startIdx = 0; startIdx < n; startIdx += batch) {
+            int end = Math.min(n, startIdx + batch);
+            for (float[] g : grads) Arrays.fill(g, 0f);
+            for (int k = startIdx; k < end; k++) errorSum += backward(order[k], acc);
+            adam(learningRate, 1.0f / (end - startIdx));
+        }
+        return errorSum / Math.max(1, n);
+    }
+
+    /** Propagation avant et arrière d'un exemple, gradients ajoutés à grads
+     * @return l'erreur quadratique de l'exemple
+     */
+    private double backward(int sample, float[] acc) {
+        float[] w2 = params[2];
+        int base = sample * MAX_ACTIVE;
+        float out = forward(sample, acc);
+
+        float p = sigmoid(out);
+        float diff = p - targets[sample];
+        float dOut = 2 * diff * p * (1 - p);
+
+        float[] gw1 = grads[0], gb1 = grads[1], gw2 = grads[2];
+        grads[3][0] += dOut;
+        for (int j = 0; j < hidden; j++) {
+            gw2[j] += dOut * clamp01(acc[j]);
+            float dAcc = (acc[j] > 0 && acc[j] < 1) ? dOut * w2[j] : 0f;
+            if (dAcc == 0f) continue;
+            gb1[j] += dAcc;
+            for (int k = 0; k < MAX_ACTIVE && inputs[base + k] >= 0; k++) gw1[inputs[base + k] * hidden + j] += dAcc;
+        }
+        return diff * diff;
+    }
+
+    /** Pas d'Adam sur tous les paramètres, puis écrêtage aux bornes de la quantification */
+    private void adam(float learningRate, float gradScale) {
+        step++;
+        float correction1 = 1 - (float) Math.pow(BETA1, step);
+        float correction2 = 1 - (float) Math.pow(BETA2, step);
+        for (int p = 0; p < 4; p++) {
+            float[] w = params[p], g = grads[p], mp = m[p], vp = v[p];
+            float limit = (p == 2) ? OUTPUT_LIMIT : (p == 3) ? Float.MAX_VALUE : WEIGHT_LIMIT;
+            for (int i = 0; i < w.length; i++) {
+                float gi = g[i] * gradScale;
+                mp[i] = BETA1 * mp[i] + (1 - BETA1) * gi;
+                vp[i] = BETA2 * vp[i] + (1 - BETA2) * gi * gi;
+                float update = learningRate * (mp[i] / correction1) / ((float) Math.sqrt(vp[i] / correction2) + EPSILON);
+                w[i] = Math.max(-limit, Math.min(limit, w[i] - update));
+            }
+        }
+    }
+
+    // --------------------- Évaluation ---------------------
+
+    /** Erreur quadratique moyenne sur les exemples de validation
+     * @param network le réseau quantifié à mesurer, ou null pour le réseau flottant
+     */
+    double validationError(NnueNetwork network) {
+        float[] acc = new float[hidden];
+        short[] accumulator = (network != null) ? new short[network.hidden] : null;
+        int[] active = new int[MAX_ACTIVE];
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!validation[i]) continue;
+            float out;
+            if (network != null) {
+                int n = 0;
+                while (n < MAX_ACTIVE && inputs[i * MAX_ACTIVE + n] >= 0) {
+                    active[n] = inputs[i * MAX_ACTIVE + n];
+                    n++;
+                }
+                network.refresh(accumulator, active, n);
+                out = network.output(accumulator) / (float) (NnueNetwork.QA * NnueNetwork.QB);
+            } else {
+                out = forward(i, acc);
+            }
+            float diff = sigmoid(out) - targets[i];
+            sum += diff * diff;
+            count++;
+        }
+        return sum / Math.max(1, count);
+    }
+
+    /** Sortie du réseau flottant, activations de la couche cachée (avant ReLU) dans acc */
+    private float forward(int sample, float[] acc) {
+        float[] w1 = params[0], w2 = params[2];
+        int base = sample * MAX_ACTIVE;
+        System.arraycopy(params[1], 0, acc, 0, hidden);
+        for (int k = 0; k < MAX_ACTIVE && inputs[base + k] >= 0; k++) {
+            int row = inputs[base + k] * hidden;
+            for (int j = 0; j < hidden; j++) acc[j] += w1[row + j];
+        }
+        float out = params[3][0];
+        for (int j = 0; j < hidden; j++) out += clamp01(acc[j]) * w2[j];
+        return out;
+    }
+
+    NnueNetwork quantize() {
+        return NnueNetwork.quantize(hidden, params[0], params[1], params[2], params[3][0]);
+    }
+
+    private static float clamp01(float x) {
+        return (x < 0) ? 0 : (x > 1) ? 1 : x;
+    }
+
+    private static float sigmoid(float x) {
+        return (float) (1 / (1 + Math.exp(-x)));
+    }
+}
@@ -1,21 +1,28 @@
 package games.escampe;
 
-import iialib.games.algs.AIPlayer;
-import iialib.games.algs.algorithms.AlphaBeta;
-
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.*;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Générateur d'ouvertures pour le jeu Escampe.
  * Ce programme calcule les meilleures ouvertures pour les Noirs (premier joueur)
  * en utilisant AlphaBeta, puis calcule les meilleures réponses Blanches.
+ * Les positions sont cherchées par lots sur un SearchService (workers et table de transposition partagés).
  */
 public class OpeningGenerator {
 
@@ -29,219 +36,315 @@ public class OpeningGenerator {
     private static final int TOP_N_OPENINGS = 5; // Nombre d'ouvertures Noires à calculer
     private static final int TOP_WHITE_RESPONSES = 2; // Nombre de réponses Blanches à calculer par ouverture Noire
     private static final int WHITE_SAMPLE_SIZE = 200; // Nombre de placements blancs à échantillonner
+    private static final long PUBLISH_INTERVAL_MS = 30_000; // Intervalle de fusion des shards et de publication du livre partiel
+    private static final int MAX_SHARD_RESTARTS = 3; // Nombre de relances d'un worker avant abandon
+    private static final int MATRIX_FORCE_INTERVAL = 50; // Nombre de lignes de la matrice entre deux écritures forcées sur disque
+    private static final int TT_SIZE_MB = 128; // Table de transposition partagée par les workers du SearchService
+
+    // Un worker par thread du pool commun (réduit à la part du shard dans un processus worker)
+    private final SearchService searchService =
+            new SearchService(ForkJoinPool.getCommonPoolParallelism(), TranspositionTable.inMemory(TT_SIZE_MB),
+                              null, null, false);
 
     public static void main(String[] args) {
+        OpeningGenerator generator = new OpeningGenerator();
+
+        // Mode worker : ce processus n'évalue qu'un shard puis s'arrête
+        if (args.length == 3 && args[0].equals("--shard")) {
+            generator.runShard(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+
+        // Mode matrice : "--matrix [profondeur]" évalue toutes les paires de placements puis en déduit le livre
+        if (args.length >= 1 && args[0].equals("--matrix")) {
+            int depth = (args.length >= 2) ? Integer.parseInt(args[1]) : QUICK_FILTER_DEPTH;
+            generator.generateOpeningsFromMatrix(depth);
+            return;
+        }
+
+        // Mode coordinateur : "--shards n" lance n processus workers locaux (1 par défaut, dans ce processus)
+        int numShards = 1;
+        if (args.length == 2 && args[0].equals("--shards")) {
+            numShards = Integer.parseInt(args[1]);
+        }
+
         System.out.println("=== Générateur d'Ouvertures Escampe (Parallélisé) ===");
-        System.out.println("Nombre de threads : " + NUM_THREADS + " (cœurs CPU disponibles)\n");
+        System.out.println("Nombre de threads : " + NUM_THREADS + " (cœurs CPU disponibles)");
+        System.out.println("Nombre de shards : " + numShards + "\n");
 
-        OpeningGenerator generator = new OpeningGenerator();
-        generator.generateOpenings();
+        generator.generateOpenings(numShards);
 
         System.out.println("\n=== Génération terminée ===");
         System.out.println("Les ouvertures ont été sauvegardées dans : " + OPENINGS_FILE);
     }
 
     /**
-     * Génère les ouvertures et les sauvegarde dans le fichier openings.txt
+     * Génère les ouvertures et les sauvegarde dans le fichier openings.txt.
+     * Le livre est republié (atomiquement) à chaque étape : après chaque checkpoint de la phase 1,
+     * après la phase 2, puis après chaque ouverture Noire dont les réponses Blanches sont calculées.
+     * Les étapes déjà terminées sont reprises depuis les checkpoints de SHARD_DIR.
+     *
+     * @param numShards nombre de shards de la phase 1 (1 = dans ce processus, sinon un processus par shard)
      */
-    public void generateOpenings() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(OPENINGS_FILE))) {
-            writer.write("% Fichier d'ouvertures pour le jeu Escampe\n");
-            writer.write("% Généré automatiquement par OpeningGenerator avec AlphaBeta\n");
-            writer.write("% Format: BLACK:placement ou WHITE:placementNoir:réponse\n");
-            writer.write("% Profondeur AlphaBeta: " + FINAL_DEPTH + " (filtrage: " + QUICK_FILTER_DEPTH + ")\n");
-            writer.write("%\n\n");
-
+    public void generateOpenings(int numShards) {
+        try {
             // 1. Calculer les TOP_N meilleures ouvertures pour les Noirs (avec recherche exhaustive)
             System.out.println("Calcul des " + TOP_N_OPENINGS + " meilleures ouvertures NOIRES...");
             System.out.println("  Phase 1: Filtrage rapide à profondeur " + QUICK_FILTER_DEPTH);
             System.out.println("  Phase 2: Évaluation finale à profondeur " + FINAL_DEPTH);
-            ArrayList<String> topBlackOpenings = findTopBlackOpenings();
-
-            writer.write("% ====================================\n");
-            writer.write("% Meilleures ouvertures pour les Noirs (premier joueur)\n");
-            writer.write("% ====================================\n\n");
-
-            for (String opening : topBlackOpenings) {
-                writer.write("BLACK:" + opening + "\n");
-            }
+            ArrayList<String> topBlackOpenings = findTopBlackOpenings(numShards);
             System.out.println("\n✓ " + topBlackOpenings.size() + " meilleures ouvertures Noires calculées");
 
             // 2. Calculer les meilleures réponses Blanches pour chaque ouverture Noire
             System.out.println("\nCalcul des meilleures réponses BLANCHES (profondeur " + FINAL_DEPTH + ")...");
-            writer.write("\n% ====================================\n");
-            writer.write("% Meilleures réponses Blanches\n");
-            writer.write("% ====================================\n\n");
+            Path whiteCheckpoint = Paths.get(OpeningShard.SHARD_DIR, "white-responses.txt");
+            Map<String, ArrayList<String>> whiteResponses = readWhiteResponses(whiteCheckpoint);
+            whiteResponses.keySet().retainAll(topBlackOpenings);
+            publishBook(topBlackOpenings, whiteResponses, "réponses Blanches en cours");
 
             int totalResponses = 0;
             for (String blackOpening : topBlackOpenings) {
-                ArrayList<String> whiteResponses = findBestWhiteResponses(blackOpening);
-
-                for (String whiteResponse : whiteResponses) {
-                    writer.write("WHITE:" + blackOpening + ":" + whiteResponse + "\n");
-                    totalResponses++;
+                ArrayList<String> responses = whiteResponses.get(blackOpening);
+                if (responses == null) {
+                    responses = findBestWhiteResponses(blackOpening);
+                    whiteResponses.put(blackOpening, responses);
+                    writeWhiteResponses(whiteCheckpoint, whiteResponses);
+                    publishBook(topBlackOpenings, whiteResponses, "réponses Blanches en cours");
+                } else {
+                    System.out.println("\n  Réponses Blanches déjà calculées pour: " + blackOpening);
                 }
+                totalResponses += responses.size();
             }
+            publishBook(topBlackOpenings, whiteResponses, null);
             System.out.println("✓ " + totalResponses + " réponses Blanches calculées");
 
+            deleteCheckpoints(numShards);
+
         } catch (IOException e) {
             System.err.println("Erreur lors de l'écriture du fichier : " + e.getMessage());
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Génération interrompue, elle reprendra depuis les checkpoints.");
         }
     }
 
     /**
-     * Génère tous les placements initiaux possibles pour un joueur.
-     * Un placement initial consiste en 6 pions (1 licorne + 5 paladins) sur les deux premières lignes.
-     * Pour les Noirs : lignes 0 et 1 ou 4 et 5 (indices 0-11 ou 24-35)
-     * Pour les Blancs : lignes 4 et 5 ou 0 et 1 suivant ce qu'aura choisi l'adversaire (indices 0-11 ou 24-35).
-     * Cela représente environ 11000 placements possibles pour les Noirs et 5500 pour les Blancs.
+     * Écrit le livre d'ouvertures de manière atomique (fichier temporaire puis renommage),
+     * pour qu'un lecteur ne voie jamais de fichier incomplet.
      *
-     * @param isBlack true pour les Noirs, false pour les Blancs
-     * @param opponentChoiceIsTop true si l'adversaire a choisi le haut (lignes 0 et 1) pour lui-même, false sinon
-     * @return liste de tous les placements possibles (format "A1/B2/C1/D2/E1/F2") avec le premier étant la licorne
+     * @param blackOpenings ouvertures Noires, de la meilleure à la moins bonne
+     * @param whiteResponses réponses Blanches déjà calculées pour chaque ouverture Noire
+     * @param pendingStep étape encore en cours (null si le livre est complet)
      */
-    private ArrayList<String> generateAllInitialPlacements(boolean isBlack, boolean opponentChoiceIsTop) {
-        ArrayList<String> allPlacements = new ArrayList<>();
-
-        // Définir les cases disponibles selon le rôle
-        int[] availableCells;
-        int[] availableCellsPart2 = new int[0];
-        if (isBlack) {
-            // Lignes 1 et 2 pour les Noirs (indices 0-11)
-            availableCells = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
-            availableCellsPart2 = new int[]{24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35};
-        } else {
-            // Lignes 5 et 6 pour les Blancs (indices 24-35)
-            if(!opponentChoiceIsTop) {
-                availableCells = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
-            } else {
-                availableCells = new int[]{24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35};
+    private void publishBook(ArrayList<String> blackOpenings, Map<String, ArrayList<String>> whiteResponses,
+                             String pendingStep) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("% Fichier d'ouvertures pour le jeu Escampe\n");
+        sb.append("% Généré automatiquement par OpeningGenerator avec AlphaBeta\n");
+        sb.append("% Format: BLACK:placement ou WHITE:placementNoir:réponse\n");
+        sb.append("% Profondeur AlphaBeta: " + FINAL_DEPTH + " (filtrage: " + QUICK_FILTER_DEPTH + ")\n");
+        if (pendingStep != null) {
+            sb.append("% Livre partiel (").append(pendingStep).append(")\n");
+        }
+        sb.append("%\n\n");
+
+        sb.append("% ====================================\n");
+        sb.append("% Meilleures ouvertures pour les Noirs (premier joueur)\n");
+        sb.append("% ====================================\n\n");
+        for (String opening : blackOpenings) {
+            sb.append("BLACK:").append(opening).append('\n');
+        }
+
+        sb.append("\n% ====================================\n");
+        sb.append("% Meilleures réponses Blanches\n");
+        sb.append("% ====================================\n\n");
+        for (String blackOpening : blackOpenings) {
+            ArrayList<String> responses = whiteResponses.get(blackOpening);
+            if (responses == null) continue;
+            for (String whiteResponse : responses) {
+                sb.append("WHITE:").append(blackOpening).append(':').append(whiteResponse).append('\n');
             }
         }
 
-        // Générer toutes les combinaisons de 6 positions parmi 12 possibles
-        generateCombinations(availableCells, 0, new int[6], 0, allPlacements);
+        AtomicFiles.writeAtomically(Paths.get(OPENINGS_FILE), sb.toString());
+    }
+
+    /** Lit le checkpoint des réponses Blanches (format "WHITE:noir:blanc", "DONE:noir" pour une ouverture terminée) */
+    private Map<String, ArrayList<String>> readWhiteResponses(Path file) throws IOException {
+        Map<String, ArrayList<String>> responses = new LinkedHashMap<>();
+        if (!Files.exists(file)) return responses;
+
+        Map<String, ArrayList<String>> pending = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] parts = line.trim().split(":");
+            if (parts[0].equals("WHITE") && parts.length == 3) {
+                pending.computeIfAbsent(parts[1], k -> new ArrayList<>()).add(parts[2]);
+            } else if (parts[0].equals("DONE") && parts.length == 2) {
+                responses.put(parts[1], pending.getOrDefault(parts[1], new ArrayList<>()));
+            }
+        }
+        return responses;
+    }
 
-        if(isBlack) {
-            // Ajouter aussi les placements sur les lignes 5 et 6 pour les Noirs
-            ArrayList<String> secondHalfPlacements = new ArrayList<>();
-            generateCombinations(availableCellsPart2, 0, new int[6], 0, secondHalfPlacements);
-            allPlacements.addAll(secondHalfPlacements);
+    /** Sauvegarde atomiquement le checkpoint des réponses Blanches */
+    private void writeWhiteResponses(Path file, Map<String, ArrayList<String>> responses) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, ArrayList<String>> e : responses.entrySet()) {
+            for (String response : e.getValue()) {
+                sb.append("WHITE:").append(e.getKey()).append(':').append(response).append('\n');
+            }
+            sb.append("DONE:").append(e.getKey()).append('\n');
         }
+        AtomicFiles.writeAtomically(file, sb.toString());
+    }
 
-        return allPlacements;
+    /** Supprime les checkpoints une fois le livre complet publié (une nouvelle exécution repartira de zéro) */
+    private void deleteCheckpoints(int numShards) throws IOException {
+        for (int i = 0; i < numShards; i++) {
+            Files.deleteIfExists(OpeningShard.checkpointPath(i, numShards));
+        }
+        Files.deleteIfExists(Paths.get(OpeningShard.SHARD_DIR, "phase2.txt"));
+        Files.deleteIfExists(Paths.get(OpeningShard.SHARD_DIR, "white-responses.txt"));
     }
 
+    // --------------------- Mode matrice exhaustive ---------------------
+
     /**
-     * Génère récursivement toutes les combinaisons de six positions pour le placement.
-     * La première position (licorne) est ordonnée, mais les cinq autres sont sans ordre.
+     * Construit le livre à partir de l'évaluation de TOUTES les paires placement Noir × placement Blanc
+     * à profondeur fixe, au lieu d'un échantillon de réponses Blanches.
+     * La matrice est stockée dans ".\\data\\matrix-d<profondeur>.bin" et complétée si elle existe déjà.
+     * Ligne = numéro PlacementIndex du placement Noir ; colonne = numéro du placement Blanc
+     * relatif au côté opposé (PlacementIndex.opponentBase).
      *
-     * @param cells tableau des indices de cases disponibles
-     * @param startIdx index de départ pour la combinaison
-     * @param current tableau temporaire pour stocker la combinaison courante
-     * @param currentSize taille actuelle de la combinaison
-     * @param result liste pour stocker les combinaisons générées
+     * @param depth profondeur AlphaBeta de chaque évaluation
      */
-    private void generateCombinations(int[] cells, int startIdx, int[] current, int currentSize, ArrayList<String> result) {
-        int n = cells.length;
-        if (n < 6) return;
-
-        if (currentSize == 6) {
-            // Convertir les indices en format "A1/B2/C1/D2/E1/F2"
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < 6; i++) {
-                int idx = current[i];
-                char col = (char) ('A' + (idx % 6));
-                char row = (char) ('1' + (idx / 6));
-                sb.append(col).append(row);
-                if (i < 5) sb.append('/');
+    public void generateOpeningsFromMatrix(int depth) {
+        Path matrixFile = Paths.get(".\\data\\matrix-d" + depth + ".bin");
+        try (PlacementMatrix matrix = PlacementMatrix.open(matrixFile, PlacementIndex.COUNT, PlacementIndex.PER_SIDE, depth)) {
+            System.out.println("=== Matrice exhaustive " + matrix.getRows() + " × " + matrix.getCols()
+                    + " (profondeur " + depth + ") ===\n");
+            fillMatrix(matrix);
+
+            // Minimax exact sur les placements : le meilleur Noir maximise son pire score
+            TopPlacements bestBlack = new TopPlacements(TOP_N_OPENINGS);
+            for (int row = 0; row < matrix.getRows(); row++) {
+                bestBlack.offer(PlacementIndex.toString(row), matrix.rowMin(row));
             }
-            result.add(sb.toString());
-            return;
-        }
 
-        // Si on choisit la première position (licorne)
-        if (currentSize == 0) {
-            for (int cell : cells) {
-                current[0] = cell;
-                // Générer toutes les combinaisons (sans ordre) des 5 restantes
-                generateCombinations(cells, 0, current, 1, result);
+            ArrayList<String> topBlackOpenings = new ArrayList<>();
+            Map<String, ArrayList<String>> whiteResponses = new LinkedHashMap<>();
+
+            System.out.println("\n=== TOP " + TOP_N_OPENINGS + " MEILLEURES OUVERTURES NOIRES ===\n");
+            for (TopPlacements.Entry e : bestBlack.sorted()) {
+                int row = PlacementIndex.rank(e.placement);
+                ArrayList<String> responses = new ArrayList<>();
+                for (int col : matrix.bestColumnsForWhite(row, TOP_WHITE_RESPONSES)) {
+                    responses.add(PlacementIndex.toString(PlacementIndex.opponentBase(row) + col));
+                }
+                topBlackOpenings.add(e.placement);
+                whiteResponses.put(e.placement, responses);
+                System.out.printf("  #%d: %s → pire score: %d, réponses Blanches: %s\n",
+                        topBlackOpenings.size(), e.placement, e.score, responses);
             }
-            return;
-        }
 
-        // Pour les 5 positions suivantes : combinaisons sans ordre, en ignorant la case de la licorne
-        for (int i = startIdx; i < n; i++) {
-            if (cells[i] == current[0]) continue; // ne pas réutiliser la licorne
-            current[currentSize] = cells[i];
-            generateCombinations(cells, i + 1, current, currentSize + 1, result);
+            publishBook(topBlackOpenings, whiteResponses, null);
+        } catch (IOException e) {
+            System.err.println("Erreur avec la matrice " + matrixFile + " : " + e.getMessage());
+            e.printStackTrace();
         }
     }
 
+    /**
+     * Évalue en parallèle (une ligne par tâche) toutes les paires encore vides de la matrice.
+     * Aucune symétrie du plateau ne conserve les liserés : chaque paire est calculée.
+     */
+    private void fillMatrix(PlacementMatrix matrix) {
+        int[] remainingRows = IntStream.range(0, matrix.getRows()).filter(r -> !matrix.isRowComplete(r)).toArray();
+        System.out.println("  Lignes restantes : " + remainingRows.length + "/" + matrix.getRows());
+
+        final long start = System.currentTimeMillis();
+        AtomicInteger rowsDone = new AtomicInteger(0);
+
+        Arrays.stream(remainingRows).parallel().forEach(row -> {
+            int whiteBase = PlacementIndex.opponentBase(row);
+            int[] cols = new int[matrix.getCols()];
+            List<CompletableFuture<Integer>> scores = new ArrayList<>();
+            for (int col = 0; col < matrix.getCols(); col++) {
+                if (matrix.get(row, col) != PlacementMatrix.EMPTY) continue;
+
+                EscampeBoard fullBoard = boardWithPlacements(row, whiteBase + col);
+                cols[scores.size()] = col;
+                scores.add(evaluatePosition(fullBoard, EscampeRole.BLACK, matrix.getDepth()));
+            }
+            for (int i = 0; i < scores.size(); i++) matrix.set(row, cols[i], scores.get(i).join());
+
+            int done = rowsDone.incrementAndGet();
+            if (done % MATRIX_FORCE_INTERVAL == 0 || done == remainingRows.length) {
+                matrix.force();
+                long elapsed = System.currentTimeMillis() - start;
+                long remaining = (elapsed * (remainingRows.length - done)) / done;
+                synchronized (System.out) {
+                    System.out.printf("  [%d/%d] %.1f%% | Temps restant: %s\n", done, remainingRows.length,
+                            (100.0 * done / remainingRows.length), formatTime(remaining));
+                }
+            }
+        });
+    }
+
+    /**
+     * Construit le plateau après les placements Noir puis Blanc, directement depuis les bitboards
+     *
+     * @param black numéro PlacementIndex du placement Noir
+     * @param white numéro PlacementIndex du placement Blanc (du côté opposé)
+     * @return le plateau prêt pour le premier coup
+     */
+    static EscampeBoard boardWithPlacements(int black, int white) {
+        EscampeBoard board = new EscampeBoard();
+        board.playPlacement(EscampeRole.BLACK, PlacementIndex.unicorn(black), PlacementIndex.paladins(black));
+        board.playPlacement(EscampeRole.WHITE, PlacementIndex.unicorn(white), PlacementIndex.paladins(white));
+        board.switchTurn();
+        return board;
+    }
+
     /**
      * Trouve les TOP_N meilleures ouvertures pour les Noirs en utilisant AlphaBeta.
      * Version PARALLÉLISÉE pour exploiter tous les cœurs CPU disponibles.
      * Les Noirs jouent en premier sur un plateau vide (sans adversaire).
      * Pour chaque placement Noir, on évalue contre un échantillon de placements Blancs.
      * On utilise une approche en deux phases pour optimiser les performances :
-     * Phase 1: Filtrage rapide avec profondeur faible
-     * Phase 2: Évaluation approfondie des meilleurs candidats
+     * Phase 1: Filtrage rapide avec profondeur faible, découpé en shards avec checkpoints
+     * Phase 2: Évaluation approfondie des meilleurs candidats, avec checkpoint après chaque candidat
      *
+     * @param numShards nombre de shards de la phase 1 (1 = dans ce processus, sinon un processus par shard)
      * @return liste des x meilleures ouvertures Noires
      */
-    private ArrayList<String> findTopBlackOpenings() {
+    private ArrayList<String> findTopBlackOpenings(int numShards) throws IOException, InterruptedException {
         System.out.println("\n=== RECHERCHE PARALLÉLISÉE DES MEILLEURES OUVERTURES NOIRES ===\n");
 
-        // Générer tous les placements possibles pour les Noirs et les Blancs
-        ArrayList<String> allBlackPlacements = generateAllInitialPlacements(true, false);
-        ArrayList<String> allWhitePlacementsTop = generateAllInitialPlacements(false, false);
-        ArrayList<String> allWhitePlacementsBottom = generateAllInitialPlacements(false, true);
-
-        System.out.println("  Total placements Noirs: " + allBlackPlacements.size());
-        System.out.println("  Total placements Blancs (top): " + allWhitePlacementsTop.size());
-        System.out.println("  Total placements Blancs (bottom): " + allWhitePlacementsBottom.size());
+        // Les placements sont numérotés par PlacementIndex (Noirs : les deux côtés, Blancs : le côté opposé)
+        System.out.println("  Total placements Noirs: " + PlacementIndex.COUNT);
+        System.out.println("  Total placements Blancs (par côté): " + PlacementIndex.PER_SIDE);
         System.out.println("  Threads parallèles: " + NUM_THREADS);
         System.out.println();
 
-        // PHASE 1: Filtrage rapide PARALLÉLISÉ
+        // PHASE 1: Filtrage rapide PARALLÉLISÉ, chaque shard ne garde que ses INITIAL_CANDIDATES meilleurs
         System.out.println("=== PHASE 1: Filtrage rapide parallélisé (profondeur " + QUICK_FILTER_DEPTH + ") ===\n");
         final long startTimePhase1 = System.currentTimeMillis();
 
-        AtomicInteger progressCounter = new AtomicInteger(0);
-        int totalPlacements = allBlackPlacements.size();
-
-        // Utiliser un Stream parallèle pour évaluer tous les placements en parallèle
-        Map<String, Integer> quickScores = allBlackPlacements.parallelStream()
-            .collect(Collectors.toConcurrentMap(
-                blackPlacement -> blackPlacement,
-                blackPlacement -> {
-                    int score = quickEvaluateBlackPlacement(blackPlacement,
-                                                            allWhitePlacementsTop,
-                                                            allWhitePlacementsBottom);
-
-                    // Afficher la progression de manière thread-safe
-                    int current = progressCounter.incrementAndGet();
-                    if (current % 500 == 0 || current == totalPlacements) {
-                        synchronized (System.out) {
-                            long elapsed = System.currentTimeMillis() - startTimePhase1;
-                            long remaining = (elapsed * (totalPlacements - current)) / current;
-                            System.out.printf("  [%d/%d] %.1f%% | Temps restant: %s\n",
-                                current, totalPlacements, (100.0 * current / totalPlacements), formatTime(remaining));
-                        }
-                    }
-
-                    return score;
-                }
-            ));
-
-        // Trier et garder les INITIAL_CANDIDATES meilleurs
-        ArrayList<Map.Entry<String, Integer>> sortedQuick = new ArrayList<>(quickScores.entrySet());
-        sortedQuick.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+        TopPlacements quickScores;
+        if (numShards <= 1) {
+            OpeningShard shard = new OpeningShard(0, 1, PlacementIndex.COUNT, INITIAL_CANDIDATES);
+            shard.run(this::quickEvaluateBlackPlacement,
+                      () -> publishPartialBook(mergeShards(1), "phase 1 : filtrage rapide"));
+            quickScores = mergeShards(1);
+        } else {
+            quickScores = runShardProcesses(numShards);
+        }
 
         ArrayList<String> candidates = new ArrayList<>();
-        for (int i = 0; i < Math.min(INITIAL_CANDIDATES, sortedQuick.size()); i++) {
-            candidates.add(sortedQuick.get(i).getKey());
+        for (TopPlacements.Entry e : quickScores.sorted()) {
+            candidates.add(e.placement);
         }
 
         System.out.println("\n  ✓ Phase 1 terminée en " + formatTime(System.currentTimeMillis() - startTimePhase1));
@@ -250,151 +353,245 @@ public class OpeningGenerator {
         // PHASE 2: Évaluation approfondie PARALLÉLISÉE des meilleurs candidats
         System.out.println("=== PHASE 2: Évaluation approfondie parallélisée (profondeur " + FINAL_DEPTH + ") ===\n");
         final long startTimePhase2 = System.currentTimeMillis();
-        progressCounter.set(0);
 
-        // Utiliser un Stream parallèle pour la phase 2
-        Map<String, Integer> finalScores = candidates.parallelStream()
-            .collect(Collectors.toConcurrentMap(
-                blackPlacement -> blackPlacement,
-                blackPlacement -> {
-                    int score = deepEvaluateBlackPlacement(blackPlacement,
-                                                           allWhitePlacementsTop,
-                                                           allWhitePlacementsBottom);
-
-                    int current = progressCounter.incrementAndGet();
-                    synchronized (System.out) {
-                        System.out.printf("  [%d/%d] %s → score: %d\n",
-                            current, candidates.size(), blackPlacement, score);
-                    }
+        // Reprendre les candidats déjà évalués lors d'une exécution précédente
+        Path phase2File = Paths.get(OpeningShard.SHARD_DIR, "phase2.txt");
+        OpeningShard.Checkpoint phase2 = OpeningShard.readCheckpoint(phase2File, INITIAL_CANDIDATES);
+        TopPlacements finalScores = (phase2 != null) ? phase2.top : new TopPlacements(INITIAL_CANDIDATES);
+
+        Set<String> alreadyDone = new HashSet<>();
+        for (TopPlacements.Entry e : finalScores.sorted()) alreadyDone.add(e.placement);
+        ArrayList<String> remaining = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (!alreadyDone.contains(candidate)) remaining.add(candidate);
+        }
+        if (!alreadyDone.isEmpty()) {
+            System.out.println("  Reprise : " + alreadyDone.size() + " candidats déjà évalués\n");
+        }
+
+        AtomicInteger progressCounter = new AtomicInteger(alreadyDone.size());
 
-                    return score;
+        // Utiliser un Stream parallèle pour la phase 2
+        remaining.parallelStream().forEach(blackPlacement -> {
+            int score = deepEvaluateBlackPlacement(PlacementIndex.rank(blackPlacement));
+            finalScores.offer(blackPlacement, score);
+            int current = progressCounter.incrementAndGet();
+
+            synchronized (this) { // Un seul thread écrit le checkpoint et le livre à la fois
+                try {
+                    OpeningShard.writeCheckpoint(phase2File, "% Checkpoint de la phase 2",
+                                                 finalScores.size(), candidates.size(), finalScores);
+                    publishPartialBook(finalScores, "phase 2 : " + current + "/" + candidates.size() + " candidats");
+                } catch (IOException e) {
+                    // Sans arrêter la phase 2 : le prochain checkpoint réécrit tout le tas
+                    System.err.println("Erreur lors de l'écriture du checkpoint de la phase 2 : " + e.getMessage());
                 }
-            ));
+            }
+            synchronized (System.out) {
+                System.out.printf("  [%d/%d] %s → score: %d\n",
+                    current, candidates.size(), blackPlacement, score);
+            }
+        });
 
         System.out.println("\n  ✓ Phase 2 terminée en " + formatTime(System.currentTimeMillis() - startTimePhase2));
 
-        // Trier et retourner les TOP_N meilleures
-        ArrayList<Map.Entry<String, Integer>> sortedFinal = new ArrayList<>(finalScores.entrySet());
-        sortedFinal.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+        // Retourner les TOP_N meilleures (déjà triées par le tas)
+        ArrayList<TopPlacements.Entry> sortedFinal = finalScores.sorted();
 
         System.out.println("\n=== TOP " + TOP_N_OPENINGS + " MEILLEURES OUVERTURES NOIRES ===\n");
         ArrayList<String> topOpenings = new ArrayList<>();
         for (int i = 0; i < Math.min(TOP_N_OPENINGS, sortedFinal.size()); i++) {
-            topOpenings.add(sortedFinal.get(i).getKey());
+            topOpenings.add(sortedFinal.get(i).placement);
             System.out.printf("  #%d: %s → score: %d\n",
-                i+1, sortedFinal.get(i).getKey(), sortedFinal.get(i).getValue());
+                i+1, sortedFinal.get(i).placement, sortedFinal.get(i).score);
         }
 
         return topOpenings;
     }
 
     /**
-     * Évaluation rapide d'un placement noir (Phase 1)
-     * Utilise une heuristique simple et teste contre un échantillon limité de placements blancs
+     * Point d'entrée d'un processus worker : évalue un seul shard de la phase 1.
+     *
+     * @param shardIndex numéro du shard (0 à shardCount-1)
+     * @param shardCount nombre total de shards
      */
-    private int quickEvaluateBlackPlacement(String blackPlacement,
-                                            ArrayList<String> whitePlacementsTop,
-                                            ArrayList<String> whitePlacementsBottom) {
-        // Déterminer si les noirs sont en haut ou en bas
-        boolean blackIsTop = (blackPlacement.charAt(1) == '1' || blackPlacement.charAt(1) == '2');
-        ArrayList<String> relevantWhitePlacements = blackIsTop ? whitePlacementsBottom : whitePlacementsTop;
-
-        // Échantillonner seulement quelques placements blancs (tous les N-ièmes)
-        int sampleStep = Math.max(1, relevantWhitePlacements.size() / 20); // ~20 échantillons
-        int worstScore = Integer.MAX_VALUE;
+    private void runShard(int shardIndex, int shardCount) {
+        try {
+            OpeningShard shard = new OpeningShard(shardIndex, shardCount, PlacementIndex.COUNT, INITIAL_CANDIDATES);
+            shard.run(this::quickEvaluateBlackPlacement, null);
+        } catch (IOException e) {
+            System.err.println("Shard " + shardIndex + "/" + shardCount + " : " + e.getMessage());
+            System.exit(1);
+        }
+    }
 
-        EscampeBoard boardWithBlack = new EscampeBoard();
-        boardWithBlack.clearBoard();
-        EscampeMove blackMove = new EscampeMove(blackPlacement);
-        boardWithBlack.playVoid(blackMove, EscampeRole.BLACK);
+    /**
+     * Lance un processus local par shard, fusionne régulièrement leurs checkpoints et publie
+     * un livre partiel. Un worker qui s'arrête avant la fin est relancé (il reprend à son checkpoint).
+     *
+     * @param numShards nombre de processus workers
+     * @return les INITIAL_CANDIDATES meilleurs placements, tous shards confondus
+     */
+    private TopPlacements runShardProcesses(int numShards) throws IOException, InterruptedException {
+        Process[] workers = new Process[numShards];
+        int[] restarts = new int[numShards];
+        for (int i = 0; i < numShards; i++) {
+            workers[i] = startShardProcess(i, numShards);
+        }
 
-        for (int i = 0; i < relevantWhitePlacements.size(); i += sampleStep) {
-            String whitePlacement = relevantWhitePlacements.get(i);
+        try {
+            while (true) {
+                boolean allDone = true;
+                for (int i = 0; i < numShards; i++) {
+                    OpeningShard.Checkpoint checkpoint =
+                            OpeningShard.readCheckpoint(OpeningShard.checkpointPath(i, numShards), INITIAL_CANDIDATES);
+                    if (checkpoint != null && checkpoint.isDone()) continue;
+
+                    allDone = false;
+                    if (!workers[i].isAlive()) {
+                        if (restarts[i] >= MAX_SHARD_RESTARTS) {
+                            throw new IOException("Le shard " + i + "/" + numShards + " a échoué "
+                                    + restarts[i] + " fois, abandon");
+                        }
+                        restarts[i]++;
+                        System.out.println("  Shard " + i + " arrêté (code " + workers[i].exitValue() + "), relance...");
+                        workers[i] = startShardProcess(i, numShards);
+                    }
+                }
 
-            EscampeBoard fullBoard = new EscampeBoard(boardWithBlack);
-            EscampeMove whiteMove = new EscampeMove(whitePlacement);
-            fullBoard.playVoid(whiteMove, EscampeRole.WHITE);
-            fullBoard.switchTurn();
+                TopPlacements merged = mergeShards(numShards);
+                if (merged.size() > 0) publishPartialBook(merged, "phase 1 : filtrage rapide");
+                if (allDone) return merged;
 
-            // Évaluation rapide à profondeur 1
-            int score = evaluatePositionWithAlphaBeta(fullBoard, EscampeRole.BLACK, QUICK_FILTER_DEPTH);
-            worstScore = Math.min(worstScore, score);
+                Thread.sleep(PUBLISH_INTERVAL_MS);
+            }
+        } finally {
+            for (Process worker : workers) {
+                if (worker.isAlive()) worker.destroy();
+            }
         }
+    }
 
-        return worstScore;
+    /** Démarre un processus worker pour un shard, avec la même JVM et le même classpath */
+    private Process startShardProcess(int shardIndex, int shardCount) throws IOException {
+        String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        int threadsPerShard = Math.max(1, NUM_THREADS / shardCount); // Partager les cœurs entre les workers
+
+        ProcessBuilder pb = new ProcessBuilder(javaBin,
+                "-Djava.util.concurrent.ForkJoinPool.common.parallelism=" + threadsPerShard,
+                "-cp", System.getProperty("java.class.path"),
+                OpeningGenerator.class.getName(), "--shard", String.valueOf(shardIndex), String.valueOf(shardCount));
+        pb.inheritIO();
+        return pb.start();
+    }
+
+    /** Fusionne les tas de tous les checkpoints de shards existants */
+    private TopPlacements mergeShards(int numShards) {
+        TopPlacements merged = new TopPlacements(INITIAL_CANDIDATES);
+        for (int i = 0; i < numShards; i++) {
+            try {
+                OpeningShard.Checkpoint checkpoint =
+                        OpeningShard.readCheckpoint(OpeningShard.checkpointPath(i, numShards), INITIAL_CANDIDATES);
+                if (checkpoint != null) merged.addAll(checkpoint.top);
+            } catch (IOException e) {
+                System.err.println("Checkpoint du shard " + i + " illisible : " + e.getMessage());
+            }
+        }
+        return merged;
+    }
+
+    /** Publie un livre partiel contenant les TOP_N_OPENINGS meilleurs placements connus à ce stade */
+    private void publishPartialBook(TopPlacements scores, String pendingStep) {
+        ArrayList<String> best = new ArrayList<>();
+        for (TopPlacements.Entry e : scores.sorted()) {
+            if (best.size() >= TOP_N_OPENINGS) break;
+            best.add(e.placement);
+        }
+        try {
+            publishBook(best, new HashMap<>(), pendingStep);
+        } catch (IOException e) {
+            System.err.println("Impossible de publier le livre partiel : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Évaluation rapide d'un placement noir (Phase 1)
+     * Utilise une heuristique simple et teste contre un échantillon limité de placements blancs
+     *
+     * @param blackPlacement numéro PlacementIndex du placement Noir
+     */
+    private int quickEvaluateBlackPlacement(int blackPlacement) {
+        // Échantillonner seulement quelques placements blancs du côté opposé (tous les N-ièmes)
+        return evaluateAgainstWhiteSample(blackPlacement, 20, QUICK_FILTER_DEPTH); // ~20 échantillons
     }
 
     /**
      * Évaluation approfondie d'un placement noir (Phase 2)
      * Teste contre un échantillon plus large avec une profondeur plus grande
+     *
+     * @param blackPlacement numéro PlacementIndex du placement Noir
      */
-    private int deepEvaluateBlackPlacement(String blackPlacement,
-                                           ArrayList<String> whitePlacementsTop,
-                                           ArrayList<String> whitePlacementsBottom) {
-        boolean blackIsTop = (blackPlacement.charAt(1) == '1' || blackPlacement.charAt(1) == '2');
-        ArrayList<String> relevantWhitePlacements = blackIsTop ? whitePlacementsBottom : whitePlacementsTop;
-
+    private int deepEvaluateBlackPlacement(int blackPlacement) {
         // Échantillonner WHITE_SAMPLE_SIZE placements blancs uniformément
-        int sampleStep = Math.max(1, relevantWhitePlacements.size() / WHITE_SAMPLE_SIZE);
-        int worstScore = Integer.MAX_VALUE;
-
-        EscampeBoard boardWithBlack = new EscampeBoard();
-        boardWithBlack.clearBoard();
-        EscampeMove blackMove = new EscampeMove(blackPlacement);
-        boardWithBlack.playVoid(blackMove, EscampeRole.BLACK);
-
-        for (int i = 0; i < relevantWhitePlacements.size(); i += sampleStep) {
-            String whitePlacement = relevantWhitePlacements.get(i);
+        return evaluateAgainstWhiteSample(blackPlacement, WHITE_SAMPLE_SIZE, FINAL_DEPTH);
+    }
 
-            EscampeBoard fullBoard = new EscampeBoard(boardWithBlack);
-            EscampeMove whiteMove = new EscampeMove(whitePlacement);
-            fullBoard.playVoid(whiteMove, EscampeRole.WHITE);
-            fullBoard.switchTurn();
+    /**
+     * Pire score d'un placement Noir contre un échantillon régulier des placements Blancs opposés
+     *
+     * @param blackPlacement numéro PlacementIndex du placement Noir
+     * @param sampleSize nombre approximatif de placements Blancs testés
+     * @param depth profondeur AlphaBeta
+     */
+    private int evaluateAgainstWhiteSample(int blackPlacement, int sampleSize, int depth) {
+        int whiteBase = PlacementIndex.opponentBase(blackPlacement);
+        int sampleStep = Math.max(1, PlacementIndex.PER_SIDE / sampleSize);
+        int worstScore = Integer.MAX_VALUE;
 
-            // Évaluation approfondie à profondeur finale
-            int score = evaluatePositionWithAlphaBeta(fullBoard, EscampeRole.BLACK, FINAL_DEPTH);
-            worstScore = Math.min(worstScore, score);
+        // Tout l'échantillon est soumis d'un coup, puis les scores sont attendus
+        List<CompletableFuture<Integer>> scores = new ArrayList<>();
+        for (int i = 0; i < PlacementIndex.PER_SIDE; i += sampleStep) {
+            EscampeBoard fullBoard = boardWithPlacements(blackPlacement, whiteBase + i);
+            scores.add(evaluatePosition(fullBoard, EscampeRole.BLACK, depth));
+        }
+        for (CompletableFuture<Integer> score : scores) {
+            worstScore = Math.min(worstScore, score.join());
         }
 
         return worstScore;
     }
 
     /**
-     * Évalue une position avec AlphaBeta en simulant des coups à la profondeur donnée
+     * Évalue une position en cherchant le meilleur coup à la profondeur donnée (sur un worker du SearchService)
      *
      * @param board le plateau à évaluer
      * @param role le rôle du joueur à évaluer (Noir ou Blanc)
      * @param depth la profondeur de recherche AlphaBeta
-     * @return le score évalué pour le joueur donné
+     * @return le score évalué pour le joueur donné, quand la recherche est terminée
      */
-    private int evaluatePositionWithAlphaBeta(EscampeBoard board, EscampeRole role, int depth) {
-        // Créer une copie pour ne pas modifier le plateau original
-        EscampeBoard testBoard = new EscampeBoard(board);
-
-        // Créer l'algorithme AlphaBeta avec la profondeur configurée
-        var heuristic = (role == EscampeRole.BLACK) ? EscampeHeuristics.hBlack : EscampeHeuristics.hWhite;
-        var roleOpp = (role == EscampeRole.BLACK) ? EscampeRole.WHITE : EscampeRole.BLACK;
-        AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> alphabeta =
-                new AlphaBeta<>(role, roleOpp, heuristic, depth);
-
-        // Créer le joueur IA qui utilise AlphaBeta
-        AIPlayer<EscampeMove, EscampeRole, EscampeBoard> ai = new AIPlayer<>(role, alphabeta);
+    private CompletableFuture<Integer> evaluatePosition(EscampeBoard board, EscampeRole role, int depth) {
+        return searchService.submit(board, role, depth, 0).thenApply(OpeningGenerator::scoreAfterBestMove);
+    }
 
-        // Lancer l'évaluation AlphaBeta
-        EscampeMove bestMove = ai.bestMove(testBoard);
+    /**
+     * Score d'une position cherchée : l'heuristique de la position après le meilleur coup
+     * (ou de la position elle-même si le joueur passe ou ne peut pas jouer)
+     */
+    private static int scoreAfterBestMove(SearchService.Result result) {
+        var heuristic = (result.role == EscampeRole.BLACK) ? EscampeHeuristics.hBlack : EscampeHeuristics.hWhite;
+        EscampeMove bestMove = result.move;
 
-        // Après l'appel à bestMove, on évalue la position résultante
         // Si on peut jouer le meilleur coup, on évalue la position après ce coup.
         if (bestMove != null && !bestMove.isPass()) {
-            EscampeBoard afterMove = testBoard.play(bestMove, role);
-            return heuristic.eval(afterMove, role);
+            EscampeBoard afterMove = result.board.play(bestMove, result.role);
+            return heuristic.eval(afterMove, result.role);
         }
         else if (bestMove == null) {
-            System.out.println(" [Attention !] Aucun coup possible pour le rôle " + role + " lors de l'évaluation.");
+            System.out.println(" [Attention !] Aucun coup possible pour le rôle " + result.role + " lors de l'évaluation.");
         }
 
         // Sinon, évaluer la position actuelle
-        return heuristic.eval(testBoard, role);
+        return heuristic.eval(result.board, result.role);
     }
 
     /**
@@ -403,7 +600,7 @@ public class OpeningGenerator {
      * @param millis temps en millisecondes
      * @return chaîne formatée (ex: "1h 23min", "45min 30s", "15s")
      */
-    private String formatTime(long millis) {
+    static String formatTime(long millis) {
         long seconds = millis / 1000;
         long minutes = seconds / 60;
         long hours = minutes / 60;
@@ -427,74 +624,45 @@ public class OpeningGenerator {
     private ArrayList<String> findBestWhiteResponses(String blackOpening) {
         System.out.println("\n  Calcul des meilleures réponses Blanches pour: " + blackOpening);
 
-        // Créer un plateau avec le placement Noir
-        EscampeBoard boardWithBlack = new EscampeBoard();
-        boardWithBlack.clearBoard();
-        EscampeMove blackMove = new EscampeMove(blackOpening);
-        boardWithBlack.playVoid(blackMove, EscampeRole.BLACK);
-
-        // Générer tous les placements Blancs possibles
-        boolean blackIsTop = (blackOpening.charAt(1) == '1' || blackOpening.charAt(1) == '2');
-        ArrayList<String> allWhitePlacements = generateAllInitialPlacements(false, blackIsTop);
+        // Les placements Blancs possibles sont les numéros [whiteBase, whiteBase + PER_SIDE)
+        int black = PlacementIndex.rank(blackOpening);
+        int whiteBase = PlacementIndex.opponentBase(black);
 
-        System.out.println("    Phase 1: Filtrage rapide parallélisé sur " + allWhitePlacements.size() + " placements...");
+        System.out.println("    Phase 1: Filtrage rapide parallélisé sur " + PlacementIndex.PER_SIDE + " placements...");
 
-        // Phase 1: Filtrage rapide PARALLÉLISÉ
-        int sampleStep = Math.max(1, allWhitePlacements.size() / 300); // Échantillonner ~300 placements
-        ArrayList<String> sampledPlacements = new ArrayList<>();
-        for (int i = 0; i < allWhitePlacements.size(); i += sampleStep) {
-            sampledPlacements.add(allWhitePlacements.get(i));
+        // Phase 1: Filtrage rapide PARALLÉLISÉ (un lot soumis au SearchService)
+        int sampleStep = Math.max(1, PlacementIndex.PER_SIDE / 300); // Échantillonner ~300 placements
+        TopPlacements quickScores = new TopPlacements(30); // Garder top 30 pour phase 2
+        int[] whites = IntStream.iterate(0, i -> i < PlacementIndex.PER_SIDE, i -> i + sampleStep).map(i -> whiteBase + i).toArray();
+        List<CompletableFuture<Integer>> quick = new ArrayList<>(whites.length);
+        for (int white : whites) {
+            quick.add(evaluatePosition(boardWithPlacements(black, white), EscampeRole.WHITE, QUICK_FILTER_DEPTH));
         }
-
-        Map<String, Integer> quickScores = sampledPlacements.parallelStream()
-            .collect(Collectors.toConcurrentMap(
-                whitePlacement -> whitePlacement,
-                whitePlacement -> {
-                    EscampeBoard fullBoard = new EscampeBoard(boardWithBlack);
-                    EscampeMove whiteMove = new EscampeMove(whitePlacement);
-                    fullBoard.playVoid(whiteMove, EscampeRole.WHITE);
-                    fullBoard.switchTurn();
-
-                    return evaluatePositionWithAlphaBeta(fullBoard, EscampeRole.WHITE, QUICK_FILTER_DEPTH);
-                }
-            ));
-
-        // Sélectionner les meilleurs candidats
-        ArrayList<Map.Entry<String, Integer>> sortedQuick = new ArrayList<>(quickScores.entrySet());
-        sortedQuick.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
-
-        int candidatesCount = Math.min(30, sortedQuick.size()); // Garder top 30 pour phase 2
-        ArrayList<String> candidates = new ArrayList<>();
-        for (int i = 0; i < candidatesCount; i++) {
-            candidates.add(sortedQuick.get(i).getKey());
+        for (int i = 0; i < whites.length; i++) {
+            quickScores.offer(PlacementIndex.toString(whites[i]), quick.get(i).join());
         }
 
+        ArrayList<TopPlacements.Entry> candidates = quickScores.sorted();
         System.out.println("    Phase 2: Évaluation approfondie parallélisée de " + candidates.size() + " candidats...");
 
-        // Phase 2: Évaluation approfondie PARALLÉLISÉE
-        Map<String, Integer> finalScores = candidates.parallelStream()
-            .collect(Collectors.toConcurrentMap(
-                whitePlacement -> whitePlacement,
-                whitePlacement -> {
-                    EscampeBoard fullBoard = new EscampeBoard(boardWithBlack);
-                    EscampeMove whiteMove = new EscampeMove(whitePlacement);
-                    fullBoard.playVoid(whiteMove, EscampeRole.WHITE);
-                    fullBoard.switchTurn();
-
-                    return evaluatePositionWithAlphaBeta(fullBoard, EscampeRole.WHITE, FINAL_DEPTH);
-                }
-            ));
-
-        // Trier par score décroissant (meilleur pour les Blancs)
-        ArrayList<Map.Entry<String, Integer>> sortedFinal = new ArrayList<>(finalScores.entrySet());
-        sortedFinal.sort((e1, e2) -> e2.getValue().compareTo(e1.getValue()));
+        // Phase 2: Évaluation approfondie PARALLÉLISÉE, en ne gardant que les TOP_WHITE_RESPONSES meilleures
+        TopPlacements finalScores = new TopPlacements(TOP_WHITE_RESPONSES);
+        List<CompletableFuture<Integer>> deep = new ArrayList<>(candidates.size());
+        for (TopPlacements.Entry candidate : candidates) {
+            EscampeBoard fullBoard = boardWithPlacements(black, PlacementIndex.rank(candidate.placement));
+            deep.add(evaluatePosition(fullBoard, EscampeRole.WHITE, FINAL_DEPTH));
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            finalScores.offer(candidates.get(i).placement, deep.get(i).join());
+        }
 
-        // Garder les TOP_WHITE_RESPONSES meilleures
+        // Triées par score décroissant (meilleur pour les Blancs)
+        ArrayList<TopPlacements.Entry> sortedFinal = finalScores.sorted();
         ArrayList<String> topResponses = new ArrayList<>();
-        for (int i = 0; i < Math.min(TOP_WHITE_RESPONSES, sortedFinal.size()); i++) {
-            topResponses.add(sortedFinal.get(i).getKey());
+        for (int i = 0; i < sortedFinal.size(); i++) {
+            topResponses.add(sortedFinal.get(i).placement);
             System.out.printf("    #%d: %s → score: %d\n",
-                i+1, sortedFinal.get(i).getKey(), sortedFinal.get(i).getValue());
+                i+1, sortedFinal.get(i).placement, sortedFinal.get(i).score);
         }
 
         return topResponses;
@@ -0,0 +1,174 @@
+package games.escampe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Une tranche (shard) du filtrage rapide des ouvertures Noires.
+ * Le shard <index>/<count> évalue les placements dont le numéro (PlacementIndex)
+ * vaut index modulo count, garde les meilleurs dans un tas borné et sauvegarde régulièrement
+ * son avancement sur disque. Relancé après un arrêt, il reprend là où il s'était arrêté.
+ *
+ * Format du fichier de checkpoint (texte, écrit atomiquement) :
+ *   NEXT:nombre de placements du shard déjà évalués
+ *   TOTAL:nombre de placements du shard
+ *   score:placement (une ligne par placement conservé)
+ */
+public class OpeningShard {
+
+    static final String SHARD_DIR = ".\\data\\shards";
+    private static final int CHECKPOINT_BATCH = 200; // Nombre de placements évalués entre deux checkpoints
+
+    private final int index;
+    private final int count;
+    private final int[] placements; // Numéros des placements de ce shard uniquement
+    private final int capacity;
+    private final TopPlacements top;
+    private final Path checkpointFile;
+    private int next; // Nombre de placements déjà évalués
+
+    /**
+     * @param index numéro du shard (0 à count-1)
+     * @param count nombre total de shards
+     * @param totalPlacements nombre total de placements Noirs (numérotés de 0 à totalPlacements-1)
+     * @param capacity nombre de placements à conserver
+     */
+    public OpeningShard(int index, int count, int totalPlacements, int capacity) {
+        this.index = index;
+        this.count = count;
+        this.placements = new int[(totalPlacements - index + count - 1) / count];
+        for (int i = 0; i < placements.length; i++) {
+            placements[i] = index + i * count;
+        }
+        this.capacity = capacity;
+        this.top = new TopPlacements(capacity);
+        this.checkpointFile = checkpointPath(index, count);
+        this.next = 0;
+    }
+
+    /** Chemin du checkpoint d'un shard */
+    static Path checkpointPath(int index, int count) {
+        return Paths.get(SHARD_DIR, "shard-" + index + "-of-" + count + ".txt");
+    }
+
+    /** Évalue les placements restants du shard en sauvegardant l'avancement après chaque lot
+     * @param evaluator fonction de score d'un numéro de placement (plus grand = meilleur pour les Noirs)
+     * @param onCheckpoint appelé après chaque checkpoint (peut être null)
+     */
+    public void run(IntUnaryOperator evaluator, Runnable onCheckpoint) throws IOException {
+        resume();
+        if (next > 0) {
+            System.out.println("  Shard " + index + "/" + count + " : reprise à " + next + "/" + placements.length);
+        }
+
+        long start = System.currentTimeMillis();
+        int firstIndex = next;
+
+        while (next < placements.length) {
+            int end = Math.min(next + CHECKPOINT_BATCH, placements.length);
+            Arrays.stream(placements, next, end).parallel()
+                    .forEach(p -> top.offer(PlacementIndex.toString(p), evaluator.applyAsInt(p)));
+            next = end;
+
+            saveCheckpoint();
+            if (onCheckpoint != null) onCheckpoint.run();
+
+            long elapsed = System.currentTimeMillis() - start;
+            long remaining = (elapsed * (placements.length - next)) / (next - firstIndex);
+            synchronized (System.out) {
+                System.out.printf("  [shard %d/%d] %d/%d %.1f%% | Temps restant: %s\n", index, count,
+                        next, placements.length, 100.0 * next / placements.length,
+                        OpeningGenerator.formatTime(remaining));
+            }
+        }
+    }
+
+    /** Recharge le checkpoint s'il existe (sinon le shard part de zéro) */
+    private void resume() throws IOException {
+        Checkpoint checkpoint = readCheckpoint(checkpointFile, capacity);
+        if (checkpoint == null) return;
+        if (checkpoint.total != placements.length) {
+            throw new IOException("Checkpoint incompatible (" + checkpoint.total + " placements attendus, "
+                    + placements.length + " trouvés) : " + checkpointFile);
+        }
+        next = checkpoint.next;
+        top.addAll(checkpoint.top);
+    }
+
+    /** Sauvegarde atomiquement l'avancement et le tas courant */
+    private void saveCheckpoint() throws IOException {
+        writeCheckpoint(checkpointFile, "% Checkpoint du shard " + index + "/" + count, next, placements.length, top);
+    }
+
+    // --------------------- Lecture des checkpoints ---------------------
+
+    /** Contenu d'un fichier de checkpoint */
+    static final class Checkpoint {
+        int next;
+        int total = -1;
+        TopPlacements top;
+
+        boolean isDone() {
+            return total >= 0 && next >= total;
+        }
+    }
+
+    /** Écrit atomiquement un fichier de checkpoint
+     * @param file le fichier de checkpoint
+     * @param title commentaire placé en première ligne
+     * @param next nombre de placements déjà évalués
+     * @param total nombre total de placements à évaluer
+     * @param top les placements conservés
+     */
+    static void writeCheckpoint(Path file, String title, int next, int total, TopPlacements top) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(title).append('\n');
+        sb.append("NEXT:").append(next).append('\n');
+        sb.append("TOTAL:").append(total).append('\n');
+        for (TopPlacements.Entry e : top.sorted()) {
+            sb.append(e.score).append(':').append(e.placement).append('\n');
+        }
+        AtomicFiles.writeAtomically(file, sb.toString());
+    }
+
+    /** Lit un checkpoint (écrit par ce processus ou par un autre)
+     * @param file le fichier de checkpoint
+     * @param capacity taille du tas à reconstruire
+     * @return le checkpoint, ou null s'il n'existe pas encore
+     */
+    static Checkpoint readCheckpoint(Path file, int capacity) throws IOException {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.top = new TopPlacements(capacity);
+
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("%")) continue;
+
+                int sep = line.indexOf(':');
+                if (sep < 0) continue;
+                String key = line.substring(0, sep);
+                String value = line.substring(sep + 1);
+
+                if (key.equals("NEXT")) {
+                    checkpoint.next = Integer.parseInt(value);
+                } else if (key.equals("TOTAL")) {
+                    checkpoint.total = Integer.parseInt(value);
+                } else {
+                    checkpoint.top.offer(value, Integer.parseInt(key));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        return checkpoint;
+    }
+}
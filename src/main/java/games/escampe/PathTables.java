@@ -0,0 +1,134 @@
+package games.escampe;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Table des chemins de EscampeBoard (PATH_CACHE) : pour chaque paire de cases, les masques des cases
+ * intermédiaires de chaque chemin géométriquement possible (longueur = liseré de la case de départ).
+ *
+ * La table est calculée une fois pour toutes à la compilation (tâche Gradle generateTables, qui lance main)
+ * et rangée dans le classpath sous la ressource RESOURCE. Au chargement de EscampeBoard, elle est lue telle
+ * quelle au lieu d'être recalculée ; sans la ressource (compilation par javac seul), elle est calculée.
+ *
+ * Format (big endian) : MAGIC, VERSION, puis pour chaque départ et chaque arrivée le nombre de chemins
+ * (un octet) suivi de leurs masques (longs), dans l'ordre où compute les trouve.
+ */
+final class PathTables {
+
+    static final String RESOURCE = "paths.bin";
+    private static final int MAGIC = 0x54_50_53_45; // "ESPT"
+    private static final int VERSION = 1;
+
+    private static final int[] STEPS = {-6, 6, -1, 1}; // Haut, bas, gauche, droite
+
+    private PathTables() {
+    }
+
+    /** Génère la ressource
+     * Exemple: >java -cp . games.escampe.PathTables build\generated\resources\tables\games\escampe\paths.bin
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("PathTables Usage: fichierSortie");
+            System.exit(1);
+        }
+        AtomicFiles.writeAtomically(Paths.get(args[0]), encode(compute()));
+    }
+
+    /** @return la table lue depuis la ressource, ou calculée si la ressource est absente ou d'une autre version */
+    static long[][][] load() {
+        try (InputStream in = PathTables.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                long[][][] paths = decode(ByteBuffer.wrap(in.readAllBytes()));
+                if (paths != null) return paths;
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            System.err.println("Table des chemins illisible, recalcul : " + e.getMessage());
+        }
+        return compute();
+    }
+
+    // --------------------- Format binaire ---------------------
+
+    static byte[] encode(long[][][] paths) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (int from = 0; from < 36; from++) {
+                for (int to = 0; to < 36; to++) {
+                    long[] masks = paths[from][to];
+                    out.writeByte((masks == null) ? 0 : masks.length);
+                    if (masks != null) for (long mask : masks) out.writeLong(mask);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /** @return la table, ou null si l'en-tête ne correspond pas
+     * @throws BufferUnderflowException si la ressource est tronquée
+     */
+    private static long[][][] decode(ByteBuffer in) {
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+        long[][][] paths = new long[36][36][];
+        for (int from = 0; from < 36; from++) {
+            for (int to = 0; to < 36; to++) {
+                int count = in.get() & 0xFF;
+                if (count == 0) continue;
+                long[] masks = new long[count];
+                for (int i = 0; i < count; i++) masks[i] = in.getLong();
+                paths[from][to] = masks;
+            }
+        }
+        return paths;
+    }
+
+    // --------------------- Calcul ---------------------
+
+    /** Calcule la table : null pour une paire sans chemin (ou une case vers elle-même) */
+    static long[][][] compute() {
+        long[][][] paths = new long[36][36][];
+        long[] found = new long[64];
+        for (int from = 0; from < 36; from++) {
+            int dist = EscampeBoard.getLisereType(from);
+            for (int to = 0; to < 36; to++) {
+                if (from == to) continue;
+                int count = findPaths(from, to, dist, 0L, found, 0);
+                if (count > 0) paths[from][to] = Arrays.copyOf(found, count);
+            }
+        }
+        return paths;
+    }
+
+    /** Parcours en profondeur des chemins de current à target en exactement stepsLeft pas, sans repasser par
+     * une case ni toucher target avant la fin
+     * @param pathMask cases intermédiaires déjà parcourues
+     * @param found reçoit les masques à partir de l'indice count
+     * @return le nouveau nombre de masques dans found
+     */
+    private static int findPaths(int current, int target, int stepsLeft, long pathMask, long[] found, int count) {
+        int manhattan = Math.abs(current % 6 - target % 6) + Math.abs(current / 6 - target / 6);
+        if (manhattan > stepsLeft || (manhattan % 2) != (stepsLeft % 2)) return count; // Trop loin ou parité incompatible
+
+        for (int step : STEPS) {
+            int next = current + step;
+            if (next < 0 || next > 35) continue;
+            if (Math.abs(step) == 1 && current / 6 != next / 6) continue; // Pas de saut de ligne
+            if ((pathMask & (1L << next)) != 0) continue;
+            if (stepsLeft == 1) {
+                if (next == target) found[count++] = pathMask;
+            } else if (next != target) {
+                count = findPaths(next, target, stepsLeft - 1, pathMask | (1L << next), found, count);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,121 @@
+package games.escampe;
+
+/**
+ * Numérotation dense des placements initiaux (licorne + 5 paladins sur deux lignes).
+ * Un placement d'un côté du plateau est numéroté par
+ *   caseLicorne * C(11,5) + rang de l'ensemble des paladins dans le système combinatoire
+ * où caseLicorne (0-11) et les cases des paladins sont relatives aux deux lignes du côté choisi,
+ * les cases des paladins étant renumérotées de 0 à 10 en sautant celle de la licorne.
+ * Le côté ajoute PER_SIDE pour le bas : [0, PER_SIDE) = lignes 1-2, [PER_SIDE, COUNT) = lignes 5-6.
+ *
+ * Les conversions se font directement vers et depuis les bitboards d'EscampeBoard, sans chaîne de caractères.
+ */
+public final class PlacementIndex {
+
+    public static final int PALADIN_SETS = 462; // C(11,5)
+    public static final int PER_SIDE = 12 * PALADIN_SETS; // 5544 placements par côté
+    public static final int COUNT = 2 * PER_SIDE; // Les Noirs peuvent choisir le haut ou le bas
+
+    private static final int BOTTOM_SHIFT = 24; // Première case des lignes 5-6
+    private static final int[][] BINOMIAL = new int[12][6]; // BINOMIAL[n][k] = C(n,k)
+
+    // Tables de dépliage : index -> bitboards
+    private static final long[] UNICORN = new long[COUNT];
+    private static final long[] PALADINS = new long[COUNT];
+
+    static {
+        for (int n = 0; n < 12; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k < 6; k++) {
+                BINOMIAL[n][k] = (n == 0) ? 0 : BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+        for (int index = 0; index < COUNT; index++) {
+            int shift = (index < PER_SIDE) ? 0 : BOTTOM_SHIFT;
+            int local = index % PER_SIDE;
+            int unicornSlot = local / PALADIN_SETS;
+            int rank = local % PALADIN_SETS;
+
+            // Dépliage du système combinatoire : c5 > c4 > ... > c1, rang = somme des C(ci, i)
+            long paladins = 0L;
+            int c = 11;
+            for (int k = 5; k >= 1; k--) {
+                do { c--; } while (BINOMIAL[c][k] > rank);
+                rank -= BINOMIAL[c][k];
+                int slot = (c >= unicornSlot) ? c + 1 : c; // Réinsérer la case de la licorne
+                paladins |= 1L << (slot + shift);
+            }
+            UNICORN[index] = 1L << (unicornSlot + shift);
+            PALADINS[index] = paladins;
+        }
+    }
+
+    private PlacementIndex() {
+    }
+
+    // --------------------- Conversions ---------------------
+
+    /** Numéro d'un placement à partir de ses bitboards
+     * @param unicorn bitboard de la licorne (une seule case)
+     * @param paladins bitboard des 5 paladins, sur les deux mêmes lignes que la licorne
+     * @return le numéro du placement (0 à COUNT-1)
+     */
+    public static int rank(long unicorn, long paladins) {
+        boolean top = (unicorn & 0xFFFL) != 0;
+        int shift = top ? 0 : BOTTOM_SHIFT;
+        int unicornSlot = Long.numberOfTrailingZeros(unicorn) - shift;
+        long slots = paladins >>> shift;
+
+        int rank = 0;
+        int k = 1;
+        while (slots != 0) { // Cases des paladins par ordre croissant : c1 < c2 < ... < c5
+            int slot = Long.numberOfTrailingZeros(slots);
+            int c = (slot > unicornSlot) ? slot - 1 : slot;
+            rank += BINOMIAL[c][k++];
+            slots &= slots - 1;
+        }
+        return (top ? 0 : PER_SIDE) + unicornSlot * PALADIN_SETS + rank;
+    }
+
+    /** Numéro d'un placement au format texte ("C6/A6/B5/D5/E6/F5", licorne en premier) */
+    public static int rank(String placement) {
+        int[] indices = new EscampeMove(placement).getPlacementIndices();
+        long paladins = 0L;
+        for (int i = 1; i < 6; i++) paladins |= 1L << indices[i];
+        return rank(1L << indices[0], paladins);
+    }
+
+    /** @return le bitboard de la licorne du placement */
+    public static long unicorn(int index) {
+        return UNICORN[index];
+    }
+
+    /** @return le bitboard des paladins du placement */
+    public static long paladins(int index) {
+        return PALADINS[index];
+    }
+
+    /** @return vrai si le placement est sur les lignes 1-2 */
+    public static boolean isTop(int index) {
+        return index < PER_SIDE;
+    }
+
+    /** Premier numéro des placements du côté opposé à celui d'un placement
+     * (les placements de l'adversaire sont [opponentBase, opponentBase + PER_SIDE))
+     */
+    public static int opponentBase(int index) {
+        return isTop(index) ? PER_SIDE : 0;
+    }
+
+    /** Placement au format texte (licorne en premier puis paladins par case croissante), pour les livres et l'affichage */
+    public static String toString(int index) {
+        StringBuilder sb = new StringBuilder(17);
+        sb.append(EscampeBoard.indexToString(Long.numberOfTrailingZeros(UNICORN[index])));
+        long paladins = PALADINS[index];
+        while (paladins != 0) {
+            sb.append('/').append(EscampeBoard.indexToString(Long.numberOfTrailingZeros(paladins)));
+            paladins &= paladins - 1;
+        }
+        return sb.toString();
+    }
+}
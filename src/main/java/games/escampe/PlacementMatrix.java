@@ -0,0 +1,170 @@
+package games.escampe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Matrice dense des scores placement Noir × placement Blanc, stockée dans un fichier projeté
+ * en mémoire (un int16 par paire). Les scores sont du point de vue des Noirs et bornés à
+ * [-MAX_SCORE, MAX_SCORE] ; EMPTY marque une paire pas encore évaluée, ce qui permet de
+ * reprendre un calcul interrompu.
+ *
+ * Format du fichier (little endian) :
+ *   en-tête de HEADER_SIZE octets : MAGIC, VERSION, lignes, colonnes, profondeur AlphaBeta
+ *   puis lignes × colonnes valeurs int16, ligne par ligne
+ */
+public class PlacementMatrix implements Closeable {
+
+    public static final short EMPTY = Short.MIN_VALUE; // Paire non évaluée
+    public static final int MAX_SCORE = Short.MAX_VALUE;
+
+    private static final int MAGIC = 0x4553434D; // "ESCM"
+    private static final int VERSION = 2; // 2 : lignes et colonnes numérotées par PlacementIndex
+    private static final int HEADER_SIZE = 32;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final ShortBuffer cells;
+    private final int rows;
+    private final int cols;
+    private final int depth;
+
+    private PlacementMatrix(FileChannel channel, MappedByteBuffer mapped, int rows, int cols, int depth) {
+        this.channel = channel;
+        this.mapped = mapped;
+        this.rows = rows;
+        this.cols = cols;
+        this.depth = depth;
+        mapped.position(HEADER_SIZE);
+        this.cells = mapped.slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+    }
+
+    /** Ouvre la matrice d'un fichier existant, ou la crée (toutes les paires à EMPTY)
+     * @param file le fichier de la matrice
+     * @param rows nombre de placements Noirs
+     * @param cols nombre de placements Blancs par placement Noir
+     * @param depth profondeur AlphaBeta des évaluations
+     * @throws IOException si le fichier existe avec des dimensions ou une profondeur différentes
+     */
+    public static PlacementMatrix open(Path file, int rows, int cols, int depth) throws IOException {
+        long size = HEADER_SIZE + 2L * rows * cols;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Matrice trop grande pour une seule projection : " + size + " octets");
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (exists) {
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION
+                    || mapped.getInt(8) != rows || mapped.getInt(12) != cols || mapped.getInt(16) != depth) {
+                channel.close();
+                throw new IOException("Matrice incompatible (en-tête différent) : " + file);
+            }
+        } else {
+            mapped.putInt(0, MAGIC);
+            mapped.putInt(4, VERSION);
+            mapped.putInt(8, rows);
+            mapped.putInt(12, cols);
+            mapped.putInt(16, depth);
+            for (long i = 0; i < (long) rows * cols; i++) {
+                mapped.putShort(HEADER_SIZE + (int) (2 * i), EMPTY);
+            }
+            mapped.force();
+        }
+        return new PlacementMatrix(channel, mapped, rows, cols, depth);
+    }
+
+    // --------------------- Accès aux cases ---------------------
+
+    public short get(int row, int col) {
+        return cells.get(row * cols + col);
+    }
+
+    /** Enregistre un score (borné à l'intervalle int16 représentable)
+     * Les écritures absolues sur des cases différentes peuvent se faire depuis plusieurs threads.
+     */
+    public void set(int row, int col, int score) {
+        int clamped = Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+        cells.put(row * cols + col, (short) clamped);
+    }
+
+    /** @return vrai si toutes les paires de la ligne sont évaluées */
+    public boolean isRowComplete(int row) {
+        int base = row * cols;
+        for (int col = 0; col < cols; col++) {
+            if (cells.get(base + col) == EMPTY) return false;
+        }
+        return true;
+    }
+
+    // --------------------- Requêtes ---------------------
+
+    /** Pire score d'un placement Noir sur toutes les réponses Blanches (minimax exact sur les placements)
+     * @param row le placement Noir
+     * @return le minimum de la ligne, ou EMPTY si aucune paire n'est évaluée
+     */
+    public int rowMin(int row) {
+        int base = row * cols;
+        int min = Integer.MAX_VALUE;
+        for (int col = 0; col < cols; col++) {
+            short v = cells.get(base + col);
+            if (v != EMPTY && v < min) min = v;
+        }
+        return min == Integer.MAX_VALUE ? EMPTY : min;
+    }
+
+    /** Meilleures réponses Blanches à un placement Noir (les scores Noirs les plus bas)
+     * @param row le placement Noir
+     * @param k nombre de réponses voulues
+     * @return les colonnes des k meilleures réponses, de la meilleure à la moins bonne
+     */
+    public int[] bestColumnsForWhite(int row, int k) {
+        int base = row * cols;
+        int[] best = new int[Math.min(k, cols)];
+        int found = 0;
+        for (int col = 0; col < cols; col++) {
+            short v = cells.get(base + col);
+            if (v == EMPTY) continue;
+            // Insertion dans le petit tableau trié (k est petit)
+            int pos = found;
+            while (pos > 0 && cells.get(base + best[pos - 1]) > v) pos--;
+            if (pos >= best.length) continue;
+            int last = Math.min(found, best.length - 1);
+            System.arraycopy(best, pos, best, pos + 1, last - pos);
+            best[pos] = col;
+            if (found < best.length) found++;
+        }
+        int[] result = new int[found];
+        System.arraycopy(best, 0, result, 0, found);
+        return result;
+    }
+
+    /** Force l'écriture sur disque des pages modifiées */
+    public synchronized void force() {
+        mapped.force();
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+    public int getDepth() { return depth; }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
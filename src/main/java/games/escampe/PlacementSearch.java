@@ -0,0 +1,182 @@
+package games.escampe;
+
+import iialib.games.algs.IHeuristic;
+import iialib.games.algs.SearchHandle;
+import iialib.games.algs.algorithms.AlphaBeta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+/**
+ * Recherche du meilleur placement initial quand le livre d'ouvertures ne connaît pas la position.
+ * Tous les placements légaux (PlacementIndex) sont considérés, en trois étapes :
+ *   1. placements légaux du côté libre (aucune symétrie du plateau ne conserve les liserés : rien à réduire) ;
+ *   2. filtre statique parallèle : heuristique de la position juste après le placement ;
+ *   3. recherches AlphaBeta parallèles de plus en plus profondes sur les meilleurs candidats.
+ * La recherche s'arrête à l'échéance et renvoie le meilleur placement trouvé jusque-là.
+ */
+public class PlacementSearch {
+
+    private static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int[] STAGE_DEPTHS = {2, 4}; // Profondeur AlphaBeta de chaque étape
+    private static final int[] STAGE_CANDIDATES = {48, 8}; // Nombre de candidats gardés pour chaque étape
+
+    // Pool partagé de threads démons : ne bloque pas l'arrêt de la JVM
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(NUM_THREADS, r -> {
+        Thread t = new Thread(r, "placement-search");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final EscampeRole role;
+    private final EscampeRole opponentRole;
+    private final IHeuristic<EscampeBoard, EscampeRole> heuristic;
+
+    public PlacementSearch(EscampeRole role) {
+        this.role = role;
+        this.opponentRole = (role == EscampeRole.WHITE) ? EscampeRole.BLACK : EscampeRole.WHITE;
+        this.heuristic = (role == EscampeRole.WHITE) ? EscampeHeuristics.hWhite : EscampeHeuristics.hBlack;
+    }
+
+    /**
+     * Cherche le meilleur placement dans le temps imparti
+     * @param board le plateau, où l'adversaire a déjà placé ses pièces
+     * @param timeBudgetMs temps maximal de la recherche en millisecondes
+     * @return le meilleur placement trouvé (format "A1/B2/C1/D2/E1/F2"), ou null si aucun n'est légal
+     */
+    public String findBest(EscampeBoard board, long timeBudgetMs) {
+        long deadline = System.currentTimeMillis() + timeBudgetMs;
+
+        // Étape 1 : placements légaux du côté opposé
+        long opponent = (opponentRole == EscampeRole.WHITE)
+                        ? (board.getWhiteUnicorn() | board.getWhitePaladins())
+                        : (board.getBlackUnicorn() | board.getBlackPaladins());
+        if (opponent == 0L) return null; // Rien à quoi répondre
+        int base = ((opponent & 0xFFFL) != 0) ? PlacementIndex.PER_SIDE : 0;
+        int[] candidates = IntStream.range(base, base + PlacementIndex.PER_SIDE).toArray();
+
+        // Étape 2 : filtre statique parallèle
+        TopPlacements best = new TopPlacements(STAGE_CANDIDATES[0]);
+        List<Callable<Void>> staticTasks = new ArrayList<>();
+        int chunk = (candidates.length + NUM_THREADS - 1) / NUM_THREADS;
+        for (int start = 0; start < candidates.length; start += chunk) {
+            int from = start, to = Math.min(start + chunk, candidates.length);
+            staticTasks.add(() -> {
+                for (int i = from; i < to; i++) {
+                    EscampeBoard testBoard = boardAfter(board, candidates[i]);
+                    best.offer(PlacementIndex.toString(candidates[i]), heuristic.eval(testBoard, role));
+                }
+                return null;
+            });
+        }
+        if (!runUntil(staticTasks, deadline)) {
+            return firstOrNull(best); // Échéance atteinte pendant le filtre : meilleur candidat statique partiel
+        }
+        System.out.println("  → " + candidates.length + " placements filtrés statiquement");
+
+        // Étape 3 : recherches de plus en plus profondes sur les meilleurs candidats
+        String bestPlacement = firstOrNull(best);
+        ArrayList<TopPlacements.Entry> stageCandidates = best.sorted();
+        for (int stage = 0; stage < STAGE_DEPTHS.length; stage++) {
+            int depth = STAGE_DEPTHS[stage];
+            int keep = (stage + 1 < STAGE_CANDIDATES.length) ? STAGE_CANDIDATES[stage + 1] : 1;
+            TopPlacements stageResults = new TopPlacements(Math.max(keep, 1));
+
+            List<Callable<Void>> searchTasks = new ArrayList<>();
+            for (int i = 0; i < Math.min(STAGE_CANDIDATES[stage], stageCandidates.size()); i++) {
+                String placement = stageCandidates.get(i).placement;
+                searchTasks.add(() -> {
+                    stageResults.offer(placement, searchScore(boardAfter(board, PlacementIndex.rank(placement)), depth, deadline));
+                    return null;
+                });
+            }
+
+            boolean complete = runUntil(searchTasks, deadline);
+            if (!complete) {
+                // Étape interrompue : ses scores partiels ne se comparent pas à ceux de l'étape précédente,
+                // sauf s'il n'y avait encore aucun résultat de recherche
+                if (stage == 0 && stageResults.size() > 0) bestPlacement = firstOrNull(stageResults);
+                System.out.println("  → Échéance atteinte pendant la recherche à profondeur " + depth);
+                break;
+            }
+            bestPlacement = firstOrNull(stageResults);
+            stageCandidates = stageResults.sorted();
+            System.out.println("  → Profondeur " + depth + " : meilleur placement " + bestPlacement
+                             + " (score " + stageCandidates.get(0).score + ")");
+        }
+
+        return bestPlacement;
+    }
+
+    /** Score d'un placement : on cherche le meilleur premier coup puis on évalue la position obtenue
+     * (même critère que OpeningGenerator). À l'échéance (ou si la tâche est annulée), la recherche est arrêtée
+     * par son SearchHandle : elle ne continue pas en arrière-plan pendant la partie.
+     * @throws CancellationException si la recherche n'est pas terminée à l'échéance
+     */
+    private int searchScore(EscampeBoard afterPlacement, int depth, long deadline) throws ExecutionException {
+        AlphaBeta<EscampeMove, EscampeRole, EscampeBoard> alphabeta =
+                new AlphaBeta<>(role, opponentRole, heuristic, depth);
+        SearchHandle<EscampeMove> handle = alphabeta.bestMoveAsync(afterPlacement, role, null);
+
+        EscampeMove bestMove;
+        try {
+            bestMove = handle.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            handle.stop();
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            throw new CancellationException("Échéance du placement atteinte");
+        }
+        if (bestMove != null && !bestMove.isPass()) {
+            return heuristic.eval(afterPlacement.play(bestMove, role), role);
+        }
+        return heuristic.eval(afterPlacement, role);
+    }
+
+    /** Plateau après mon placement */
+    private EscampeBoard boardAfter(EscampeBoard board, int placement) {
+        EscampeBoard testBoard = new EscampeBoard(board);
+        testBoard.playPlacement(role, PlacementIndex.unicorn(placement), PlacementIndex.paladins(placement));
+        return testBoard;
+    }
+
+    /** Exécute les tâches en parallèle jusqu'à l'échéance
+     * @return vrai si toutes les tâches se sont terminées avant l'échéance
+     */
+    private static boolean runUntil(List<Callable<Void>> tasks, long deadline) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) return false;
+        try {
+            List<Future<Void>> futures = POOL.invokeAll(tasks, remaining, TimeUnit.MILLISECONDS);
+            boolean complete = true;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (CancellationException e) {
+                    complete = false;
+                } catch (ExecutionException e) {
+                    complete = false;
+                    if (e.getCause() instanceof CancellationException) continue; // Recherche arrêtée à l'échéance
+                    System.err.println("Erreur pendant la recherche de placement : " + e.getCause());
+                }
+            }
+            return complete;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String firstOrNull(TopPlacements top) {
+        ArrayList<TopPlacements.Entry> sorted = top.sorted();
+        return sorted.isEmpty() ? null : sorted.get(0).placement;
+    }
+}
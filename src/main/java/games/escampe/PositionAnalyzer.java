@@ -0,0 +1,214 @@
+package games.escampe;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Analyse en lot d'un fichier (ou flux) de positions : meilleur coup, score, variante principale et nœuds
+ * de chaque position, écrits au fur et à mesure en JSON, un objet par ligne, dans l'ordre des positions.
+ *
+ * Les positions sont lues une à une (PositionIterator) et cherchées en parallèle par un SearchService :
+ * seules quelques positions par worker sont en mémoire à la fois, quelle que soit la taille de l'entrée.
+ *
+ * Formats d'entrée, mélangeables dans un même fichier :
+ * - une position par ligne au format de EscampeBoard.toCompactString ("-n-n-n/n-N--n/... B 1") ;
+ * - des blocs au format de plateau.txt : 6 lignes commençant par leur numéro ("01 ---b-- 01").
+ *   Ce format ne donne ni le trait ni la contrainte : le trait est celui de --turn, sans contrainte.
+ * Les lignes vides et les commentaires (%) sont ignorés ; une position illisible est signalée sur la sortie
+ * d'erreur et sautée.
+ *
+ * Exemple de sortie :
+ * {"index":0,"position":"-n-n-n/n-N--n/------/-b----/--bBb-/--b--b B 1","move":"F6-D6","score":2430,
+ *  "pv":["F6-D6","A1-A2","A6-C5"],"depth":4,"nodes":1532,"time_ms":3}
+ */
+public class PositionAnalyzer {
+
+    /** Analyse les positions d'un fichier
+     * Exemple: >java -cp . games.escampe.PositionAnalyzer --depth 6 --threads 4 positions.txt > scores.jsonl
+     *          >java -cp . games.escampe.PositionAnalyzer --time 500 --engine tt=data/escampe.tt - < positions.txt
+     */
+    public static void main(String[] args) throws IOException {
+        EngineConfig engine = EngineConfig.parse("engine=escampe");
+        Integer depth = null;
+        long timeMillis = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        EscampeRole turn = EscampeRole.WHITE;
+        String output = null;
+        String input = null;
+
+        for (int i = 0; i < args.length; i++) {
+            try {
+                switch (args[i]) {
+                    case "--engine": engine = EngineConfig.parse("engine=escampe," + value(args, ++i)); break;
+                    case "--depth": depth = Integer.parseInt(value(args, ++i)); break;
+                    case "--time": timeMillis = Long.parseLong(value(args, ++i)); break;
+                    case "--threads": threads = Integer.parseInt(value(args, ++i)); break;
+                    case "--turn":
+                        String side = value(args, ++i);
+                        if (!side.equals("B") && !side.equals("N")) usage();
+                        turn = side.equals("N") ? EscampeRole.BLACK : EscampeRole.WHITE;
+                        break;
+                    case "--output": output = value(args, ++i); break;
+                    default:
+                        if (input != null || (args[i].startsWith("--") && !args[i].equals("-"))) usage();
+                        input = args[i];
+                }
+            } catch (NumberFormatException e) {
+                usage();
+            }
+        }
+        if (input == null) {
+            System.err.println("PositionAnalyzer : fichier de positions manquant (- pour l'entrée standard)");
+            System.exit(1);
+        }
+        // En temps limité, la profondeur n'est qu'un plafond (SearchService.MAX_TIMED_DEPTH sans --depth)
+        int searchDepth = (depth != null) ? depth : (timeMillis > 0) ? 0 : engine.getDepth();
+
+        long start = System.currentTimeMillis();
+        long[] totals = new long[2]; // Positions, nœuds
+        try (BufferedReader in = input.equals("-")
+                     ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                     : Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+             Writer out = (output != null)
+                     ? Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)
+                     : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+             SearchService service = engine.createSearchService(threads)) {
+            service.analyseAll(new PositionIterator(in, turn), searchDepth, timeMillis, result -> {
+                try {
+                    out.write(toJson(totals[0]++, result));
+                    out.write('\n');
+                    out.flush(); // Résultats visibles pendant l'analyse (suivi, reprise après interruption)
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                totals[1] += result.nodes;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        System.err.println(totals[0] + " positions analysées en " + OpeningGenerator.formatTime(elapsed)
+                         + " (" + totals[1] * 1000 / elapsed + " nœuds/s)");
+    }
+
+    private static void usage() {
+        System.err.println("PositionAnalyzer Usage: [--engine spec] [--depth n] [--time ms] [--threads n]"
+                         + " [--turn B|N] [--output fichier] (fichier | -)");
+        System.exit(1);
+    }
+
+    /** @return la valeur de l'option qui précède args[i] (usage() si elle manque) */
+    private static String value(String[] args, int i) {
+        if (i >= args.length) usage();
+        return args[i];
+    }
+
+    /** Ligne JSON d'un résultat (coups et positions n'ont aucun caractère à échapper) */
+    static String toJson(long index, SearchService.Result result) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append("{\"index\":").append(index);
+        sb.append(",\"position\":\"").append(result.board.toCompactString()).append('"');
+        sb.append(",\"move\":");
+        if (result.move != null) sb.append('"').append(result.move).append('"');
+        else sb.append("null");
+        sb.append(",\"score\":").append(result.score);
+        sb.append(",\"pv\":[");
+        for (int i = 0; i < result.pv.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(result.pv.get(i)).append('"');
+        }
+        sb.append("],\"depth\":").append(result.depth);
+        sb.append(",\"nodes\":").append(result.nodes);
+        sb.append(",\"time_ms\":").append(result.timeMillis);
+        return sb.append('}').toString();
+    }
+
+    // --------------------- Lecture des positions ---------------------
+
+    /** Positions d'un flux texte, lues à la demande (une ligne d'avance au plus) */
+    static final class PositionIterator implements Iterator<EscampeBoard> {
+
+        private final BufferedReader in;
+        private final char turn;       // Trait des positions au format plateau.txt ('B' ou 'N')
+        private final StringBuilder rows = new StringBuilder(41); // Lignes du bloc plateau.txt en cours
+        private int rowCount;
+        private int lineNumber;
+        private EscampeBoard next;
+
+        PositionIterator(BufferedReader in, EscampeRole turn) {
+            this.in = in;
+            this.turn = (turn == EscampeRole.WHITE) ? 'B' : 'N';
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) next = read();
+            return next != null;
+        }
+
+        @Override
+        public EscampeBoard next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            EscampeBoard board = next;
+            next = null;
+            return board;
+        }
+
+        /** @return la position suivante, ou null à la fin du flux */
+        private EscampeBoard read() {
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    lineNumber++;
+                    line = line.trim();
+                    if (line.isEmpty() || line.charAt(0) == '%') continue;
+
+                    if (Character.isDigit(line.charAt(0))) { // Ligne de plateau.txt : les 6 premières cases lues
+                        if (rowCount > 0) rows.append('/');
+                        int cells = 0;
+                        for (int i = 0; i < line.length() && cells < 6; i++) {
+                            char c = line.charAt(i);
+                            if (c == '-' || c == 'b' || c == 'n' || c == 'B' || c == 'N') {
+                                rows.append(c);
+                                cells++;
+                            }
+                        }
+                        if (++rowCount < 6) continue;
+                        String compact = rows.append(' ').append(turn).append(" 0").toString();
+                        rows.setLength(0);
+                        rowCount = 0;
+                        EscampeBoard board = parse(compact);
+                        if (board != null) return board;
+                        continue;
+                    }
+
+                    EscampeBoard board = parse(line);
+                    if (board != null) return board;
+                }
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private EscampeBoard parse(String compact) {
+            try {
+                return EscampeBoard.fromCompactString(compact);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ligne " + lineNumber + " ignorée : " + e.getMessage());
+                return null;
+            }
+        }
+    }
+}
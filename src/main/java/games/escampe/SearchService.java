@@ -0,0 +1,182 @@
+package games.escampe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import iialib.games.algs.SearchHandle;
+import iialib.games.algs.SearchInfo;
+
+/**
+ * Service de recherche pour l'analyse de nombreuses positions (génération d'ouvertures, analyse en lot).
+ *
+ * Un nombre fixe de workers cherchent les positions soumises. Chaque worker garde ses propres moteurs
+ * EscampeSearch (un par rôle et par profondeur) d'une position à l'autre : les tampons de coups et de variantes
+ * ne sont alloués qu'une fois par worker, au lieu d'un AlphaBeta et d'un AIPlayer neufs par position.
+ * Tous les moteurs partagent la même TranspositionTable : les sous-arbres communs à plusieurs positions
+ * (mêmes placements, positions voisines d'un lot) ne sont cherchés qu'une fois.
+ *
+ * Une position est cherchée soit à profondeur fixe, soit en temps limité (approfondissement itératif
+ * arrêté à l'échéance, voir EscampeSearch.bestMoveAsync). Les résultats arrivent par CompletableFuture
+ * (submit, submitAll) ou, pour un flux de positions, dans l'ordre des positions (analyseAll).
+ */
+public final class SearchService implements AutoCloseable {
+
+    /** Profondeur maximale d'une recherche en temps limité sans profondeur donnée */
+    static final int MAX_TIMED_DEPTH = 32;
+
+    /** Résultat de la recherche d'une position */
+    public static final class Result {
+        public final EscampeBoard board;       // La position cherchée
+        public final EscampeRole role;         // Le joueur au trait, point de vue de score
+        public final EscampeMove move;         // Le meilleur coup, ou null si aucun coup n'est possible
+        public final int score;                // Valeur du meilleur coup pour role
+        public final List<EscampeMove> pv;     // Variante principale (commence par move, vide sans coup)
+        public final int depth;                // Profondeur terminée
+        public final long nodes;               // Nœuds visités (internes et feuilles)
+        public final long timeMillis;
+
+        Result(EscampeBoard board, EscampeRole role, EscampeMove move, int score, List<EscampeMove> pv,
+               int depth, long nodes, long timeMillis) {
+            this.board = board;
+            this.role = role;
+            this.move = move;
+            this.score = score;
+            this.pv = pv;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.timeMillis = timeMillis;
+        }
+    }
+
+    private static final AtomicInteger SERVICE_COUNT = new AtomicInteger();
+
+    private final ExecutorService workers;
+    private final int threads;
+    private final TranspositionTable tt;
+    private final int[] weights;
+    private final NnueNetwork network;
+    private final boolean extensions;
+
+    // Moteurs de chaque worker, par (profondeur, rôle) : jamais partagés entre threads
+    private final ThreadLocal<Map<Integer, EscampeSearch>> engines = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * @param threads nombre de workers
+     * @param tt la table partagée par les workers, ou null (voir TranspositionTable.inMemory et open)
+     * @param weights les poids de l'heuristique, ou null pour les poids globaux de EscampeHeuristics
+     * @param network le réseau d'évaluation, ou null
+     * @param extensions vrai pour les extensions des nœuds presque forcés (voir EscampeSearch)
+     */
+    public SearchService(int threads, TranspositionTable tt, int[] weights, NnueNetwork network, boolean extensions) {
+        int service = SERVICE_COUNT.incrementAndGet();
+        AtomicInteger workerCount = new AtomicInteger();
+        this.threads = Math.max(1, threads);
+        this.workers = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "search-service-" + service + "-" + workerCount.incrementAndGet());
+            t.setDaemon(true); // Ne bloque pas l'arrêt de la JVM
+            return t;
+        });
+        this.tt = tt;
+        this.weights = (weights != null) ? weights.clone() : null;
+        this.network = network;
+        this.extensions = extensions;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /** @return la table partagée, ou null */
+    public TranspositionTable getTranspositionTable() {
+        return tt;
+    }
+
+    // --------------------- Soumission ---------------------
+
+    /**
+     * Cherche une position sur un worker
+     * @param board la position (copiée : elle peut être modifiée après l'appel)
+     * @param role le joueur au trait
+     * @param depth profondeur de recherche ; en temps limité, profondeur maximale (0 = MAX_TIMED_DEPTH)
+     * @param timeMillis temps maximal de la recherche, ou 0 pour une recherche à profondeur fixe
+     */
+    public CompletableFuture<Result> submit(EscampeBoard board, EscampeRole role, int depth, long timeMillis) {
+        if (depth <= 0 && timeMillis <= 0)
+            throw new IllegalArgumentException("Profondeur ou temps requis");
+        EscampeBoard position = new EscampeBoard(board);
+        return CompletableFuture.supplyAsync(() -> search(position, role, depth, timeMillis), workers);
+    }
+
+    /** Soumet un lot de positions, toutes cherchées pour role avec les mêmes limites
+     * @return un résultat par position, dans l'ordre du lot
+     */
+    public List<CompletableFuture<Result>> submitAll(List<EscampeBoard> boards, EscampeRole role, int depth, long timeMillis) {
+        List<CompletableFuture<Result>> results = new ArrayList<>(boards.size());
+        for (EscampeBoard board : boards) results.add(submit(board, role, depth, timeMillis));
+        return results;
+    }
+
+    /**
+     * Cherche un flux de positions (chacune pour son joueur au trait) sans le charger en mémoire :
+     * au plus 2 positions par worker sont en cours à la fois. Les résultats sont donnés à sink dans
+     * l'ordre des positions, sur le thread appelant.
+     */
+    public void analyseAll(Iterator<EscampeBoard> positions, int depth, long timeMillis, Consumer<? super Result> sink) {
+        ArrayDeque<CompletableFuture<Result>> pending = new ArrayDeque<>();
+        int window = 2 * threads;
+        while (positions.hasNext()) {
+            EscampeBoard board = positions.next();
+            pending.add(submit(board, board.getCurrentTurn(), depth, timeMillis));
+            if (pending.size() >= window) sink.accept(pending.poll().join());
+        }
+        while (!pending.isEmpty()) sink.accept(pending.poll().join());
+    }
+
+    /** Arrête les workers ; les recherches déjà soumises sont terminées */
+    @Override
+    public void close() {
+        workers.shutdown();
+        if (tt != null) tt.flush();
+    }
+
+    // --------------------- Recherche (sur un worker) ---------------------
+
+    private Result search(EscampeBoard position, EscampeRole role, int depth, long timeMillis) {
+        long start = System.currentTimeMillis();
+        if (timeMillis <= 0) {
+            EscampeSearch engine = engine(role, depth);
+            EscampeMove move = engine.bestMove(position, role);
+            List<EscampeMove> pv = engine.getPrincipalVariation();
+            if (pv.isEmpty() && move != null) pv = List.of(move); // Placement
+            return new Result(position, role, move, (move != null) ? engine.getLastValue() : 0, pv, depth,
+                              engine.getNbNodes(), System.currentTimeMillis() - start);
+        }
+
+        // Temps limité : le moteur cherche sur un thread de recherche pendant que ce worker attend
+        EscampeSearch engine = engine(role, (depth > 0) ? depth : MAX_TIMED_DEPTH);
+        SearchHandle<EscampeMove> handle = engine.bestMoveAsync(position, role, null);
+        EscampeMove move = handle.awaitOrStop(timeMillis, TimeUnit.MILLISECONDS);
+        SearchInfo<EscampeMove> info = handle.getLatestInfo();
+        long elapsed = System.currentTimeMillis() - start;
+        if (move == null) return new Result(position, role, null, 0, List.of(), 0, 0, elapsed);
+        if (info == null) // Arrêtée avant la fin de la profondeur 1
+            return new Result(position, role, move, 0, List.of(move), 0, 0, elapsed);
+        return new Result(position, role, move, info.getScore(), info.getPv(), info.getDepth(), info.getNodes(), elapsed);
+    }
+
+    /** @return le moteur de ce worker pour ce rôle et cette profondeur */
+    private EscampeSearch engine(EscampeRole role, int depth) {
+        int key = (depth << 1) | ((role == EscampeRole.WHITE) ? 1 : 0);
+        return engines.get().computeIfAbsent(key, k -> new EscampeSearch(role, depth, weights, network, tt, extensions));
+    }
+}
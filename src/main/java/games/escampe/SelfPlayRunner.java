@@ -0,0 +1,352 @@
+package games.escampe;
+
+import iialib.games.algs.GameAlgorithm;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Matchs automatiques moteur contre moteur, sans affichage ni fichier : chaque partie a son propre
+ * plateau et ses propres algorithmes, ce qui permet d'en jouer autant en parallèle que de cœurs.
+ *
+ * Chaque ouverture (placement Noir, placement Blanc) est jouée deux fois, couleurs inversées,
+ * pour que l'avantage d'une ouverture ne favorise aucun des deux moteurs.
+ *
+ * Avec --positions, toutes les positions jouées sont écrites avec le résultat de leur partie
+ * (une ligne "positionCompacte;résultat", résultat 1 = Noir gagne, -1 = Blanc gagne, 0 = nulle)
+ * pour le réglage des poids de l'heuristique (TexelTuner). Avec --records, chaque partie est ajoutée au
+ * format binaire de GameRecord, directement depuis les threads qui jouent.
+ *
+ * Exemple: >java -cp . games.escampe.SelfPlayRunner --a depth=4 --b depth=3 --games 1000 --seed 42
+ */
+public class SelfPlayRunner {
+
+    public static final int DEFAULT_MAX_PLIES = 300; // Au-delà la partie est nulle
+    private static final int IN_FLIGHT_PER_THREAD = 2; // Parties soumises d'avance par thread
+
+    /** Une ouverture : les deux placements initiaux (numéros PlacementIndex) */
+    public static final class Opening {
+        public final int black;
+        public final int white;
+
+        public Opening(int black, int white) {
+            this.black = black;
+            this.white = white;
+        }
+
+        @Override
+        public String toString() {
+            return PlacementIndex.toString(black) + " " + PlacementIndex.toString(white);
+        }
+    }
+
+    /** Résultat d'une partie, du point de vue du moteur A */
+    public static final class GameResult {
+        public final int game;
+        public final Opening opening;
+        public final boolean aIsBlack;
+        public final int winner; // 1 = Noir, -1 = Blanc, 0 = nulle (constantes de IJoueur)
+        public final int plies;
+        public final long nanos;
+        public final List<String> positions; // Positions compactes de la partie, null si non enregistrées
+
+        GameResult(int game, Opening opening, boolean aIsBlack, int winner, int plies, long nanos, List<String> positions) {
+            this.game = game;
+            this.opening = opening;
+            this.aIsBlack = aIsBlack;
+            this.winner = winner;
+            this.plies = plies;
+            this.nanos = nanos;
+            this.positions = positions;
+        }
+
+        /** @return 1 si A gagne, 0 en cas de nulle, -1 si A perd */
+        public int scoreForA() {
+            return aIsBlack ? winner : -winner;
+        }
+    }
+
+    /** Reçoit chaque résultat au fil de l'eau */
+    public interface GameListener {
+        /** @return faux pour arrêter le match (les parties déjà lancées sont terminées) */
+        boolean onGame(GameResult result);
+    }
+
+    /** Bilan d'un match, du point de vue du moteur A */
+    public static final class Summary {
+        public int games, wins, draws, losses;
+        public long totalPlies;
+        public long elapsedMillis;
+
+        void add(GameResult result) {
+            games++;
+            totalPlies += result.plies;
+            int score = result.scoreForA();
+            if (score > 0) wins++;
+            else if (score < 0) losses++;
+            else draws++;
+        }
+
+        public double score() {
+            return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+        }
+
+        public double gamesPerMinute() {
+            return games * 60_000.0 / Math.max(1, elapsedMillis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d parties : +%d =%d -%d (score %.1f %%), %.1f coups/partie, %.1f parties/min",
+                    games, wins, draws, losses, 100 * score(), games == 0 ? 0.0 : (double) totalPlies / games, gamesPerMinute());
+        }
+    }
+
+    private final EngineConfig engineA;
+    private final EngineConfig engineB;
+    private final int numThreads;
+    private final int maxPlies;
+    private boolean recordPositions = false;
+    private GameRecordWriter recordWriter = null;
+
+    public SelfPlayRunner(EngineConfig engineA, EngineConfig engineB, int numThreads, int maxPlies) {
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.numThreads = numThreads;
+        this.maxPlies = maxPlies;
+    }
+
+    /** Enregistre chaque partie terminée dans un fichier de parties (null pour désactiver) */
+    public void setRecordWriter(GameRecordWriter recordWriter) {
+        this.recordWriter = recordWriter;
+    }
+
+    /** Active l'enregistrement des positions de chaque partie dans GameResult.positions */
+    public void setRecordPositions(boolean recordPositions) {
+        this.recordPositions = recordPositions;
+    }
+
+    public static void main(String[] args) throws IOException {
+        EngineConfig a = EngineConfig.parse("depth=4");
+        EngineConfig b = EngineConfig.parse("depth=3");
+        int games = 100;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPlies = DEFAULT_MAX_PLIES;
+        long seed = System.nanoTime();
+        String openingsFile = null;
+        String positionsFile = null;
+        String recordsFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--a": a = EngineConfig.parse(args[++i]); break;
+                case "--b": b = EngineConfig.parse(args[++i]); break;
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--max-plies": maxPlies = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--openings": openingsFile = args[++i]; break;
+                case "--positions": positionsFile = args[++i]; break;
+                case "--records": recordsFile = args[++i]; break;
+                default:
+                    System.err.println("SelfPlayRunner Usage: [--a spec] [--b spec] [--games n] [--threads n]"
+                                     + " [--max-plies n] [--seed s | --openings fichier] [--positions fichier] [--records fichier]");
+                    System.exit(1);
+            }
+        }
+
+        List<Opening> openings = (openingsFile != null)
+                ? loadOpenings(Paths.get(openingsFile))
+                : randomOpenings((games + 1) / 2, seed);
+
+        System.out.println(a + " contre " + b + " : " + games + " parties sur " + threads + " threads, "
+                         + openings.size() + " ouvertures" + (openingsFile == null ? " (graine " + seed + ")" : ""));
+
+        SelfPlayRunner runner = new SelfPlayRunner(a, b, threads, maxPlies);
+        runner.setRecordPositions(positionsFile != null);
+        int step = Math.max(1, games / 10);
+        try (BufferedWriter positions = (positionsFile != null) ? Files.newBufferedWriter(Paths.get(positionsFile)) : null;
+             GameRecordWriter records = (recordsFile != null) ? new GameRecordWriter(Paths.get(recordsFile)) : null) {
+            runner.setRecordWriter(records);
+            Summary summary = runner.run(openings, games, result -> {
+                if ((result.game + 1) % step == 0) System.out.print(".");
+                if (positions != null) writePositions(positions, result);
+                return true;
+            });
+            System.out.println();
+            System.out.println(a.getName() + " contre " + b.getName() + " : " + summary);
+            if (records != null) System.out.println(records.getRecords() + " parties ajoutées à " + recordsFile);
+        }
+    }
+
+    /** Écrit les positions d'une partie, chacune suivie du résultat de la partie */
+    private static void writePositions(BufferedWriter out, GameResult result) {
+        try {
+            for (String position : result.positions) {
+                out.write(position);
+                out.write(';');
+                out.write(Integer.toString(result.winner));
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // --------------------- Ouvertures ---------------------
+
+    /** Ouvertures tirées au hasard (reproductibles avec la même graine) */
+    public static List<Opening> randomOpenings(int count, long seed) {
+        Random random = new Random(seed);
+        List<Opening> openings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int black = random.nextInt(PlacementIndex.COUNT);
+            int white = PlacementIndex.opponentBase(black) + random.nextInt(PlacementIndex.PER_SIDE);
+            openings.add(new Opening(black, white));
+        }
+        return openings;
+    }
+
+    /** Lit un fichier d'ouvertures : une par ligne, "placementNoir placementBlanc",
+     * chaque placement étant un numéro PlacementIndex ou au format "C6/A6/B5/D5/E6/F5"
+     */
+    public static List<Opening> loadOpenings(Path file) throws IOException {
+        List<Opening> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("%")) continue;
+            String[] parts = line.split("\\s+");
+            if (parts.length < 2) continue;
+            openings.add(new Opening(parsePlacement(parts[0]), parsePlacement(parts[1])));
+        }
+        if (openings.isEmpty()) throw new IOException("Aucune ouverture dans " + file);
+        return openings;
+    }
+
+    private static int parsePlacement(String s) {
+        return s.indexOf('/') >= 0 ? PlacementIndex.rank(s) : Integer.parseInt(s);
+    }
+
+    // --------------------- Match ---------------------
+
+    /**
+     * Joue un match en parallèle
+     * @param openings les ouvertures, parcourues en boucle (deux parties par ouverture)
+     * @param games nombre maximal de parties
+     * @param listener appelé pour chaque partie dans l'ordre de fin (sur le thread appelant)
+     * @return le bilan du match
+     */
+    public Summary run(List<Opening> openings, int games, GameListener listener) {
+        long start = System.currentTimeMillis();
+        Summary summary = new Summary();
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads, r -> {
+            Thread t = new Thread(r, "self-play");
+            t.setDaemon(true);
+            return t;
+        });
+        ExecutorCompletionService<GameResult> completion = new ExecutorCompletionService<>(pool);
+
+        int submitted = 0, inFlight = 0;
+        boolean stopped = false;
+        try {
+            while (submitted < games && inFlight < numThreads * IN_FLIGHT_PER_THREAD) {
+                submitGame(completion, openings, submitted++);
+                inFlight++;
+            }
+            while (inFlight > 0) {
+                GameResult result = completion.take().get();
+                inFlight--;
+                summary.add(result);
+                if (!stopped && !listener.onGame(result)) stopped = true;
+                if (!stopped && submitted < games) {
+                    submitGame(completion, openings, submitted++);
+                    inFlight++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur pendant une partie", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        summary.elapsedMillis = System.currentTimeMillis() - start;
+        return summary;
+    }
+
+    private void submitGame(ExecutorCompletionService<GameResult> completion, List<Opening> openings, int game) {
+        Opening opening = openings.get((game / 2) % openings.size());
+        boolean aIsBlack = (game % 2 == 0);
+        completion.submit(() -> playGame(game, opening, aIsBlack));
+    }
+
+    /** Joue une partie complète à partir d'une ouverture */
+    GameResult playGame(int game, Opening opening, boolean aIsBlack) {
+        long start = System.nanoTime();
+        EngineConfig blackEngine = aIsBlack ? engineA : engineB;
+        EngineConfig whiteEngine = aIsBlack ? engineB : engineA;
+        GameAlgorithm<EscampeMove, EscampeRole, EscampeBoard> black = blackEngine.createAlgorithm(EscampeRole.BLACK);
+        GameAlgorithm<EscampeMove, EscampeRole, EscampeBoard> white = whiteEngine.createAlgorithm(EscampeRole.WHITE);
+
+        EscampeBoard board = OpeningGenerator.boardWithPlacements(opening.black, opening.white);
+        EscampeRole toMove = EscampeRole.WHITE; // Le Blanc joue le premier déplacement
+        EscampeMove pass = new EscampeMove("E");
+        int plies = 2, consecutivePasses = 0;
+        int winner = 0;
+        List<String> positions = recordPositions ? new ArrayList<>() : null;
+        short[] moves = new short[16];
+        int[] moveMillis = new int[16];
+        int recorded = 0;
+
+        while (plies < maxPlies) {
+            if (positions != null) positions.add(board.toCompactString());
+            long moveStart = System.nanoTime();
+            EscampeMove move = (toMove == EscampeRole.BLACK ? black : white).bestMove(board, toMove);
+            long moveNanos = System.nanoTime() - moveStart;
+            if (move == null) {
+                // Aucun coup possible : le joueur passe ; deux passes de suite bloquent la partie
+                if (++consecutivePasses >= 2) break;
+                move = pass;
+            } else {
+                consecutivePasses = 0;
+            }
+            board.playVoid(move, toMove);
+            plies++;
+            if (recorded == moves.length) {
+                moves = Arrays.copyOf(moves, 2 * recorded);
+                moveMillis = Arrays.copyOf(moveMillis, 2 * recorded);
+            }
+            moves[recorded] = GameRecord.encodeMove(move);
+            moveMillis[recorded++] = (int) (moveNanos / 1_000_000);
+
+            if (board.isGameOver()) {
+                winner = (board.getBlackUnicorn() == 0L) ? IJoueur.BLANC : IJoueur.NOIR;
+                break;
+            }
+            toMove = (toMove == EscampeRole.BLACK) ? EscampeRole.WHITE : EscampeRole.BLACK;
+        }
+        long nanos = System.nanoTime() - start;
+        if (recordWriter != null) {
+            try {
+                recordWriter.append(new GameRecord(opening.black, opening.white, winner, nanos / 1_000_000,
+                        Arrays.copyOf(moves, recorded), null, Arrays.copyOf(moveMillis, recorded)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new GameResult(game, opening, aIsBlack, winner, plies, nanos, positions);
+    }
+}
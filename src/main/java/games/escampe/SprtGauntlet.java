@@ -0,0 +1,136 @@
+package games.escampe;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Test séquentiel du rapport de vraisemblance (SPRT) entre deux configurations de moteur.
+ * Les parties sont jouées par SelfPlayRunner et le match s'arrête dès que l'une des hypothèses est établie :
+ *   H0 : A a elo0 points Elo de plus que B (en général 0 : pas de gain)
+ *   H1 : A a elo1 points Elo de plus que B (gain visé)
+ * avec un risque alpha d'accepter H1 à tort et beta d'accepter H0 à tort.
+ *
+ * Le rapport de vraisemblance utilise l'approximation normale du score trinomial (victoire/nulle/défaite)
+ * habituelle des outils de test de moteurs d'échecs.
+ *
+ * Exemple: >java -cp . games.escampe.SprtGauntlet --a depth=4 --b depth=4,negamax --elo0 -5 --elo1 5
+ */
+public class SprtGauntlet {
+
+    private final double elo0, elo1;
+    private final double lowerBound, upperBound; // Bornes du log-rapport de vraisemblance
+
+    public SprtGauntlet(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    public static void main(String[] args) throws IOException {
+        EngineConfig a = EngineConfig.parse("depth=4");
+        EngineConfig b = EngineConfig.parse("depth=3");
+        double elo0 = 0, elo1 = 10, alpha = 0.05, beta = 0.05;
+        int maxGames = 20_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPlies = SelfPlayRunner.DEFAULT_MAX_PLIES;
+        long seed = System.nanoTime();
+        String openingsFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--a": a = EngineConfig.parse(args[++i]); break;
+                case "--b": b = EngineConfig.parse(args[++i]); break;
+                case "--elo0": elo0 = Double.parseDouble(args[++i]); break;
+                case "--elo1": elo1 = Double.parseDouble(args[++i]); break;
+                case "--alpha": alpha = Double.parseDouble(args[++i]); break;
+                case "--beta": beta = Double.parseDouble(args[++i]); break;
+                case "--max-games": maxGames = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--max-plies": maxPlies = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--openings": openingsFile = args[++i]; break;
+                default:
+                    System.err.println("SprtGauntlet Usage: [--a spec] [--b spec] [--elo0 e] [--elo1 e] [--alpha a] [--beta b]"
+                                     + " [--max-games n] [--threads n] [--max-plies n] [--seed s | --openings fichier]");
+                    System.exit(1);
+            }
+        }
+
+        List<SelfPlayRunner.Opening> openings = (openingsFile != null)
+                ? SelfPlayRunner.loadOpenings(Paths.get(openingsFile))
+                : SelfPlayRunner.randomOpenings((maxGames + 1) / 2, seed);
+
+        SprtGauntlet sprt = new SprtGauntlet(elo0, elo1, alpha, beta);
+        System.out.println("SPRT " + a + " contre " + b + " : H0 elo=" + elo0 + ", H1 elo=" + elo1
+                         + ", alpha=" + alpha + ", beta=" + beta + String.format(" (LLR dans [%.2f, %.2f])", sprt.lowerBound, sprt.upperBound));
+
+        SelfPlayRunner runner = new SelfPlayRunner(a, b, threads, maxPlies);
+        int[] wdl = new int[3];
+        String[] verdict = {null};
+        SelfPlayRunner.Summary summary = runner.run(openings, maxGames, result -> {
+            wdl[1 - result.scoreForA()]++; // 0 = victoire, 1 = nulle, 2 = défaite
+            int games = wdl[0] + wdl[1] + wdl[2];
+            double llr = sprt.llr(wdl[0], wdl[1], wdl[2]);
+            if (games % 20 == 0) {
+                System.out.println(String.format("%6d parties  +%d =%d -%d  LLR %.2f  %s",
+                        games, wdl[0], wdl[1], wdl[2], llr, formatElo(wdl[0], wdl[1], wdl[2])));
+            }
+            verdict[0] = sprt.verdict(llr);
+            return verdict[0] == null;
+        });
+
+        // Les parties en cours à l'arrêt du test comptent dans le bilan mais pas dans la décision
+        System.out.println(a.getName() + " contre " + b.getName() + " : " + summary);
+        System.out.println("Elo de A : " + formatElo(summary.wins, summary.draws, summary.losses));
+        System.out.println("Décision : " + (verdict[0] != null ? verdict[0] : "aucune (limite de " + maxGames + " parties atteinte)"));
+    }
+
+    // --------------------- Statistiques ---------------------
+
+    /** Log-rapport de vraisemblance de H1 contre H0 pour les résultats observés
+     * @return 0 tant que la variance du score est nulle (pas encore d'information)
+     */
+    public double llr(int wins, int draws, int losses) {
+        int n = wins + draws + losses;
+        if (n == 0) return 0.0;
+        double mean = (wins + 0.5 * draws) / n;
+        double variance = (wins * sq(1 - mean) + draws * sq(0.5 - mean) + losses * sq(mean)) / n;
+        if (variance <= 0) return 0.0;
+        double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+        return n * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+    }
+
+    /** @return "H1" (gain établi), "H0" (pas de gain) ou null si le test doit continuer */
+    public String verdict(double llr) {
+        if (llr >= upperBound) return "H1 acceptée : A est plus fort d'au moins " + elo1 + " Elo";
+        if (llr <= lowerBound) return "H0 acceptée : A n'est pas plus fort de " + elo1 + " Elo";
+        return null;
+    }
+
+    /** Écart Elo estimé avec son intervalle de confiance à 95 % */
+    public static String formatElo(int wins, int draws, int losses) {
+        int n = wins + draws + losses;
+        if (n == 0) return "Elo ?";
+        double mean = (wins + 0.5 * draws) / n;
+        double variance = (wins * sq(1 - mean) + draws * sq(0.5 - mean) + losses * sq(mean)) / n;
+        double margin = 1.96 * Math.sqrt(variance / n);
+        double elo = eloFromScore(mean);
+        double low = eloFromScore(mean - margin), high = eloFromScore(mean + margin);
+        return String.format("Elo %+.1f ± %.1f", elo, (high - low) / 2);
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double eloFromScore(double score) {
+        double s = Math.min(Math.max(score, 1e-3), 1 - 1e-3); // Borné pour éviter des Elo infinis
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    private static double sq(double x) {
+        return x * x;
+    }
+}
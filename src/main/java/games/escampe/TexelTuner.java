@@ -0,0 +1,243 @@
+package games.escampe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Réglage des poids de EscampeHeuristics par la méthode de Texel : on cherche les poids qui minimisent
+ * l'erreur quadratique entre sigmoid(K * évaluation) et le résultat réel des parties dont sont issues
+ * les positions.
+ *
+ * Les positions viennent de SelfPlayRunner --positions (lignes "positionCompacte;résultat") ou sont rejouées
+ * depuis un fichier de parties binaire (SelfPlayRunner --records). Elles sont lues
+ * par blocs et leurs caractéristiques extraites en parallèle, puis chaque position donne deux exemples :
+ * l'un du point de vue Blanc, l'autre du point de vue Noir. L'optimisation est une recherche locale poids par
+ * poids (pas divisé par deux quand plus rien ne progresse) dont chaque calcul d'erreur utilise tous les cœurs.
+ *
+ * Exemple: >java -cp . games.escampe.TexelTuner --positions positions.txt --out .\data\weights.txt
+ */
+public class TexelTuner {
+
+    private static final int CHUNK_LINES = 50_000; // Lignes lues avant chaque extraction parallèle
+    private static final int F = EscampeHeuristics.NUM_FEATURES;
+
+    // Exemples : F caractéristiques puis la cible (1 = victoire, 0.5 = nulle, 0 = défaite) par exemple
+    private float[] features = new float[1024 * F];
+    private float[] targets = new float[1024];
+    private int size = 0;
+
+    public static void main(String[] args) throws IOException {
+        String positionsFile = null;
+        String recordsFile = null;
+        String outFile = EscampeHeuristics.WEIGHTS_FILE;
+        int maxPositions = Integer.MAX_VALUE;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--positions": positionsFile = value(args, ++i); break;
+                case "--records": recordsFile = value(args, ++i); break;
+                case "--out": outFile = value(args, ++i); break;
+                case "--max-positions":
+                    try {
+                        maxPositions = Integer.parseInt(value(args, ++i));
+                    } catch (NumberFormatException e) {
+                        usage();
+                    }
+                    break;
+                default: usage();
+            }
+        }
+        if (positionsFile == null && recordsFile == null) usage();
+
+        long start = System.currentTimeMillis();
+        TexelTuner tuner = new TexelTuner();
+        if (positionsFile != null) tuner.load(Paths.get(positionsFile), maxPositions);
+        else tuner.loadRecords(Paths.get(recordsFile), maxPositions);
+        System.out.println(tuner.size + " exemples chargés en " + OpeningGenerator.formatTime(System.currentTimeMillis() - start));
+
+        int[] initial = EscampeHeuristics.getWeights();
+        double k = tuner.fitK(initial);
+        System.out.println(String.format("K = %.3e, erreur initiale %.6f", k, tuner.error(initial, k)));
+
+        int[] tuned = tuner.tune(initial, k);
+        double finalError = tuner.error(tuned, k);
+        System.out.println("Poids réglés : " + Arrays.toString(tuned));
+
+        AtomicFiles.writeAtomically(Paths.get(outFile), EscampeHeuristics.formatWeights(tuned,
+                String.format("Réglage Texel sur %d exemples, K = %.3e, erreur %.6f", tuner.size, k, finalError)));
+        System.out.println("Poids écrits dans " + outFile + " en " + OpeningGenerator.formatTime(System.currentTimeMillis() - start));
+    }
+
+    private static void usage() {
+        System.err.println("TexelTuner Usage: (--positions fichier | --records fichier) [--out fichierPoids] [--max-positions n]");
+        System.exit(1);
+    }
+
+    /** @return la valeur de l'option qui précède args[i] (usage() si elle manque) */
+    private static String value(String[] args, int i) {
+        if (i >= args.length) usage();
+        return args[i];
+    }
+
+    // --------------------- Chargement ---------------------
+
+    /** Lit le fichier de positions par blocs et extrait les caractéristiques en parallèle */
+    void load(Path file, int maxPositions) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            int read = 0;
+            String line;
+            while (read < maxPositions && (line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("%")) continue;
+                chunk.add(line);
+                read++;
+                if (chunk.size() == CHUNK_LINES) {
+                    addLines(chunk);
+                    chunk.clear();
+                }
+            }
+            addLines(chunk);
+        }
+    }
+
+    /** Rejoue les parties d'un fichier binaire et en extrait les caractéristiques par blocs */
+    void loadRecords(Path file, int maxPositions) throws IOException {
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            List<EscampeBoard> boards = new ArrayList<>(CHUNK_LINES);
+            int[] winners = new int[CHUNK_LINES + 512];
+            int read = 0;
+            GameRecord record;
+            while (read < maxPositions && (record = reader.next()) != null) {
+                for (EscampeBoard board : record.positions()) {
+                    if (boards.size() == winners.length) winners = Arrays.copyOf(winners, 2 * winners.length);
+                    winners[boards.size()] = record.result;
+                    boards.add(board);
+                    read++;
+                }
+                if (boards.size() >= CHUNK_LINES) {
+                    int[] w = winners;
+                    addChunk(boards.size(), boards::get, i -> w[i]);
+                    boards.clear();
+                }
+            }
+            int[] w = winners;
+            addChunk(boards.size(), boards::get, i -> w[i]);
+        }
+    }
+
+    private void addLines(List<String> lines) {
+        addChunk(lines.size(),
+                i -> EscampeBoard.fromCompactString(lines.get(i).substring(0, lines.get(i).lastIndexOf(';'))),
+                i -> Integer.parseInt(lines.get(i).substring(lines.get(i).lastIndexOf(';') + 1).trim()));
+    }
+
+    /** Extrait en parallèle les caractéristiques de n positions et les ajoute aux exemples
+     * @param positions la i-ème position
+     * @param winners le résultat de la partie de la i-ème position (1 = Noir, -1 = Blanc, 0 = nulle)
+     */
+    private void addChunk(int n, IntFunction<EscampeBoard> positions, IntUnaryOperator winners) {
+        float[] chunkFeatures = new float[2 * n * F];
+        float[] chunkTargets = new float[2 * n];
+        boolean[] valid = new boolean[2 * n];
+
+        IntStream.range(0, n).parallel().forEach(i -> {
+            EscampeBoard board = positions.apply(i);
+            int winner = winners.applyAsInt(i);
+            double[] f = new double[F];
+            EscampeRole[] roles = {EscampeRole.WHITE, EscampeRole.BLACK};
+            for (int r = 0; r < 2; r++) {
+                int sample = 2 * i + r;
+                if (!EscampeHeuristics.extractFeatures(board, roles[r], f)) continue; // Position terminale
+                for (int j = 0; j < F; j++) chunkFeatures[sample * F + j] = (float) f[j];
+                int sign = (roles[r] == EscampeRole.BLACK) ? winner : -winner;
+                chunkTargets[sample] = (sign + 1) / 2.0f;
+                valid[sample] = true;
+            }
+        });
+
+        for (int sample = 0; sample < 2 * n; sample++) {
+            if (!valid[sample]) continue;
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, 2 * size);
+                features = Arrays.copyOf(features, 2 * size * F);
+            }
+            System.arraycopy(chunkFeatures, sample * F, features, size * F, F);
+            targets[size++] = chunkTargets[sample];
+        }
+    }
+
+    // --------------------- Optimisation ---------------------
+
+    /** Erreur quadratique moyenne des prédictions sigmoid(K * évaluation), calculée sur tous les cœurs */
+    double error(int[] weights, double k) {
+        double sum = IntStream.range(0, size).parallel().mapToDouble(i -> {
+            double eval = 0;
+            int base = i * F;
+            for (int j = 0; j < F; j++) eval += weights[j] * features[base + j];
+            double predicted = 1 / (1 + Math.exp(-k * eval));
+            double diff = targets[i] - predicted;
+            return diff * diff;
+        }).sum();
+        return sum / Math.max(1, size);
+    }
+
+    /** Échelle K de la sigmoïde qui colle le mieux aux poids actuels (section dorée sur log10 K) */
+    double fitK(int[] weights) {
+        double lo = -7, hi = -1;
+        double phi = (Math.sqrt(5) - 1) / 2;
+        for (int iter = 0; iter < 40; iter++) {
+            double a = hi - phi * (hi - lo), b = lo + phi * (hi - lo);
+            if (error(weights, Math.pow(10, a)) < error(weights, Math.pow(10, b))) hi = b; else lo = a;
+        }
+        return Math.pow(10, (lo + hi) / 2);
+    }
+
+    /** Recherche locale : essaie w ± pas sur chaque poids, garde les améliorations, divise le pas quand plus rien ne progresse */
+    int[] tune(int[] initial, double k) {
+        int[] best = initial.clone();
+        double bestError = error(best, k);
+        int[] steps = new int[F];
+        for (int j = 0; j < F; j++) steps[j] = Math.max(1, Math.abs(initial[j]) / 4);
+
+        int pass = 0;
+        boolean anyStep = true;
+        while (anyStep) {
+            boolean improved = false;
+            for (int j = 0; j < F; j++) {
+                for (int dir : new int[]{1, -1}) {
+                    int[] candidate = best.clone();
+                    candidate[j] += dir * steps[j];
+                    double e = error(candidate, k);
+                    if (e < bestError) {
+                        best = candidate;
+                        bestError = e;
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+            pass++;
+            System.out.println(String.format("Passe %d : erreur %.6f, poids %s", pass, bestError, Arrays.toString(best)));
+
+            if (!improved) {
+                anyStep = false;
+                for (int j = 0; j < F; j++) {
+                    if (steps[j] > 1) {
+                        steps[j] /= 2;
+                        anyStep = true;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
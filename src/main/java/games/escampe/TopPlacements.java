@@ -0,0 +1,69 @@
+package games.escampe;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Tas borné conservant les k placements de meilleur score.
+ * Remplace la Map de tous les scores suivie d'un tri complet : la mémoire reste en O(k)
+ * et l'ordre est déterministe (score décroissant, puis placement croissant), quel que soit
+ * l'ordre d'arrivée des résultats ou le découpage en shards.
+ */
+class TopPlacements {
+
+    /** Un placement et son score */
+    static final class Entry {
+        final String placement;
+        final int score;
+
+        Entry(String placement, int score) {
+            this.placement = placement;
+            this.score = score;
+        }
+    }
+
+    // Du meilleur au moins bon : score décroissant, puis ordre alphabétique pour départager
+    static final Comparator<Entry> BEST_FIRST =
+            Comparator.<Entry>comparingInt(e -> e.score).reversed().thenComparing(e -> e.placement);
+
+    private final int capacity;
+    private final PriorityQueue<Entry> heap; // Tas min : la racine est le moins bon des k conservés
+
+    TopPlacements(int capacity) {
+        this.capacity = capacity;
+        this.heap = new PriorityQueue<>(capacity + 1, BEST_FIRST.reversed());
+    }
+
+    /** Propose un placement, conservé seulement s'il fait partie des k meilleurs
+     * @param placement le placement (format "A1/B2/C1/D2/E1/F2")
+     * @param score son score
+     */
+    synchronized void offer(String placement, int score) {
+        Entry entry = new Entry(placement, score);
+        if (heap.size() < capacity) {
+            heap.add(entry);
+        } else if (BEST_FIRST.compare(entry, heap.peek()) < 0) { // Meilleur que le moins bon conservé
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    /** Fusionne un autre tas dans celui-ci
+     * @param other le tas à fusionner
+     */
+    void addAll(TopPlacements other) {
+        for (Entry e : other.sorted()) offer(e.placement, e.score);
+    }
+
+    /** @return les placements conservés, du meilleur au moins bon */
+    synchronized ArrayList<Entry> sorted() {
+        ArrayList<Entry> list = new ArrayList<>(heap);
+        list.sort(BEST_FIRST);
+        return list;
+    }
+
+    synchronized int size() {
+        return heap.size();
+    }
+}
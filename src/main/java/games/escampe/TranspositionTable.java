@@ -0,0 +1,219 @@
+package games.escampe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Table de transposition d'EscampeSearch, en mémoire ou projetée en mémoire depuis un fichier (MappedByteBuffer).
+ *
+ * Version fichier : les résultats de recherche survivent au processus. Les parties successives (ClientJeu crée
+ * un EscampePlayer neuf à chaque partie), les workers de génération d'ouvertures et les analyses repartent
+ * donc d'une table déjà remplie. Plusieurs processus peuvent utiliser le même fichier en même temps :
+ * - l'en-tête (format, nombre d'entrées, graine de Zobrist, empreinte de l'évaluation) est lu et, s'il est
+ *   incompatible, réinitialisé sous un verrou exclusif sur le fichier. Le fichier n'est alors jamais raccourci
+ *   (un processus qui le projette encore recevrait SIGBUS), seulement remis à zéro ;
+ * - les entrées sont lues et écrites sans verrou. Chacune fait deux longs : (clé ^ données ^ sel) puis données.
+ *   Une entrée écrite à moitié ou mélangée par deux écrivains ne vérifie plus la somme et est ignorée.
+ *   Le sel dérive de l'empreinte de l'évaluation : les écritures tardives d'un processus qui utilise encore
+ *   une ancienne évaluation sur un fichier réinitialisé sont ignorées de la même façon.
+ * Dans un même processus, open renvoie la même instance pour un même fichier (les threads la partagent).
+ *
+ * Les valeurs sont stockées du point de vue du moteur, avec la profondeur restante, le type de borne
+ * et le meilleur coup (code de EscampeBoard.generateMoves). L'heuristique n'étant pas symétrique, un moteur
+ * Noir n'utilise pas les valeurs d'un moteur Blanc : EscampeSearch ajoute EscampeZobrist.BLACK_ENGINE à ses clés.
+ * Une entrée ne remplace une entrée plus profonde d'une autre position que si celle-ci date d'une recherche
+ * précédente (génération : incrémentée à chaque ouverture du fichier et à chaque newSearch).
+ */
+public final class TranspositionTable {
+
+    public static final int BOUND_LOWER = 1; // Valeur réelle >= valeur stockée
+    public static final int BOUND_UPPER = 2; // Valeur réelle <= valeur stockée
+    public static final int BOUND_EXACT = 3;
+
+    static final int HEADER_BYTES = 64;
+    static final int ENTRY_BYTES = 16;
+    private static final int MAGIC = 0x54_54_53_45; // "ESTT"
+    private static final int VERSION = 2; // 2 : trait de la clé donné par la recherche (EscampeZobrist.key)
+    private static final int MAX_ENTRIES_LOG2 = 26; // 1 Go : une seule projection (< 2 Go)
+
+    // Données d'une entrée : valeur (bits 0-31), coup (32-43), profondeur (44-51), borne (52-53), génération (54-61)
+    private static final int MOVE_SHIFT = 32, DEPTH_SHIFT = 44, BOUND_SHIFT = 52, GENERATION_SHIFT = 54;
+
+    private static final Map<Path, TranspositionTable> OPEN_FILES = new HashMap<>();
+
+    private final ByteBuffer buffer;
+    private final long mask;
+    private int generation; // Course bénigne entre threads : au pire une entrée est mal datée
+    private final long evalFingerprint;
+    private final long salt;
+    private final Path file; // null en mémoire
+
+    private TranspositionTable(ByteBuffer buffer, long entries, int generation, long evalFingerprint, Path file) {
+        this.buffer = buffer;
+        this.mask = entries - 1;
+        this.generation = generation & 0xFF;
+        this.evalFingerprint = evalFingerprint;
+        this.salt = evalFingerprint * 0x9E37_79B9_7F4A_7C15L;
+        this.file = file;
+    }
+
+    /** Table en mémoire, perdue à la fin du processus
+     * @param sizeMb taille approximative (arrondie à la puissance de deux d'entrées inférieure)
+     */
+    public static TranspositionTable inMemory(int sizeMb) {
+        long entries = entriesFor(sizeMb);
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) (HEADER_BYTES + entries * ENTRY_BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+        return new TranspositionTable(buffer, entries, 0, 0, null);
+    }
+
+    /** Ouvre (ou crée) une table sur disque. Un fichier existant compatible garde sa taille et son contenu ;
+     * un fichier d'un autre format ou d'une autre évaluation est remis à zéro.
+     * @param sizeMb taille d'un nouveau fichier
+     * @param evalFingerprint empreinte de l'évaluation (EscampeSearch.evalFingerprint) : les valeurs d'une autre
+     *                        évaluation ne sont pas réutilisées
+     */
+    public static TranspositionTable open(Path file, int sizeMb, long evalFingerprint) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (OPEN_FILES) {
+            TranspositionTable table = OPEN_FILES.get(key);
+            if (table != null) {
+                if (table.evalFingerprint != evalFingerprint)
+                    throw new IOException("Table " + file + " déjà ouverte pour une autre évaluation");
+                return table;
+            }
+
+            try (FileChannel channel = FileChannel.open(key, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long entries;
+                int generation;
+                FileLock lock = channel.lock(); // Exclut les autres processus le temps de l'en-tête
+                try {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    if (channel.size() >= HEADER_BYTES) channel.read(header, 0);
+                    entries = header.getLong(8);
+                    boolean compatible = header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                            && entries > 0 && Long.bitCount(entries) == 1 && entries <= (1L << MAX_ENTRIES_LOG2)
+                            && channel.size() >= HEADER_BYTES + entries * ENTRY_BYTES
+                            && header.getLong(16) == EscampeZobrist.SEED && header.getLong(24) == evalFingerprint;
+                    if (!compatible) {
+                        if (channel.size() > 0) System.out.println("Table de transposition " + file + " incompatible, remise à zéro");
+                        entries = entriesFor(sizeMb);
+                        clear(channel, HEADER_BYTES + entries * ENTRY_BYTES);
+                        header.clear();
+                        header.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, entries)
+                              .putLong(16, EscampeZobrist.SEED).putLong(24, evalFingerprint).putInt(32, 0);
+                    }
+                    generation = header.getInt(32) + 1;
+                    header.putInt(32, generation);
+                    header.rewind();
+                    channel.write(header, 0);
+                } finally {
+                    lock.release();
+                }
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + entries * ENTRY_BYTES);
+                table = new TranspositionTable(mapped.order(ByteOrder.LITTLE_ENDIAN), entries, generation, evalFingerprint, key);
+            }
+            OPEN_FILES.put(key, table);
+            return table;
+        }
+    }
+
+    /** Remplit de zéros les size premiers octets du fichier (en l'agrandissant si besoin) */
+    private static void clear(FileChannel channel, long size) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate(1 << 20);
+        for (long position = 0; position < size; position += zeros.capacity()) {
+            zeros.clear().limit((int) Math.min(zeros.capacity(), size - position));
+            while (zeros.hasRemaining()) channel.write(zeros, position + zeros.position());
+        }
+    }
+
+    private static long entriesFor(int sizeMb) {
+        long bytes = Math.max(1, sizeMb) * (1L << 20);
+        int log2 = 63 - Long.numberOfLeadingZeros(bytes / ENTRY_BYTES);
+        return 1L << Math.min(MAX_ENTRIES_LOG2, log2);
+    }
+
+    // --------------------- Accès ---------------------
+
+    /** @return les données de l'entrée de cette clé, ou 0 si elle est absente (ou illisible) */
+    public long probe(long key) {
+        int offset = offset(key);
+        long check = buffer.getLong(offset);
+        long data = buffer.getLong(offset + 8);
+        return (data != 0 && (check ^ data ^ salt) == key) ? data : 0;
+    }
+
+    /** Enregistre le résultat d'une recherche
+     * @param value valeur du point de vue du moteur
+     * @param move meilleur coup (0 = inconnu : le coup déjà stocké pour cette position est gardé)
+     * @param depth profondeur restante de la recherche (0 à 255)
+     * @param bound BOUND_LOWER, BOUND_UPPER ou BOUND_EXACT
+     */
+    public void store(long key, int value, int move, int depth, int bound) {
+        int offset = offset(key);
+        long oldData = buffer.getLong(offset + 8);
+        boolean sameKey = oldData != 0 && (buffer.getLong(offset) ^ oldData ^ salt) == key;
+        if (oldData != 0 && !sameKey && depth(oldData) > depth && generation(oldData) == generation) return;
+        if (sameKey && move == 0) move = move(oldData);
+
+        long data = (value & 0xFFFFFFFFL)
+                  | ((long) (move & 0xFFF) << MOVE_SHIFT)
+                  | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+                  | ((long) bound << BOUND_SHIFT)
+                  | ((long) generation << GENERATION_SHIFT);
+        buffer.putLong(offset + 8, data);
+        buffer.putLong(offset, key ^ data ^ salt);
+    }
+
+    /** Nouvelle génération : les entrées des recherches précédentes deviennent remplaçables */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /** Écrit sur le disque les pages modifiées (sans effet en mémoire) */
+    public void flush() {
+        if (buffer instanceof MappedByteBuffer) ((MappedByteBuffer) buffer).force();
+    }
+
+    public long getEntries() {
+        return mask + 1;
+    }
+
+    /** @return le fichier de la table, ou null en mémoire */
+    public Path getFile() {
+        return file;
+    }
+
+    private int offset(long key) {
+        return HEADER_BYTES + (int) (key & mask) * ENTRY_BYTES;
+    }
+
+    // --------------------- Lecture des données ---------------------
+
+    public static int value(long data) {
+        return (int) data;
+    }
+
+    public static int move(long data) {
+        return (int) (data >>> MOVE_SHIFT) & 0xFFF;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+}
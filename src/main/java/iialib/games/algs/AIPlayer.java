@@ -1,5 +1,7 @@
 package iialib.games.algs;
 
+import java.util.function.Consumer;
+
 import iialib.games.model.IBoard;
 import iialib.games.model.IMove;
 import iialib.games.model.IRole;
@@ -26,6 +28,13 @@ public class AIPlayer<Move extends IMove,Role extends IRole, Board extends IBoar
 		return(ai.bestMove(board,this.getRole()));
 	}
 	
+	/**
+	 * Asynchronous version of bestMove (see GameAlgorithm.bestMoveAsync)
+	 */
+	public SearchHandle<Move> bestMoveAsync(Board board, Consumer<? super SearchInfo<Move>> listener) {
+		return(ai.bestMoveAsync(board,this.getRole(),listener));
+	}
+
 	public Board playMove(Board board, Move move) {
 		return(board.play(move, this.getRole()));
 	}
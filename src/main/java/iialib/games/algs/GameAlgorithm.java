@@ -1,5 +1,8 @@
 package iialib.games.algs;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import iialib.games.model.IBoard;
 import iialib.games.model.IMove;
 import iialib.games.model.IRole;
@@ -9,4 +12,20 @@ public interface GameAlgorithm< Move extends IMove, Role extends IRole, Board ex
 		
 	Move bestMove(Board board,Role playerRole);
 
+	/**
+	 * Asynchronous version of bestMove: the search runs on a search thread and the handle is returned immediately.
+	 * The board must not be modified before the end of the search; an algorithm runs one search at a time.
+	 * The default implementation calls bestMove and reports a single result (depth and score unknown: 0);
+	 * it cannot be interrupted, stopping it waits for bestMove. Algorithms searching by iterative deepening
+	 * report each completed depth and stop within a few nodes.
+	 * @param listener called on the search thread with each intermediate result (may be null)
+	 */
+	default SearchHandle<Move> bestMoveAsync(Board board, Role playerRole, Consumer<? super SearchInfo<Move>> listener) {
+		return SearchHandle.start(handle -> {
+			Move move = bestMove(board, playerRole);
+			if (move != null) handle.report(new SearchInfo<>(0, 0, List.of(move), 0, handle.elapsedMillis()));
+			return move;
+		}, listener);
+	}
+
 }
@@ -0,0 +1,179 @@
+package iialib.games.algs;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import iialib.games.model.IMove;
+
+/**
+ * Handle on a search running on a search thread (see GameAlgorithm.bestMoveAsync).
+ *
+ * The caller can follow the search (getLatestInfo, or the listener given to bestMoveAsync, called on the
+ * search thread at each completed depth), wait for its result (get, toCompletableFuture) or stop it
+ * at any time (stop, awaitOrStop): an interruptible search then returns the best move of its last completed depth.
+ *
+ * The search itself calls report at each completed depth and checkStop regularly; checkStop throws
+ * StopException, which the algorithm catches at its root to return its best move so far.
+ */
+public final class SearchHandle<Move extends IMove> {
+
+	/** Thrown by checkStop to unwind a stopped search (without stack trace) */
+	public static final class StopException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private StopException() {
+			super("search stopped", null, false, false);
+		}
+	}
+
+	private static final StopException STOP = new StopException();
+
+	/** Search threads, shared by all the asynchronous searches (daemons: they do not keep the JVM alive) */
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+	private static final ExecutorService SEARCH_THREADS = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "iialib-search-" + THREAD_COUNT.incrementAndGet());
+		t.setDaemon(true);
+		return t;
+	});
+
+	// ----------- Attributes ------------
+
+	private final CompletableFuture<Move> result = new CompletableFuture<>();
+	private final Consumer<? super SearchInfo<Move>> listener;
+	private final long startNanos = System.nanoTime();
+	private volatile boolean stopRequested = false;
+	private volatile SearchInfo<Move> latestInfo = null;
+
+	// ----------- Constructors ------------
+
+	private SearchHandle(Consumer<? super SearchInfo<Move>> listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Runs a search on a search thread
+	 * @param search the search, returning its best move (it receives the handle to report and check for stops)
+	 * @param listener called with each intermediate result, on the search thread (may be null)
+	 * @return the handle of the search, returned immediately
+	 */
+	public static <Move extends IMove> SearchHandle<Move> start(Function<SearchHandle<Move>, Move> search,
+			Consumer<? super SearchInfo<Move>> listener) {
+		SearchHandle<Move> handle = new SearchHandle<>(listener);
+		SEARCH_THREADS.execute(() -> {
+			try {
+				handle.result.complete(search.apply(handle));
+			} catch (Throwable t) {
+				handle.result.completeExceptionally(t);
+			}
+		});
+		return handle;
+	}
+
+	// ----------- Search side ------------
+
+	/**
+	 * Publishes an intermediate result (latest info, then listener)
+	 */
+	public void report(SearchInfo<Move> info) {
+		latestInfo = info;
+		if (listener != null) listener.accept(info);
+	}
+
+	public boolean isStopRequested() {
+		return stopRequested;
+	}
+
+	/**
+	 * @throws StopException if the search has been asked to stop
+	 */
+	public void checkStop() {
+		if (stopRequested) throw STOP;
+	}
+
+	/**
+	 * @return time since the search was started
+	 */
+	public long elapsedMillis() {
+		return (System.nanoTime() - startNanos) / 1_000_000;
+	}
+
+	// ----------- Caller side ------------
+
+	/**
+	 * Asks the search to stop, without waiting for it
+	 */
+	public void requestStop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * Stops the search and waits for its result (an interruptible search returns within a few nodes)
+	 * @return the best move found so far
+	 */
+	public Move stop() {
+		requestStop();
+		return result.join();
+	}
+
+	/**
+	 * Waits for the search at most timeout, then stops it (time management)
+	 * @return the best move found
+	 */
+	public Move awaitOrStop(long timeout, TimeUnit unit) {
+		try {
+			return result.get(timeout, unit);
+		} catch (TimeoutException e) {
+			return stop();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return stop();
+		} catch (ExecutionException e) {
+			return result.join(); // Rethrows the failure of the search (CompletionException)
+		}
+	}
+
+	/**
+	 * Waits for the end of the search
+	 */
+	public Move get() throws InterruptedException, ExecutionException {
+		return result.get();
+	}
+
+	public Move get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		return result.get(timeout, unit);
+	}
+
+	public boolean isDone() {
+		return result.isDone();
+	}
+
+	/**
+	 * @return the last intermediate result, or null if no depth is completed yet
+	 */
+	public SearchInfo<Move> getLatestInfo() {
+		return latestInfo;
+	}
+
+	/**
+	 * @return the best move of the last completed depth, or null
+	 */
+	public Move getBestMoveSoFar() {
+		SearchInfo<Move> info = latestInfo;
+		return (info != null) ? info.getBestMove() : null;
+	}
+
+	/**
+	 * @return a future completed with the result of the search (completing it does not affect the search)
+	 */
+	public CompletableFuture<Move> toCompletableFuture() {
+		return result.copy();
+	}
+
+}
@@ -0,0 +1,80 @@
+package iialib.games.algs;
+
+import java.util.Collections;
+import java.util.List;
+
+import iialib.games.model.IMove;
+
+/**
+ * Intermediate result of an asynchronous search (see GameAlgorithm.bestMoveAsync),
+ * reported each time the search completes a depth
+ */
+public final class SearchInfo<Move extends IMove> {
+
+	// ----------- Attributes ------------
+
+	/** Depth completed by the search */
+	private final int depth;
+
+	/** Value of the best move, from the point of view of the algorithm's max player */
+	private final int score;
+
+	/** Principal variation: the best move, then the expected replies (at least the best move) */
+	private final List<Move> pv;
+
+	/** Nodes visited since the beginning of the search (internal nodes and leaves) */
+	private final long nodes;
+
+	/** Time since the beginning of the search */
+	private final long timeMillis;
+
+	// ----------- Constructors ------------
+
+	public SearchInfo(int depth, int score, List<Move> pv, long nodes, long timeMillis) {
+		if (pv.isEmpty()) throw new IllegalArgumentException("The principal variation contains at least the best move");
+		this.depth = depth;
+		this.score = score;
+		this.pv = Collections.unmodifiableList(pv);
+		this.nodes = nodes;
+		this.timeMillis = timeMillis;
+	}
+
+	// ----------- Getters ------------
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	public Move getBestMove() {
+		return pv.get(0);
+	}
+
+	public List<Move> getPv() {
+		return pv;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+
+	/**
+	 * @return nodes per second since the beginning of the search
+	 */
+	public long getNodesPerSecond() {
+		return (timeMillis > 0) ? nodes * 1000 / timeMillis : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "depth " + depth + " score " + score + " nodes " + nodes + " time " + timeMillis + " ms pv " + pv;
+	}
+
+}
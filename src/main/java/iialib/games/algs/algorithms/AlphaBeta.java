@@ -2,11 +2,16 @@ package iialib.games.algs.algorithms;
 
 import iialib.games.algs.GameAlgorithm;
 import iialib.games.algs.IHeuristic;
+import iialib.games.algs.SearchHandle;
+import iialib.games.algs.SearchInfo;
 import iialib.games.model.IBoard;
+import iialib.games.model.IIndexedBoard;
 import iialib.games.model.IMove;
 import iialib.games.model.IRole;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBoard<Move, Role, Board>>
         implements GameAlgorithm<Move, Role, Board> {
@@ -37,6 +42,22 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
     /** Use negamax version if true, classic version if false */
     private boolean useNegamax;
 
+    /** Value of the move returned by the last bestMove (for SearchInfo) */
+    private int lastValue;
+
+    /** True if the last bestMove had a single possible move (returned without search) */
+    private boolean forcedMove;
+
+    /** Handle of the running asynchronous search, checked at each internal node (null for bestMove) */
+    private SearchHandle<Move> stopHandle;
+
+    /** Board searched in place by the indexed version (the same object, seen as a Board) */
+    private IIndexedBoard<Move, Role, ?> indexedBoard;
+    private Board indexedBoardAsBoard;
+
+    /** Move buffers of the indexed version, one per depth */
+    private int[][] moveBuffers;
+
     // --------- Constructors ---------
 
     public AlphaBeta(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h) {
@@ -61,12 +82,34 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
      */
 
     @Override
+    @SuppressWarnings("unchecked")
     public Move bestMove(Board board, Role playerRole) {
         // System.out.println("[AlphaBeta" + (useNegamax ? "-Negamax" : "") + "]");
 
         // Reset statistics
         nbNodes = 0;
         nbLeaves = 0;
+        forcedMove = false;
+
+        // Boards with indexed moves are searched in place on a copy, without move lists nor board copies
+        if (board instanceof IIndexedBoard) {
+            IIndexedBoard<Move, Role, ?> copy = ((IIndexedBoard<Move, Role, ?>) board).copy();
+            int maxMoves = copy.maxMoves();
+            if (moveBuffers == null || moveBuffers.length < depthMax + 1 || moveBuffers[0].length != maxMoves) {
+                moveBuffers = new int[depthMax + 1][maxMoves];
+            }
+            int count = copy.generateMoves(playerRole, moveBuffers[0]);
+            if (count >= 0) {
+                indexedBoard = copy;
+                indexedBoardAsBoard = (Board) copy;
+                try {
+                    return bestMoveIndexed(playerRole, count);
+                } finally {
+                    indexedBoard = null;
+                    indexedBoardAsBoard = null;
+                }
+            }
+        }
 
         // Get all possible moves for the current player
         ArrayList<Move> moves = board.possibleMoves(playerRole);
@@ -76,6 +119,11 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
             return null;
         }
 
+        // A single possible move is played without search (its value is the one of a depth 1 search)
+        if (moves.size() == 1) {
+            return forcedMove(moves.get(0), board.play(moves.get(0), playerRole), playerRole);
+        }
+
         Move bestMove = null;
 
         if (useNegamax) {
@@ -94,6 +142,7 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
                 }
                 alpha = Math.max(alpha, value); // Update alpha
             }
+            lastValue = bestValue;
         } else {
             // Classic version
             if (playerRole.equals(playerMaxRole)) {
@@ -107,6 +156,7 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
                         bestMove = move;
                     }
                 }
+                lastValue = bestValue;
             } else {
                 // MIN player: minimize the value
                 int bestValue = Integer.MAX_VALUE;
@@ -118,6 +168,7 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
                         bestMove = move;
                     }
                 }
+                lastValue = bestValue;
             }
         }
 
@@ -134,7 +185,7 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
 
     /**
      * Returns the number of nodes developed during the search
-     * @return number of internally visited nodes
+     * @return number of visited nodes, leaves included (getNbLeaves is a subset of it)
      */
     public int getNbNodes() {
         return nbNodes;
@@ -148,6 +199,62 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
         return nbLeaves;
     }
 
+    /**
+     * Iterative deepening from depth 1 to depthMax, each completed depth being reported to the handle.
+     * When stopped, returns the move of the last completed depth (the first possible move if none is completed).
+     * The principal variation of the reports only contains the best move.
+     */
+    @Override
+    public SearchHandle<Move> bestMoveAsync(Board board, Role playerRole, Consumer<? super SearchInfo<Move>> listener) {
+        return SearchHandle.start(handle -> iterativeDeepening(board, playerRole, handle), listener);
+    }
+
+    /*
+     * PRIVATE METHODS - ASYNCHRONOUS SEARCH ===============
+     */
+
+    private Move iterativeDeepening(Board board, Role playerRole, SearchHandle<Move> handle) {
+        int targetDepth = depthMax;
+        long nodes = 0;
+        Move best = null;
+        stopHandle = handle;
+        try {
+            for (int depth = 1; depth <= targetDepth; depth++) {
+                depthMax = depth;
+                Move move = bestMove(board, playerRole);
+                nodes += nbNodes;
+                if (move == null) {
+                    break; // No possible move
+                }
+                best = move;
+                handle.report(new SearchInfo<>(depth, lastValue, List.of(move), nodes, handle.elapsedMillis()));
+                if (forcedMove) {
+                    break; // Deeper searches would not change the move
+                }
+            }
+        } catch (SearchHandle.StopException e) {
+            // Stopped during a depth: its partial result is ignored
+        } finally {
+            depthMax = targetDepth;
+            stopHandle = null;
+        }
+
+        if (best == null && handle.isStopRequested()) {
+            ArrayList<Move> moves = board.possibleMoves(playerRole);
+            if (moves != null && !moves.isEmpty()) {
+                best = moves.get(0);
+            }
+        }
+        return best;
+    }
+
+    /** Unwinds the search if the asynchronous search has been stopped */
+    private void checkStop() {
+        if (stopHandle != null) {
+            stopHandle.checkStop();
+        }
+    }
+
     /*
      * PRIVATE METHODS - CLASSIC VERSION ===============
      */
@@ -177,6 +284,7 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
             return h.eval(board, playerMaxRole);
         }
 
+        checkStop();
         int maxValue = Integer.MIN_VALUE;
 
         // Explore all possible moves for MAX player
@@ -220,6 +328,7 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
             return h.eval(board, playerMaxRole);
         }
 
+        checkStop();
         int minValue = Integer.MAX_VALUE;
 
         // Explore all possible moves for MIN player
@@ -271,6 +380,7 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
             return currentRole.equals(playerMaxRole) ? eval : -eval;
         }
 
+        checkStop();
         int maxValue = Integer.MIN_VALUE;
         Role opponentRole = currentRole.equals(playerMaxRole) ? playerMinRole : playerMaxRole;
 
@@ -289,4 +399,200 @@ public class AlphaBeta<Move extends IMove, Role extends IRole, Board extends IBo
 
         return maxValue;
     }
+
+    /*
+     * PRIVATE METHODS - INDEXED VERSION ===============
+     * Same searches as above, on a single board with make / unmake (see IIndexedBoard).
+     * When a position cannot be enumerated by index, the search goes on with the methods above on a copy.
+     */
+
+    /**
+     * Root of the indexed search, same move choice as bestMove
+     * @param count number of root moves, already in moveBuffers[0]
+     */
+    private Move bestMoveIndexed(Role playerRole, int count) {
+        if (count == 0) {
+            return null;
+        }
+        int[] moves = moveBuffers[0];
+        if (count == 1) {
+            Move move = indexedBoard.toMove(moves[0]);
+            long undo = indexedBoard.makeMove(moves[0], playerRole);
+            try {
+                return forcedMove(move, indexedBoardAsBoard, playerRole);
+            } finally {
+                indexedBoard.unmakeMove(moves[0], playerRole, undo);
+            }
+        }
+        int bestMove = -1;
+
+        if (useNegamax) {
+            int bestValue = Integer.MIN_VALUE;
+            int alpha = Integer.MIN_VALUE;
+            int beta = Integer.MAX_VALUE;
+
+            for (int i = 0; i < count; i++) {
+                long undo = indexedBoard.makeMove(moves[i], playerRole);
+                int value = -negamaxIndexed(1, -beta, -alpha, playerRole);
+                indexedBoard.unmakeMove(moves[i], playerRole, undo);
+
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestMove = moves[i];
+                }
+                alpha = Math.max(alpha, value);
+            }
+            lastValue = bestValue;
+        } else if (playerRole.equals(playerMaxRole)) {
+            int bestValue = Integer.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                long undo = indexedBoard.makeMove(moves[i], playerRole);
+                int value = minMaxIndexed(1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                indexedBoard.unmakeMove(moves[i], playerRole, undo);
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestMove = moves[i];
+                }
+            }
+            lastValue = bestValue;
+        } else {
+            int bestValue = Integer.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                long undo = indexedBoard.makeMove(moves[i], playerRole);
+                int value = maxMinIndexed(1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                indexedBoard.unmakeMove(moves[i], playerRole, undo);
+                if (value < bestValue) {
+                    bestValue = value;
+                    bestMove = moves[i];
+                }
+            }
+            lastValue = bestValue;
+        }
+
+        return (bestMove < 0) ? null : indexedBoard.toMove(bestMove);
+    }
+
+    /**
+     * Only possible move: evaluates the board after it, as a depth 1 search would, without searching further
+     * @param after the board after the move
+     */
+    private Move forcedMove(Move move, Board after, Role playerRole) {
+        nbNodes = 1;
+        nbLeaves = 1;
+        int eval = h.eval(after, playerMaxRole);
+        lastValue = (useNegamax && !playerRole.equals(playerMaxRole)) ? -eval : eval;
+        forcedMove = true;
+        return move;
+    }
+
+    /** Copy of the board being searched, for the generic methods */
+    @SuppressWarnings("unchecked")
+    private Board indexedCopy() {
+        return (Board) indexedBoard.copy();
+    }
+
+    /** maxMinAB on the indexed board */
+    private int maxMinIndexed(int depth, int alpha, int beta) {
+        if (indexedBoardAsBoard.isGameOver() || depth >= depthMax) {
+            nbNodes++;
+            nbLeaves++;
+            return h.eval(indexedBoardAsBoard, playerMaxRole);
+        }
+
+        int[] moves = moveBuffers[depth];
+        int count = indexedBoard.generateMoves(playerMaxRole, moves);
+        if (count < 0) {
+            return maxMinAB(indexedCopy(), depth, alpha, beta);
+        }
+        nbNodes++;
+        if (count == 0) {
+            nbLeaves++;
+            return h.eval(indexedBoardAsBoard, playerMaxRole);
+        }
+
+        checkStop();
+        int maxValue = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            long undo = indexedBoard.makeMove(moves[i], playerMaxRole);
+            int value = minMaxIndexed(depth + 1, alpha, beta);
+            indexedBoard.unmakeMove(moves[i], playerMaxRole, undo);
+            maxValue = Math.max(maxValue, value);
+            alpha = Math.max(alpha, value);
+            if (alpha >= beta) {
+                break; // Pruning
+            }
+        }
+        return maxValue;
+    }
+
+    /** minMaxAB on the indexed board */
+    private int minMaxIndexed(int depth, int alpha, int beta) {
+        if (indexedBoardAsBoard.isGameOver() || depth >= depthMax) {
+            nbNodes++;
+            nbLeaves++;
+            return h.eval(indexedBoardAsBoard, playerMaxRole);
+        }
+
+        int[] moves = moveBuffers[depth];
+        int count = indexedBoard.generateMoves(playerMinRole, moves);
+        if (count < 0) {
+            return minMaxAB(indexedCopy(), depth, alpha, beta);
+        }
+        nbNodes++;
+        if (count == 0) {
+            nbLeaves++;
+            return h.eval(indexedBoardAsBoard, playerMaxRole);
+        }
+
+        checkStop();
+        int minValue = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            long undo = indexedBoard.makeMove(moves[i], playerMinRole);
+            int value = maxMinIndexed(depth + 1, alpha, beta);
+            indexedBoard.unmakeMove(moves[i], playerMinRole, undo);
+            minValue = Math.min(minValue, value);
+            beta = Math.min(beta, value);
+            if (alpha >= beta) {
+                break; // Pruning
+            }
+        }
+        return minValue;
+    }
+
+    /** negamax on the indexed board */
+    private int negamaxIndexed(int depth, int alpha, int beta, Role currentRole) {
+        if (indexedBoardAsBoard.isGameOver() || depth >= depthMax) {
+            nbNodes++;
+            nbLeaves++;
+            int eval = h.eval(indexedBoardAsBoard, playerMaxRole);
+            return currentRole.equals(playerMaxRole) ? eval : -eval;
+        }
+
+        int[] moves = moveBuffers[depth];
+        int count = indexedBoard.generateMoves(currentRole, moves);
+        if (count < 0) {
+            return negamax(indexedCopy(), depth, alpha, beta, currentRole);
+        }
+        nbNodes++;
+        if (count == 0) {
+            nbLeaves++;
+            int eval = h.eval(indexedBoardAsBoard, playerMaxRole);
+            return currentRole.equals(playerMaxRole) ? eval : -eval;
+        }
+
+        checkStop();
+        int maxValue = Integer.MIN_VALUE;
+        Role opponentRole = currentRole.equals(playerMaxRole) ? playerMinRole : playerMaxRole;
+        for (int i = 0; i < count; i++) {
+            long undo = indexedBoard.makeMove(moves[i], currentRole);
+            int value = -negamaxIndexed(depth + 1, -beta, -alpha, opponentRole);
+            indexedBoard.unmakeMove(moves[i], currentRole, undo);
+            maxValue = Math.max(maxValue, value);
+            alpha = Math.max(alpha, value);
+            if (alpha >= beta) {
+                break;
+            }
+        }
+        return maxValue;
+    }
 }
@@ -3,6 +3,7 @@ package iialib.games.algs.algorithms;
 import iialib.games.algs.GameAlgorithm;
 import iialib.games.algs.IHeuristic;
 import iialib.games.model.IBoard;
+import iialib.games.model.IIndexedBoard;
 import iialib.games.model.IMove;
 import iialib.games.model.IRole;
 
@@ -42,6 +43,15 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
      */
 	private int nbLeaves;
 
+	/** Board searched in place by the indexed version (the same object, seen as a Board)
+     */
+	private IIndexedBoard<Move, Role, ?> indexedBoard;
+	private Board indexedBoardAsBoard;
+
+	/** Move buffers of the indexed version, one per depth
+     */
+	private int[][] moveBuffers;
+
 	// --------- Constructors ---------
 
 	public MiniMax(Role playerMaxRole, Role playerMinRole, IHeuristic<Board, Role> h) {
@@ -61,6 +71,7 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 	 */
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public Move bestMove(Board board, Role playerRole) {
 		System.out.println("[MiniMax]");
 
@@ -68,6 +79,26 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 		nbNodes = 0;
 		nbLeaves = 0;
 
+		// Boards with indexed moves are searched in place on a copy, without move lists nor board copies
+		if (board instanceof IIndexedBoard) {
+			IIndexedBoard<Move, Role, ?> copy = ((IIndexedBoard<Move, Role, ?>) board).copy();
+			int maxMoves = copy.maxMoves();
+			if (moveBuffers == null || moveBuffers.length != depthMax + 1 || moveBuffers[0].length != maxMoves) {
+				moveBuffers = new int[depthMax + 1][maxMoves];
+			}
+			int count = copy.generateMoves(playerRole, moveBuffers[0]);
+			if (count >= 0) {
+				indexedBoard = copy;
+				indexedBoardAsBoard = (Board) copy;
+				try {
+					return bestMoveIndexed(playerRole, count);
+				} finally {
+					indexedBoard = null;
+					indexedBoardAsBoard = null;
+				}
+			}
+		}
+
         // Get all possible moves for the current player
         ArrayList<Move> moves = board.possibleMoves(playerRole);
 
@@ -200,4 +231,112 @@ public class MiniMax<Move extends IMove,Role extends IRole,Board extends IBoard<
 
 		return minValue;
 	}
+
+	/*
+	 * PRIVATE METHODS - INDEXED VERSION ===============
+	 * Same searches as above, on a single board with make / unmake (see IIndexedBoard).
+	 * When a position cannot be enumerated by index, the search goes on with the methods above on a copy.
+	 */
+
+	/**
+	 * Root of the indexed search, same move choice as bestMove
+	 * @param count number of root moves, already in moveBuffers[0]
+	 */
+	private Move bestMoveIndexed(Role playerRole, int count) {
+		int[] moves = moveBuffers[0];
+		int bestMove = -1;
+
+		if(playerRole == playerMaxRole) {
+			int bestValue = Integer.MIN_VALUE;
+			for (int i = 0; i < count; i++) {
+				long undo = indexedBoard.makeMove(moves[i], playerRole);
+				int value = minMaxIndexed(1);
+				indexedBoard.unmakeMove(moves[i], playerRole, undo);
+				if(value > bestValue) {
+					bestValue = value;
+					bestMove = moves[i];
+				}
+			}
+		} else {
+			int bestValue = Integer.MAX_VALUE;
+			for (int i = 0; i < count; i++) {
+				long undo = indexedBoard.makeMove(moves[i], playerRole);
+				int value = maxMinIndexed(1);
+				indexedBoard.unmakeMove(moves[i], playerRole, undo);
+				if(value < bestValue) {
+					bestValue = value;
+					bestMove = moves[i];
+				}
+			}
+		}
+
+		return (bestMove < 0) ? null : indexedBoard.toMove(bestMove);
+	}
+
+	/** Copy of the board being searched, for the generic methods
+     */
+	@SuppressWarnings("unchecked")
+	private Board indexedCopy() {
+		return (Board) indexedBoard.copy();
+	}
+
+	/** maxMin on the indexed board
+     */
+	private int maxMinIndexed(int depth) {
+		if (indexedBoardAsBoard.isGameOver() || depth >= depthMax) {
+			nbNodes++;
+			nbLeaves++;
+			return h.eval(indexedBoardAsBoard, playerMaxRole);
+		}
+
+		int[] moves = moveBuffers[depth];
+		int count = indexedBoard.generateMoves(playerMaxRole, moves);
+		if (count < 0) {
+			return maxMin(indexedCopy(), depth);
+		}
+		nbNodes++;
+		if (count == 0) {
+			nbLeaves++;
+			return h.eval(indexedBoardAsBoard, playerMaxRole);
+		}
+
+		int maxValue = Integer.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			long undo = indexedBoard.makeMove(moves[i], playerMaxRole);
+			int value = minMaxIndexed(depth + 1);
+			indexedBoard.unmakeMove(moves[i], playerMaxRole, undo);
+			maxValue = Math.max(maxValue, value);
+		}
+		return maxValue;
+	}
+
+	/** minMax on the indexed board
+     */
+	private int minMaxIndexed(int depth) {
+		if (indexedBoardAsBoard.isGameOver() || depth >= depthMax) {
+			nbNodes++;
+			nbLeaves++;
+			return h.eval(indexedBoardAsBoard, playerMaxRole);
+		}
+
+		int[] moves = moveBuffers[depth];
+		int count = indexedBoard.generateMoves(playerMinRole, moves);
+		if (count < 0) {
+			return minMax(indexedCopy(), depth);
+		}
+		nbNodes++;
+		if (count == 0) {
+			nbLeaves++;
+			return h.eval(indexedBoardAsBoard, playerMaxRole);
+		}
+
+		int minValue = Integer.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			long undo = indexedBoard.makeMove(moves[i], playerMinRole);
+			int value = maxMinIndexed(depth + 1);
+			indexedBoard.unmakeMove(moves[i], playerMinRole, undo);
+			minValue = Math.min(minValue, value);
+		}
+		return minValue;
+	}
 }
@@ -0,0 +1,58 @@
+package iialib.games.model;
+
+/**
+ * Optional extension of IBoard for allocation-free searches.
+ * Moves are encoded as ints chosen by the game, enumerated into a buffer provided by the caller,
+ * and played then undone in place on a single board.
+ * The search algorithms of iialib (AlphaBeta, MiniMax) detect this interface and use it automatically;
+ * boards that do not implement it are searched through possibleMoves and play.
+ *
+ * The enumeration order must be the same as possibleMoves, so that both ways of searching
+ * visit the same nodes and return the same move.
+ *
+ * @param <Move> Class implementing the moves for the game
+ * @param <Role> Class implementing the roles for the game
+ * @param <Board> Class implementing the boards for the game
+ */
+public interface IIndexedBoard<Move extends IMove, Role extends IRole, Board extends IIndexedBoard<Move,Role,Board>>
+		extends IBoard<Move,Role,Board> {
+
+	/**
+	 * @return an upper bound of the number of moves in any position (size of the buffers given to generateMoves)
+	 */
+	int maxMoves();
+
+	/**
+	 * writes the codes of the possible moves of the player having the playerRole into buffer, from index 0
+	 * @param playerRole
+	 * @param buffer an array of at least maxMoves() elements
+	 * @return the number of moves, or -1 if this position cannot be enumerated this way
+	 * (the caller then falls back to possibleMoves)
+	 */
+	int generateMoves(Role playerRole, int[] buffer);
+
+	/**
+	 * plays move on this board, played by a player having the playerRole
+	 * @param move a code returned by generateMoves for this position
+	 * @param playerRole
+	 * @return the information needed by unmakeMove to restore the board
+	 */
+	long makeMove(int move, Role playerRole);
+
+	/**
+	 * restores the board as it was before makeMove(move, playerRole) returned undo
+	 * (moves are undone in the reverse order they were made)
+	 */
+	void unmakeMove(int move, Role playerRole, long undo);
+
+	/**
+	 * @return the move corresponding to a code of generateMoves
+	 */
+	Move toMove(int move);
+
+	/**
+	 * @return an independent copy of this board (searches make and undo moves on a copy)
+	 */
+	Board copy();
+
+}